@@ -0,0 +1,16 @@
+package fr.uga.l3miage.library.async;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@Configuration
+@EnableConfigurationProperties(AsyncProperties.class)
+public class AsyncConfiguration {
+
+    @Bean(destroyMethod = "shutdown")
+    public DatabaseExecutor databaseExecutor(AsyncProperties properties, PlatformTransactionManager transactionManager) {
+        return new DatabaseExecutor(properties, transactionManager);
+    }
+}
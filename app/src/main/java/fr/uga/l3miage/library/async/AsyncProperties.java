@@ -0,0 +1,29 @@
+package fr.uga.l3miage.library.async;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Sizing of the database executor running the async endpoints, read from <code>library.async.*</code>.
+ *
+ * @param poolSize       number of threads, each one may hold a database connection
+ * @param queueCapacity  number of calls waiting for a thread before new ones are rejected with 503
+ * @param defaultTimeout timeout of an endpoint that is not configured
+ * @param timeouts       per endpoint timeouts, by endpoint name
+ */
+@ConfigurationProperties("library.async")
+public record AsyncProperties(
+        @DefaultValue("8") int poolSize,
+        @DefaultValue("100") int queueCapacity,
+        @DefaultValue("2s") Duration defaultTimeout,
+        Map<String, Duration> timeouts
+) {
+
+    public Duration timeout(String endpoint) {
+        var timeout = timeouts == null ? null : timeouts.get(endpoint);
+        return timeout == null ? defaultTimeout : timeout;
+    }
+}
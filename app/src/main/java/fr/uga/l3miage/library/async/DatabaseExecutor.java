@@ -0,0 +1,159 @@
+package fr.uga.l3miage.library.async;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded pool running the service calls of the async endpoints, so that a slow query holds one of its threads
+ * instead of a servlet thread.
+ * <p>
+ * Calls fail fast with 503 rather than piling up: when the queue is full the call is rejected at once, and when
+ * it does not complete within the timeout of its endpoint it is cancelled (interrupting the thread if it already
+ * started).
+ * <p>
+ * Interrupting a thread does not stop the query it waits for, so each call runs in a read-only transaction whose
+ * timeout is what remains of the endpoint timeout once the call leaves the queue, rounded up to the second:
+ * Hibernate sets it as the query timeout of every statement, and the database cancels the query instead of
+ * holding the connection after the client got its 503. The async endpoints only read.
+ */
+public class DatabaseExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final AsyncProperties properties;
+    private final PlatformTransactionManager transactionManager;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder runNanos = new LongAdder();
+
+    public DatabaseExecutor(AsyncProperties properties, PlatformTransactionManager transactionManager) {
+        this.properties = properties;
+        this.transactionManager = transactionManager;
+        var threads = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(properties.poolSize(), properties.poolSize(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.queueCapacity()),
+                runnable -> {
+                    var thread = new Thread(runnable, "db-executor-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Counters since startup; times are in milliseconds
+     *
+     * @param active     calls running now
+     * @param queued     calls waiting for a thread now
+     * @param submitted  calls submitted
+     * @param completed  calls that returned a value
+     * @param failed     calls that threw an exception
+     * @param rejected   calls rejected because the queue was full
+     * @param timedOut   calls cancelled because they exceeded the timeout of their endpoint
+     * @param meanWait   mean time spent in the queue
+     * @param meanRun    mean running time
+     */
+    public record Statistics(int active, int queued, long submitted, long completed, long failed, long rejected,
+                             long timedOut, double meanWait, double meanRun) {
+    }
+
+    /**
+     * Runs a service call on the pool, in a read-only transaction
+     *
+     * @param endpoint name of the endpoint, selecting its timeout
+     * @param call     the call, which may throw a {@link ResponseStatusException}
+     * @return the result, or a {@link ResponseStatusException} 503 if the call was rejected or timed out
+     */
+    public <T> CompletableFuture<T> supply(String endpoint, Callable<T> call) {
+        submitted.increment();
+        Duration timeout = properties.timeout(endpoint);
+        var result = new CompletableFuture<T>();
+        long queuedAt = System.nanoTime();
+        var task = new FutureTask<Void>(() -> {
+            long startedAt = System.nanoTime();
+            waitNanos.add(startedAt - queuedAt);
+            T value;
+            try {
+                value = inTransaction(timeout.toNanos() - (startedAt - queuedAt), call);
+            } catch (Exception e) {
+                runNanos.add(System.nanoTime() - startedAt);
+                failed.increment();
+                result.completeExceptionally(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+                return;
+            }
+            runNanos.add(System.nanoTime() - startedAt);
+            completed.increment();
+            result.complete(value);
+        }, null);
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(
+                    new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "database executor is saturated", e));
+        }
+        return result.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .exceptionallyCompose(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof TimeoutException) {
+                        timedOut.increment();
+                        task.cancel(true);
+                        executor.remove(task);
+                        cause = new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                                endpoint + " did not complete within " + timeout, cause);
+                    }
+                    return CompletableFuture.failedFuture(cause);
+                });
+    }
+
+    /**
+     * @param remainingNanos time left to the call before its endpoint times out
+     */
+    private <T> T inTransaction(long remainingNanos, Callable<T> call) {
+        var transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        transaction.setTimeout((int) Math.max(1, TimeUnit.NANOSECONDS.toSeconds(remainingNanos + 999_999_999)));
+        return transaction.execute(status -> {
+            try {
+                return call.call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                // rolls back, then unwrapped by the caller
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    public Statistics statistics() {
+        long started = completed.sum() + failed.sum();
+        return new Statistics(executor.getActiveCount(), executor.getQueue().size(),
+                submitted.sum(), completed.sum(), failed.sum(), rejected.sum(), timedOut.sum(),
+                started == 0 ? 0 : waitNanos.sum() / 1e6 / started,
+                started == 0 ? 0 : runNanos.sum() / 1e6 / started);
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
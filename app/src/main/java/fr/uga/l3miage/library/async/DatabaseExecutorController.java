@@ -0,0 +1,26 @@
+package fr.uga.l3miage.library.async;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Exposes the counters of the database executor running the async endpoints.
+ */
+@RestController
+@RequestMapping(value = "/api/v1/async", produces = "application/json")
+public class DatabaseExecutorController {
+
+    private final DatabaseExecutor databaseExecutor;
+
+    @Autowired
+    public DatabaseExecutorController(DatabaseExecutor databaseExecutor) {
+        this.databaseExecutor = databaseExecutor;
+    }
+
+    @GetMapping("/statistics")
+    public DatabaseExecutor.Statistics statistics() {
+        return databaseExecutor.statistics();
+    }
+}
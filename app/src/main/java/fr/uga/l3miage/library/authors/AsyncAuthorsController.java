@@ -0,0 +1,123 @@
+package fr.uga.l3miage.library.authors;
+
+import fr.uga.l3miage.library.async.DatabaseExecutor;
+import fr.uga.l3miage.library.books.BookDTO;
+import fr.uga.l3miage.library.books.BooksMapper;
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.web.Cursor;
+import fr.uga.l3miage.library.web.ETags;
+import fr.uga.l3miage.library.web.ListingETags;
+import fr.uga.l3miage.library.web.Page;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Async variants of the read endpoints of {@link AuthorsController}, run on the {@link DatabaseExecutor}.
+ * As in {@link fr.uga.l3miage.library.books.AsyncBooksController}, the request is only used on the servlet thread.
+ */
+@RestController
+@RequestMapping(value = "/api/v1/async", produces = "application/json")
+public class AsyncAuthorsController {
+
+    private final AuthorService authorService;
+    private final BookService bookService;
+    private final AuthorMapper authorMapper;
+    private final BooksMapper booksMapper;
+    private final ListingETags listingETags;
+    private final DatabaseExecutor databaseExecutor;
+
+    @Autowired
+    public AsyncAuthorsController(AuthorService authorService, BookService bookService, AuthorMapper authorMapper,
+                                  BooksMapper booksMapper, ListingETags listingETags, DatabaseExecutor databaseExecutor) {
+        this.authorService = authorService;
+        this.bookService = bookService;
+        this.authorMapper = authorMapper;
+        this.booksMapper = booksMapper;
+        this.listingETags = listingETags;
+        this.databaseExecutor = databaseExecutor;
+    }
+
+    @GetMapping("/authors")
+    public CompletableFuture<ResponseEntity<Collection<AuthorDTO>>> authors(@RequestParam(value = "q", required = false) String query,
+                                                                            @RequestParam(value = "after", required = false) String after,
+                                                                            @RequestParam(value = "limit", required = false) Integer limit,
+                                                                            WebRequest request) {
+        if (listingETags.checkNotModified(request, authorService.modificationCount())) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (query == null && (after != null || limit != null)) {
+            var cursor = Cursor.parse(after);
+            int size = Cursor.limit(limit);
+            return databaseExecutor.supply("authors", () -> {
+                var fetched = cursor == null
+                        ? authorService.listViews(null, null, size + 1)
+                        : authorService.listViews(cursor.key(), cursor.id(), size + 1);
+                return Page.of(fetched, size, author -> new Cursor(author.fullName(), author.id()))
+                        .toResponse(authorMapper::viewToDTO);
+            });
+        }
+        if (query == null) {
+            return databaseExecutor.supply("authors", () -> ResponseEntity.ok(authorMapper.viewToDTO(authorService.listViews())));
+        }
+        return databaseExecutor.supply("authors", () -> ResponseEntity.ok(authorService.searchByName(query).stream()
+                .map(authorMapper::entityToDTO)
+                .toList()));
+    }
+
+    @GetMapping("/authors/{id}")
+    public CompletableFuture<ResponseEntity<AuthorDTO>> author(@PathVariable("id") @NotNull Long id) {
+        return databaseExecutor.supply("author", () -> {
+            try {
+                var author = authorService.get(id);
+                return ResponseEntity.ok().eTag(ETags.of(author)).body(authorMapper.entityToDTO(author));
+            } catch (EntityNotFoundException e) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, null, e);
+            }
+        });
+    }
+
+    @GetMapping("/authors/{id}/books")
+    public CompletableFuture<Collection<BookDTO>> books(@PathVariable("id") @NotNull Long authorId, WebRequest request) {
+        if (listingETags.checkNotModified(request, bookService.modificationCount())) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return databaseExecutor.supply("author-books", () -> {
+            try {
+                return booksMapper.entityToDTO(bookService.getByAuthor(authorId));
+            } catch (EntityNotFoundException e) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, null, e);
+            }
+        });
+    }
+
+    @GetMapping("/authors/{id}/coauthors")
+    public CompletableFuture<Collection<CoAuthorDTO>> coAuthors(@PathVariable("id") @NotNull Long authorId, WebRequest request) {
+        // co-authorship is built from the books and their authors
+        if (listingETags.checkNotModified(request, bookService.modificationCount())) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return databaseExecutor.supply("coauthors", () -> {
+            try {
+                return authorService.coAuthors(authorId).stream()
+                        .map(authorMapper::coAuthorToDTO)
+                        .toList();
+            } catch (EntityNotFoundException e) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, null, e);
+            }
+        });
+    }
+}
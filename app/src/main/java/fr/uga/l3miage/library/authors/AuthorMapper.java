@@ -1,6 +1,8 @@
 package fr.uga.l3miage.library.authors;
 
 import fr.uga.l3miage.library.data.domain.Author;
+import fr.uga.l3miage.library.data.projection.AuthorView;
+import fr.uga.l3miage.library.service.CoAuthor;
 import org.mapstruct.Mapper;
 
 import java.util.Collection;
@@ -11,7 +13,15 @@ public interface AuthorMapper {
 
     Collection<AuthorDTO> entityToDTO(Iterable<Author> authors);
 
+    AuthorDTO viewToDTO(AuthorView author);
+
+    Collection<AuthorDTO> viewToDTO(Iterable<AuthorView> authors);
+
     Author dtoToEntity(AuthorDTO author);
 
     Collection<Author> dtoToEntity(Iterable<AuthorDTO> authors);
+
+    default CoAuthorDTO coAuthorToDTO(CoAuthor coAuthor) {
+        return new CoAuthorDTO(coAuthor.author().getId(), coAuthor.author().getFullName(), coAuthor.sharedBooks());
+    }
 }
\ No newline at end of file
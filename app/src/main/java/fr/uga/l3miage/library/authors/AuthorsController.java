@@ -1,11 +1,12 @@
 package fr.uga.l3miage.library.authors;
 
-import fr.uga.l3miage.library.data.domain.Author;
 import fr.uga.l3miage.library.books.BookDTO;
 import fr.uga.l3miage.library.books.BooksMapper;
 import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.BookService;
 import fr.uga.l3miage.library.service.DeleteAuthorException;
 import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.StaleVersionException;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,9 +15,16 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import fr.uga.l3miage.library.web.Cursor;
+import fr.uga.l3miage.library.web.ETags;
+import fr.uga.l3miage.library.web.ListingETags;
+import fr.uga.l3miage.library.web.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.Collection;
@@ -25,34 +33,74 @@ import java.util.Collection;
 @RequestMapping(value = "/api/v1", produces = "application/json")
 public class AuthorsController {
 
+    private static final int MAX_SUGGESTIONS = 100;
+
     private final AuthorService authorService;
+    private final BookService bookService;
     private final AuthorMapper authorMapper;
     private final BooksMapper booksMapper;
+    private final ListingETags listingETags;
 
     @Autowired
-    public AuthorsController(AuthorService authorService, AuthorMapper authorMapper, BooksMapper booksMapper) {
+    public AuthorsController(AuthorService authorService, BookService bookService, AuthorMapper authorMapper, BooksMapper booksMapper,
+                             ListingETags listingETags) {
         this.authorService = authorService;
+        this.bookService = bookService;
         this.authorMapper = authorMapper;
         this.booksMapper = booksMapper;
+        this.listingETags = listingETags;
     }
 
     @GetMapping("/authors")
-    public Collection<AuthorDTO> authors(@RequestParam(value = "q", required = false) String query) {
-        Collection<Author> authors;
+    public ResponseEntity<Collection<AuthorDTO>> authors(@RequestParam(value = "q", required = false) String query,
+                                                         @RequestParam(value = "after", required = false) String after,
+                                                         @RequestParam(value = "limit", required = false) Integer limit,
+                                                         WebRequest request) {
+        if (listingETags.checkNotModified(request, authorService.modificationCount())) {
+            return null;
+        }
+        if (query == null && (after != null || limit != null)) {
+            // keyset pagination on (fullName, id)
+            var cursor = Cursor.parse(after);
+            int size = Cursor.limit(limit);
+            var fetched = cursor == null
+                    ? authorService.listViews(null, null, size + 1)
+                    : authorService.listViews(cursor.key(), cursor.id(), size + 1);
+            return Page.of(fetched, size, author -> new Cursor(author.fullName(), author.id()))
+                    .toResponse(authorMapper::viewToDTO);
+        }
         if (query == null) {
-            authors = authorService.list();
-        } else {
-            authors = authorService.searchByName(query);
+            // read-only listing served from projections: no managed entity is created
+            return ResponseEntity.ok(authorMapper.viewToDTO(authorService.listViews()));
         }
-        return authors.stream()
+        return ResponseEntity.ok(authorService.searchByName(query).stream()
+                .map(authorMapper::entityToDTO)
+                .toList());
+    }
+
+    @GetMapping("/authors/suggest")
+    public Collection<AuthorDTO> suggest(@RequestParam("prefix") String prefix,
+                                         @RequestParam(value = "limit", defaultValue = "10") int limit,
+                                         WebRequest request) {
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_SUGGESTIONS);
+        }
+        if (listingETags.checkNotModified(request, authorService.modificationCount())) {
+            return null;
+        }
+        return authorService.suggest(prefix, limit).stream()
                 .map(authorMapper::entityToDTO)
                 .toList();
     }
 
     @GetMapping("/authors/{id}")
-    public AuthorDTO author(@PathVariable("id") @NotNull Long id) {
+    public AuthorDTO author(@PathVariable("id") @NotNull Long id, WebRequest request) {
         try {
-            return authorMapper.entityToDTO(authorService.get(id));
+            var author = authorService.get(id);
+            if (request.checkNotModified(ETags.of(author))) {
+                return null;
+            }
+            return authorMapper.entityToDTO(author);
         } catch (EntityNotFoundException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, null, e);
         }
@@ -65,17 +113,27 @@ public class AuthorsController {
         return authorMapper.entityToDTO(saved);
     }
 
+    /**
+     * Renames an author, guarded by the version given in <code>If-Match</code>: 428 without it, 412 when the
+     * author was modified since.
+     */
     @PutMapping(value = "/authors/{id}", consumes = MediaType.APPLICATION_JSON_VALUE)
-    public AuthorDTO updateAuthor(@RequestBody @Valid AuthorDTO author, @NotNull @PathVariable("id") Long id) {
+    public ResponseEntity<AuthorDTO> updateAuthor(@RequestBody @Valid AuthorDTO author, @NotNull @PathVariable("id") Long id,
+                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
             if (author.id().equals(id)) {
-                authorService.get(id);
-                var updated = authorService.update(authorMapper.dtoToEntity(author));
-                return authorMapper.entityToDTO(updated);
+                var version = ETags.ifMatchVersion(ifMatch);
+                var entity = authorMapper.dtoToEntity(author);
+                var updated = authorService.update(entity, version);
+                return ResponseEntity.ok()
+                        .eTag(ETags.of(updated))
+                        .body(authorMapper.entityToDTO(updated));
             }
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST);
         } catch (EntityNotFoundException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "author is not found", e);
+        } catch (StaleVersionException e) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, null, e);
         }
     }
 
@@ -92,10 +150,27 @@ public class AuthorsController {
     }
 
     @GetMapping("/authors/{id}/books")
-    public Collection<BookDTO> books(@PathVariable("id") @NotNull Long authorId) {
+    public Collection<BookDTO> books(@PathVariable("id") @NotNull Long authorId, WebRequest request) {
+        if (listingETags.checkNotModified(request, bookService.modificationCount())) {
+            return null;
+        }
+        try {
+            return booksMapper.entityToDTO(bookService.getByAuthor(authorId));
+        } catch (EntityNotFoundException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, null, e);
+        }
+    }
+
+    @GetMapping("/authors/{id}/coauthors")
+    public Collection<CoAuthorDTO> coAuthors(@PathVariable("id") @NotNull Long authorId, WebRequest request) {
+        // co-authorship is built from the books and their authors
+        if (listingETags.checkNotModified(request, bookService.modificationCount())) {
+            return null;
+        }
         try {
-            var author = authorService.get(authorId);
-            return booksMapper.entityToDTO(author.getBooks());
+            return authorService.coAuthors(authorId).stream()
+                    .map(authorMapper::coAuthorToDTO)
+                    .toList();
         } catch (EntityNotFoundException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, null, e);
         }
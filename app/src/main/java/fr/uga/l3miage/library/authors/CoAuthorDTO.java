@@ -0,0 +1,8 @@
+package fr.uga.l3miage.library.authors;
+
+public record CoAuthorDTO(
+        Long id,
+        String fullName,
+        int sharedBooks
+) {
+}
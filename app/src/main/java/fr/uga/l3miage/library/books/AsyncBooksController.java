@@ -0,0 +1,103 @@
+package fr.uga.l3miage.library.books;
+
+import fr.uga.l3miage.library.async.DatabaseExecutor;
+import fr.uga.l3miage.library.data.domain.Book;
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.web.Cursor;
+import fr.uga.l3miage.library.web.ETags;
+import fr.uga.l3miage.library.web.ListingETags;
+import fr.uga.l3miage.library.web.Page;
+import jakarta.validation.constraints.NotNull;
+import org.apache.logging.log4j.util.Strings;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Async variants of the read endpoints of {@link BooksController}: the servlet thread is released while the
+ * service call runs on the {@link DatabaseExecutor}, and the call fails with 503 past the timeout of its endpoint.
+ * <p>
+ * The request is only used on the servlet thread: listing ETags come from in-memory counters and are checked
+ * before submitting the call, entity ETags are set on the returned {@link ResponseEntity} and checked by Spring
+ * once the result is dispatched back.
+ */
+@RestController
+@RequestMapping(value = "/api/v1/async", produces = "application/json")
+public class AsyncBooksController {
+
+    private final BookService bookService;
+    private final BooksMapper booksMapper;
+    private final ListingETags listingETags;
+    private final DatabaseExecutor databaseExecutor;
+
+    @Autowired
+    public AsyncBooksController(BookService bookService, BooksMapper booksMapper, ListingETags listingETags,
+                                DatabaseExecutor databaseExecutor) {
+        this.bookService = bookService;
+        this.booksMapper = booksMapper;
+        this.listingETags = listingETags;
+        this.databaseExecutor = databaseExecutor;
+    }
+
+    @GetMapping("/books")
+    public CompletableFuture<ResponseEntity<Collection<BookDTO>>> books(@RequestParam(value = "q", required = false) String query,
+                                                                        @RequestParam(value = "after", required = false) String after,
+                                                                        @RequestParam(value = "limit", required = false) Integer limit,
+                                                                        WebRequest request) {
+        if (listingETags.checkNotModified(request, bookService.modificationCount())) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (!Strings.isBlank(query)) {
+            return databaseExecutor.supply("books", () -> ResponseEntity.ok(booksMapper.viewToDTO(bookService.findViewsByTitle(query))));
+        }
+        if (after == null && limit == null) {
+            return databaseExecutor.supply("books", () -> ResponseEntity.ok(booksMapper.viewToDTO(bookService.listViews())));
+        }
+        var cursor = Cursor.parse(after);
+        int size = Cursor.limit(limit);
+        return databaseExecutor.supply("books", () -> {
+            var fetched = cursor == null
+                    ? bookService.listViews(null, null, size + 1)
+                    : bookService.listViews(cursor.key(), cursor.id(), size + 1);
+            return Page.of(fetched, size, book -> new Cursor(book.title(), book.id()))
+                    .toResponse(booksMapper::viewToDTO);
+        });
+    }
+
+    @GetMapping("/books/{id}")
+    public CompletableFuture<ResponseEntity<BookDTO>> book(@PathVariable("id") @NotNull Long id) {
+        return databaseExecutor.supply("book", () -> {
+            try {
+                return withETag(bookService.get(id));
+            } catch (EntityNotFoundException e) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, null, e);
+            }
+        });
+    }
+
+    @GetMapping("/books/by-isbn/{isbn}")
+    public CompletableFuture<ResponseEntity<BookDTO>> bookByIsbn(@PathVariable("isbn") long isbn) {
+        return databaseExecutor.supply("book-by-isbn", () -> {
+            try {
+                return withETag(bookService.getByIsbn(isbn));
+            } catch (EntityNotFoundException e) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, null, e);
+            }
+        });
+    }
+
+    private ResponseEntity<BookDTO> withETag(Book book) {
+        return ResponseEntity.ok().eTag(ETags.of(book)).body(booksMapper.entityToDTO(book));
+    }
+}
@@ -1,44 +1,134 @@
 package fr.uga.l3miage.library.books;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import fr.uga.l3miage.library.data.domain.Book;
 import fr.uga.l3miage.library.authors.AuthorDTO;
 import fr.uga.l3miage.library.service.BookService;
 import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.StaleVersionException;
+import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import jakarta.validation.constraints.NotNull;
 import org.apache.logging.log4j.util.Strings;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import fr.uga.l3miage.library.web.Cursor;
+import fr.uga.l3miage.library.web.ETags;
+import fr.uga.l3miage.library.web.ListingETags;
+import fr.uga.l3miage.library.web.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
 
 @RestController
 @RequestMapping(value = "/api/v1", produces = "application/json")
 public class BooksController {
 
+    private static final String NDJSON = "application/x-ndjson";
+
+    private static final int MAX_BATCH_SIZE = 10_000;
+
     private final BookService bookService;
     private final BooksMapper booksMapper;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final ListingETags listingETags;
 
     @Autowired
-    public BooksController(BookService bookService, BooksMapper booksMapper) {
+    public BooksController(BookService bookService, BooksMapper booksMapper, ObjectMapper objectMapper, Validator validator,
+                           ListingETags listingETags) {
        this.bookService = bookService;
         this.booksMapper = booksMapper;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.listingETags = listingETags;
     }
 
     @GetMapping("/books")
-    public Collection<BookDTO> books(@RequestParam(value = "q", required = false) String query) {
-        if (Strings.isBlank(query)) {
-            return booksMapper.entityToDTO(bookService.list());
+    public ResponseEntity<Collection<BookDTO>> books(@RequestParam(value = "q", required = false) String query,
+                                                     @RequestParam(value = "after", required = false) String after,
+                                                     @RequestParam(value = "limit", required = false) Integer limit,
+                                                     WebRequest request) {
+        if (listingETags.checkNotModified(request, bookService.modificationCount())) {
+            return null;
+        }
+        // read-only listings are served from projections: no managed entity is created
+        if (!Strings.isBlank(query)) {
+            return ResponseEntity.ok(booksMapper.viewToDTO(bookService.findViewsByTitle(query)));
         }
-        return booksMapper.entityToDTO(bookService.findByTitle(query));
+        if (after == null && limit == null) {
+            return ResponseEntity.ok(booksMapper.viewToDTO(bookService.listViews()));
+        }
+        // keyset pagination on (title, id)
+        var cursor = Cursor.parse(after);
+        int size = Cursor.limit(limit);
+        var fetched = cursor == null
+                ? bookService.listViews(null, null, size + 1)
+                : bookService.listViews(cursor.key(), cursor.id(), size + 1);
+        return Page.of(fetched, size, book -> new Cursor(book.title(), book.id()))
+                .toResponse(booksMapper::viewToDTO);
+    }
+
+    /**
+     * Streams the whole catalog as newline-delimited JSON, one book per line, with a constant memory footprint.
+     */
+    @GetMapping(value = "/books/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> export() {
+        var writer = objectMapper.writerFor(BookDTO.class);
+        StreamingResponseBody body = out -> {
+            var buffered = new BufferedOutputStream(out);
+            bookService.export(book -> {
+                try {
+                    buffered.write(writer.writeValueAsBytes(booksMapper.entityToDTO(book)));
+                    buffered.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            buffered.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
     }
 
     @GetMapping("/books/{id}")
-    public BookDTO book(@PathVariable("id") @NotNull Long id) {
+    public BookDTO book(@PathVariable("id") @NotNull Long id, WebRequest request) {
+        try {
+            var book = bookService.get(id);
+            if (request.checkNotModified(ETags.of(book))) {
+                return null;
+            }
+            return booksMapper.entityToDTO(book);
+        } catch (EntityNotFoundException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, null, e);
+        }
+    }
+
+    /**
+     * Looks a book up by ISBN, e.g. from a barcode scanner, answered without SQL for books in cache.
+     */
+    @GetMapping("/books/by-isbn/{isbn}")
+    public BookDTO bookByIsbn(@PathVariable("isbn") long isbn, WebRequest request) {
         try {
-            return booksMapper.entityToDTO(bookService.get(id));
+            var book = bookService.getByIsbn(isbn);
+            if (request.checkNotModified(ETags.of(book))) {
+                return null;
+            }
+            return booksMapper.entityToDTO(book);
         } catch (EntityNotFoundException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, null, e);
         }
@@ -57,20 +147,53 @@ public class BooksController {
         }
     }
 
+    /**
+     * Creates many books for an author in one call, inserted with JDBC batching.
+     */
+    @PostMapping("/authors/{id}/books:batch")
+    @ResponseStatus(HttpStatus.CREATED)
+    public Collection<BookDTO> newBooks(@PathVariable("id") @NotNull Long authorId, @RequestBody List<BookDTO> books) {
+        if (books.isEmpty() || books.size() > MAX_BATCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "a batch holds from 1 to " + MAX_BATCH_SIZE + " books");
+        }
+        // @Valid does not reach the elements of a list body
+        for (BookDTO book : books) {
+            var violations = validator.validate(book);
+            if (!violations.isEmpty()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, new ConstraintViolationException(violations).getMessage());
+            }
+        }
+        try {
+            var entities = booksMapper.dtoToEntity(books);
+            return booksMapper.entityToDTO(bookService.saveAll(authorId, entities));
+        } catch (EntityNotFoundException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, null, e);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, null, e);
+        }
+    }
+
+    /**
+     * Updates a book, guarded by the version given in <code>If-Match</code>: 428 without it, 412 when the book
+     * was modified since. Authors are left untouched.
+     */
     @PutMapping("/books/{id}")
-    public BookDTO updateBook(@PathVariable("id") @NotNull Long id, @RequestBody @Valid BookDTO book) {
+    public ResponseEntity<BookDTO> updateBook(@PathVariable("id") @NotNull Long id, @RequestBody @Valid BookDTO book,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
             if (book.id().equals(id)) {
-                // we have to get authors as book DTO does not have some
-                var storedAuthors = bookService.get(id).getAuthors();
+                var version = ETags.ifMatchVersion(ifMatch);
                 Book bookEntity = booksMapper.dtoToEntity(book);
-                bookEntity.setAuthors(storedAuthors);
-                var updated = bookService.update(bookEntity);
-                return booksMapper.entityToDTO(updated);
+                var updated = bookService.update(bookEntity, version);
+                return ResponseEntity.ok()
+                        .eTag(ETags.of(updated))
+                        .body(booksMapper.entityToDTO(updated));
             }
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST);
         } catch (EntityNotFoundException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, null, e);
+        } catch (StaleVersionException e) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, null, e);
         } catch (IllegalArgumentException e) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, null, e);
         }
@@ -107,4 +230,27 @@ public class BooksController {
         }
     }
 
+    /**
+     * ISBNs are unique: saving a book with the ISBN of another one is a conflict. Other integrity violations
+     * are left to the default handling.
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<Void> conflict(DataIntegrityViolationException e) {
+        if (!isDuplicateIsbn(e)) {
+            throw e;
+        }
+        return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+
+    private static boolean isDuplicateIsbn(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof org.hibernate.exception.ConstraintViolationException violation
+                    && violation.getConstraintName() != null
+                    && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(Book.ISBN_INDEX)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
 }
@@ -1,6 +1,7 @@
 package fr.uga.l3miage.library.books;
 
 import fr.uga.l3miage.library.data.domain.Book;
+import fr.uga.l3miage.library.data.projection.BookView;
 import org.mapstruct.*;
 
 import java.util.Collection;
@@ -11,6 +12,10 @@ public interface BooksMapper {
 
     Collection<BookDTO> entityToDTO(Iterable<Book> books);
 
+    BookDTO viewToDTO(BookView book);
+
+    Collection<BookDTO> viewToDTO(Iterable<BookView> books);
+
     Book dtoToEntity(BookDTO book);
 
     Collection<Book> dtoToEntity(Iterable<BookDTO> books);
@@ -0,0 +1,41 @@
+package fr.uga.l3miage.library.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Sizing of the second-level cache regions, read from <code>library.cache.*</code>.
+ *
+ * @param defaultMaxEntries maximum number of entries of a region that is not configured
+ * @param defaultTimeToLive time to live of the entries of a region that is not configured
+ * @param regions           per region settings, by region name
+ */
+@ConfigurationProperties("library.cache")
+public record CacheProperties(
+        @DefaultValue("1000") int defaultMaxEntries,
+        @DefaultValue("1h") Duration defaultTimeToLive,
+        Map<String, Region> regions
+) {
+
+    /**
+     * Settings of a region, unset values falling back to the defaults
+     *
+     * @param maxEntries maximum number of entries kept on heap
+     * @param timeToLive time to live of an entry
+     */
+    public record Region(Integer maxEntries, Duration timeToLive) {
+    }
+
+    public int maxEntries(String region) {
+        var settings = regions == null ? null : regions.get(region);
+        return settings == null || settings.maxEntries() == null ? defaultMaxEntries : settings.maxEntries();
+    }
+
+    public Duration timeToLive(String region) {
+        var settings = regions == null ? null : regions.get(region);
+        return settings == null || settings.timeToLive() == null ? defaultTimeToLive : settings.timeToLive();
+    }
+}
@@ -0,0 +1,44 @@
+package fr.uga.l3miage.library.cache;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Exposes the hit/miss counters of the second-level cache regions.
+ * Counters are only maintained when <code>hibernate.generate_statistics</code> is enabled.
+ */
+@RestController
+@RequestMapping(value = "/api/v1/cache", produces = "application/json")
+public class CacheStatisticsController {
+
+    private final SessionFactory sessionFactory;
+
+    @Autowired
+    public CacheStatisticsController(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    public record RegionStatistics(long hits, long misses, long puts) {
+    }
+
+    @GetMapping("/statistics")
+    public Map<String, RegionStatistics> statistics() {
+        var statistics = sessionFactory.getStatistics();
+        Map<String, RegionStatistics> regions = new TreeMap<>();
+        for (String region : SecondLevelCacheConfiguration.ENTITY_REGIONS) {
+            var regionStatistics = statistics.getDomainDataRegionStatistics(region);
+            regions.put(region, new RegionStatistics(
+                    regionStatistics.getHitCount(),
+                    regionStatistics.getMissCount(),
+                    regionStatistics.getPutCount()));
+        }
+        return regions;
+    }
+}
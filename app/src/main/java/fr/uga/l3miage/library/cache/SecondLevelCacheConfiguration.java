@@ -0,0 +1,59 @@
+package fr.uga.l3miage.library.cache;
+
+import fr.uga.l3miage.library.data.domain.Author;
+import fr.uga.l3miage.library.data.domain.Book;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Hibernate second-level cache for authors and books, backed by a bounded on-heap Ehcache through JCache.
+ * Every region is created up front with the size and time to live given in {@link CacheProperties},
+ * so Hibernate never falls back to an unbounded cache.
+ */
+@Configuration
+@EnableConfigurationProperties(CacheProperties.class)
+public class SecondLevelCacheConfiguration {
+
+    /**
+     * Regions declared by the entity mappings
+     */
+    static final Set<String> ENTITY_REGIONS = Set.of(
+            Author.CACHE_REGION, Author.BOOKS_CACHE_REGION,
+            Book.CACHE_REGION, Book.AUTHORS_CACHE_REGION);
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(CacheProperties properties) {
+        var provider = Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        var cacheManager = provider.getCacheManager(provider.getDefaultURI(), getClass().getClassLoader());
+        Set<String> regions = new TreeSet<>(ENTITY_REGIONS);
+        if (properties.regions() != null) {
+            regions.addAll(properties.regions().keySet());
+        }
+        for (String region : regions) {
+            var configuration = CacheConfigurationBuilder
+                    .newCacheConfigurationBuilder(Object.class, Object.class,
+                            ResourcePoolsBuilder.heap(properties.maxEntries(region)))
+                    .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(properties.timeToLive(region)));
+            cacheManager.createCache(region, Eh107Configuration.fromEhcacheCacheConfiguration(configuration));
+        }
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+}
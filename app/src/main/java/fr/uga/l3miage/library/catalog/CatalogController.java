@@ -0,0 +1,41 @@
+package fr.uga.l3miage.library.catalog;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping(value = "/api/v1", produces = "application/json")
+public class CatalogController {
+
+    private final CatalogImporter catalogImporter;
+
+    @Autowired
+    public CatalogController(CatalogImporter catalogImporter) {
+        this.catalogImporter = catalogImporter;
+    }
+
+    /**
+     * Imports a CSV or NDJSON catalog streamed in the request body, never held in memory as a whole.
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ImportReport importCatalog(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                      HttpServletRequest request) throws IOException {
+        CatalogFormat format = CatalogFormat.of(contentType)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNSUPPORTED_MEDIA_TYPE));
+        try {
+            return catalogImporter.importCatalog(request.getInputStream(), format);
+        } catch (CatalogImportException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage() + " (" + e.getReport() + ")", e);
+        }
+    }
+}
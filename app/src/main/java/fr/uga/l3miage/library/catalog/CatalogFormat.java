@@ -0,0 +1,36 @@
+package fr.uga.l3miage.library.catalog;
+
+import org.springframework.http.MediaType;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Formats accepted by the catalog import.
+ */
+public enum CatalogFormat {
+    CSV("text/csv", ".csv"),
+    NDJSON("application/x-ndjson", ".ndjson", ".jsonl");
+
+    private final MediaType mediaType;
+    private final String[] extensions;
+
+    CatalogFormat(String mediaType, String... extensions) {
+        this.mediaType = MediaType.parseMediaType(mediaType);
+        this.extensions = extensions;
+    }
+
+    public static Optional<CatalogFormat> of(MediaType mediaType) {
+        return Arrays.stream(values())
+                .filter(format -> format.mediaType.isCompatibleWith(mediaType))
+                .findFirst();
+    }
+
+    public static Optional<CatalogFormat> ofFileName(String fileName) {
+        String lower = fileName.toLowerCase(Locale.ROOT);
+        return Arrays.stream(values())
+                .filter(format -> Arrays.stream(format.extensions).anyMatch(lower::endsWith))
+                .findFirst();
+    }
+}
@@ -0,0 +1,19 @@
+package fr.uga.l3miage.library.catalog;
+
+/**
+ * Thrown when the input of a catalog import cannot be parsed. The batches read before the error are already
+ * imported, as told by {@link #getReport()}.
+ */
+public class CatalogImportException extends RuntimeException {
+
+    private final transient ImportReport report;
+
+    public CatalogImportException(String message, ImportReport report, Throwable cause) {
+        super(message, cause);
+        this.report = report;
+    }
+
+    public ImportReport getReport() {
+        return report;
+    }
+}
@@ -0,0 +1,50 @@
+package fr.uga.l3miage.library.catalog;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Imports a catalog file given on the command line, e.g. <code>--import=catalog.csv</code>.
+ * The format is taken from the extension (<code>.csv</code>, <code>.ndjson</code> or <code>.jsonl</code>).
+ * Add <code>--spring.main.web-application-type=none</code> to exit once the import is done.
+ */
+@Component
+public class CatalogImportRunner implements ApplicationRunner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CatalogImportRunner.class);
+
+    private static final String OPTION = "import";
+
+    private final CatalogImporter catalogImporter;
+
+    @Autowired
+    public CatalogImportRunner(CatalogImporter catalogImporter) {
+        this.catalogImporter = catalogImporter;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        if (!args.containsOption(OPTION)) {
+            return;
+        }
+        for (String file : args.getOptionValues(OPTION)) {
+            Path path = Path.of(file);
+            CatalogFormat format = CatalogFormat.ofFileName(file)
+                    .orElseThrow(() -> new IllegalArgumentException("unknown catalog format: " + file));
+            LOGGER.info("importing catalog {} as {}", path, format);
+            try (InputStream input = new BufferedInputStream(Files.newInputStream(path))) {
+                catalogImporter.importCatalog(input, format);
+            }
+        }
+    }
+}
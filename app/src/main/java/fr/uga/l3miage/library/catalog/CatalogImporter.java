@@ -0,0 +1,140 @@
+package fr.uga.l3miage.library.catalog;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import fr.uga.l3miage.library.books.BookDTO;
+import fr.uga.l3miage.library.books.BooksMapper;
+import fr.uga.l3miage.library.service.CatalogBatchResult;
+import fr.uga.l3miage.library.service.CatalogEntry;
+import fr.uga.l3miage.library.service.CatalogService;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Imports a catalog read as a stream: rows are parsed one at a time with Jackson's streaming parser and
+ * written by batches of <code>library.import.batch-size</code> books, each batch in its own transaction.
+ * The next batch is only parsed once the previous one is written, so memory holds a single batch whatever
+ * the size of the input, and a slow database slows down the reading of the input.
+ */
+@Component
+public class CatalogImporter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CatalogImporter.class);
+
+    private final CatalogService catalogService;
+    private final BooksMapper booksMapper;
+    private final Validator validator;
+    private final ObjectReader ndjsonReader;
+    private final ObjectReader csvReader;
+    private final int batchSize;
+
+    @Autowired
+    public CatalogImporter(CatalogService catalogService, BooksMapper booksMapper, Validator validator,
+                           ObjectMapper objectMapper, @Value("${library.import.batch-size:500}") int batchSize) {
+        this.catalogService = catalogService;
+        this.booksMapper = booksMapper;
+        this.validator = validator;
+        this.ndjsonReader = objectMapper.readerFor(CatalogRow.class);
+        this.csvReader = new CsvMapper()
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .readerFor(CatalogRow.class)
+                .with(CsvSchema.emptySchema().withHeader().withArrayElementSeparator(";"));
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Imports all the rows of the input. Invalid rows are skipped and counted as rejected, rows whose ISBN is
+     * already taken are skipped and counted as duplicates.
+     *
+     * @param input  the catalog, left open
+     * @param format its format
+     * @return the final report
+     * @throws CatalogImportException when the input cannot be parsed; batches read before are kept
+     */
+    public ImportReport importCatalog(InputStream input, CatalogFormat format) {
+        long start = System.currentTimeMillis();
+        long imported = 0;
+        long rejected = 0;
+        long duplicates = 0;
+        long authorsCreated = 0;
+        List<CatalogEntry> batch = new ArrayList<>(batchSize);
+        ObjectReader reader = format == CatalogFormat.CSV ? csvReader : ndjsonReader;
+        try (MappingIterator<CatalogRow> rows = reader.readValues(input)) {
+            while (rows.hasNextValue()) {
+                CatalogEntry entry = toEntry(rows.nextValue());
+                if (entry == null) {
+                    rejected++;
+                    LOGGER.debug("rejected catalog row at line {}", rows.getCurrentLocation().getLineNr());
+                    continue;
+                }
+                batch.add(entry);
+                if (batch.size() == batchSize) {
+                    CatalogBatchResult result = catalogService.importBatch(batch);
+                    imported += result.imported();
+                    duplicates += result.duplicates();
+                    authorsCreated += result.authorsCreated();
+                    batch.clear();
+                    LOGGER.info("catalog import: {}",
+                            ImportReport.of(imported, rejected, duplicates, authorsCreated, System.currentTimeMillis() - start));
+                }
+            }
+        } catch (IOException e) {
+            var report = ImportReport.of(imported, rejected, duplicates, authorsCreated, System.currentTimeMillis() - start);
+            throw new CatalogImportException("cannot read catalog: " + e.getMessage(), report, e);
+        }
+        if (!batch.isEmpty()) {
+            CatalogBatchResult result = catalogService.importBatch(batch);
+            imported += result.imported();
+            duplicates += result.duplicates();
+            authorsCreated += result.authorsCreated();
+        }
+        var report = ImportReport.of(imported, rejected, duplicates, authorsCreated, System.currentTimeMillis() - start);
+        LOGGER.info("catalog import done: {}", report);
+        return report;
+    }
+
+    /**
+     * @return the book and the names of its authors, or null when the row is invalid
+     */
+    private CatalogEntry toEntry(CatalogRow row) {
+        List<String> authors = row.authors() == null ? List.of() : row.authors().stream()
+                .filter(Objects::nonNull)
+                .map(String::strip)
+                .filter(name -> !name.isEmpty())
+                .distinct()
+                .toList();
+        try {
+            var book = new BookDTO(null, row.title(), Long.parseLong(strip(row.isbn())), row.publisher(),
+                    isBlank(row.year()) ? 0 : Short.parseShort(strip(row.year())), row.language(), null);
+            if (authors.isEmpty() || !validator.validate(book).isEmpty()) {
+                return null;
+            }
+            return new CatalogEntry(booksMapper.dtoToEntity(book), authors);
+        } catch (IllegalArgumentException e) {
+            // malformed number (NumberFormatException) or unknown language
+            return null;
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static String strip(String value) {
+        return value == null ? null : value.strip();
+    }
+}
@@ -0,0 +1,17 @@
+package fr.uga.l3miage.library.catalog;
+
+import java.util.List;
+
+/**
+ * One line of an imported catalog. In CSV, the header names the columns and authors are separated by <code>;</code>.
+ * Numbers are read as text and parsed by the importer, so that a malformed one rejects its row only.
+ */
+public record CatalogRow(
+        String title,
+        String isbn,
+        String publisher,
+        String year,
+        String language,
+        List<String> authors
+) {
+}
@@ -0,0 +1,20 @@
+package fr.uga.l3miage.library.catalog;
+
+/**
+ * Progress of a catalog import, reported after each batch and at the end.
+ *
+ * @param imported       books imported so far
+ * @param rejected       rows skipped because they were invalid
+ * @param duplicates     rows skipped because their ISBN was already taken
+ * @param authorsCreated authors that did not exist and were created
+ * @param elapsedMillis  time spent since the beginning of the import
+ * @param booksPerSecond import throughput
+ */
+public record ImportReport(long imported, long rejected, long duplicates, long authorsCreated, long elapsedMillis,
+                           double booksPerSecond) {
+
+    static ImportReport of(long imported, long rejected, long duplicates, long authorsCreated, long elapsedMillis) {
+        double booksPerSecond = elapsedMillis == 0 ? 0 : imported * 1000.0 / elapsedMillis;
+        return new ImportReport(imported, rejected, duplicates, authorsCreated, elapsedMillis, booksPerSecond);
+    }
+}
@@ -0,0 +1,14 @@
+package fr.uga.l3miage.library.datasource;
+
+import org.springframework.dao.TransientDataAccessResourceException;
+
+/**
+ * Thrown by a {@link BoundedDataSource} when no connection frees up in time. Unchecked, it goes through
+ * Hibernate unchanged; a transaction failing to begin wraps it.
+ */
+public class DatabasePermitException extends TransientDataAccessResourceException {
+
+    public DatabasePermitException(String message) {
+        super(message);
+    }
+}
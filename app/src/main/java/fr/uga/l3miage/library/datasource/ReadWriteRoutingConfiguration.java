@@ -0,0 +1,41 @@
+package fr.uga.l3miage.library.datasource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Routes read-only transactions to the replicas listed in <code>library.datasource.replicas</code>.
+ * Without replicas, the single data source configured by <code>spring.datasource.*</code> is used as is.
+ * <p>
+ * Service methods opt in with a read-only Spring transaction; with no replica lag guarantee, they may not see
+ * writes committed just before. For the same reason, listings carry no ETag while replicas are configured
+ * (see {@link fr.uga.l3miage.library.web.ListingETags}).
+ */
+@Configuration
+@ConditionalOnProperty("library.datasource.replicas[0].url")
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class ReadWriteRoutingConfiguration {
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties primaryProperties, ReplicaProperties replicaProperties) {
+        DataSource primary = primaryProperties.initializeDataSourceBuilder().build();
+        List<DataSource> replicas = replicaProperties.replicas().stream()
+                .map(replica -> (DataSource) DataSourceBuilder.create()
+                        .url(replica.url())
+                        .username(replica.username())
+                        .password(replica.password())
+                        .build())
+                .toList();
+        var routing = new ReadWriteRoutingDataSource(primary, replicas, replicaProperties.selection());
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
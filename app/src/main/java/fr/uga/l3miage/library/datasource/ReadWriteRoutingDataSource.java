@@ -0,0 +1,59 @@
+package fr.uga.l3miage.library.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to a replica and everything else to the primary database.
+ * <p>
+ * The read-only flag of a transaction is only known once the transaction has started, while transaction
+ * managers take their connection when it starts: this data source must be wrapped in a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, which only fetches the real
+ * connection on the first statement.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final String PRIMARY = "primary";
+
+    private final List<CountingDataSource> replicas;
+    private final ReplicaSelection selection;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicas, ReplicaSelection selection) {
+        this.replicas = replicas.stream().map(CountingDataSource::new).toList();
+        this.selection = selection;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < this.replicas.size(); i++) {
+            targets.put(i, this.replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicas.isEmpty() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        int first = Math.floorMod(next.getAndIncrement(), replicas.size());
+        if (selection == ReplicaSelection.ROUND_ROBIN) {
+            return first;
+        }
+        // least loaded, starting from the next replica in turn so that ties are spread
+        int chosen = first;
+        for (int i = 1; i < replicas.size(); i++) {
+            int candidate = (first + i) % replicas.size();
+            if (replicas.get(candidate).inUse() < replicas.get(chosen).inUse()) {
+                chosen = candidate;
+            }
+        }
+        return chosen;
+    }
+}
@@ -0,0 +1,26 @@
+package fr.uga.l3miage.library.datasource;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+/**
+ * Read replicas of the database, read from <code>library.datasource.*</code>.
+ * The primary database stays configured by <code>spring.datasource.*</code>.
+ *
+ * @param replicas  the replicas receiving read-only transactions
+ * @param selection how a replica is chosen for each read-only transaction
+ */
+@ConfigurationProperties("library.datasource")
+public record ReplicaProperties(
+        List<Replica> replicas,
+        @DefaultValue("round-robin") ReplicaSelection selection
+) {
+
+    /**
+     * Connection settings of a replica, the driver being deduced from the url
+     */
+    public record Replica(String url, String username, String password) {
+    }
+}
@@ -0,0 +1,15 @@
+package fr.uga.l3miage.library.datasource;
+
+/**
+ * How {@link ReadWriteRoutingDataSource} picks a replica.
+ */
+public enum ReplicaSelection {
+    /**
+     * Each replica in turn
+     */
+    ROUND_ROBIN,
+    /**
+     * The replica with the fewest connections in use, in turn among ties
+     */
+    LEAST_LOADED
+}
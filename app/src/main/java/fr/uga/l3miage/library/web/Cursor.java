@@ -0,0 +1,64 @@
+package fr.uga.l3miage.library.web;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Position in a keyset-paginated listing: the sort key and the id of the last element of a page.
+ * It is exchanged as <code>&lt;key&gt;,&lt;id&gt;</code>, the id being after the last comma so keys may contain commas.
+ *
+ * @param key sort key (title, full name...)
+ * @param id  element id
+ */
+public record Cursor(String key, Long id) {
+
+    /**
+     * Name of the response header carrying the cursor of the next page
+     */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    public static final int DEFAULT_LIMIT = 50;
+
+    public static final int MAX_LIMIT = 500;
+
+    /**
+     * Parses a cursor token
+     *
+     * @param token the token, may be null for the first page
+     * @return the cursor or null for the first page
+     * @throws ResponseStatusException with a 400 status when the token is malformed
+     */
+    public static Cursor parse(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        int comma = token.lastIndexOf(',');
+        try {
+            return new Cursor(token.substring(0, comma), Long.valueOf(token.substring(comma + 1)));
+        } catch (IndexOutOfBoundsException | NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "malformed cursor, expected <key>,<id>", e);
+        }
+    }
+
+    /**
+     * Checks a page size requested by a client
+     *
+     * @param limit the requested size, may be null
+     * @return the size to use
+     * @throws ResponseStatusException with a 400 status when the size is out of bounds
+     */
+    public static int limit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_LIMIT);
+        }
+        return limit;
+    }
+
+    @Override
+    public String toString() {
+        return key + "," + id;
+    }
+}
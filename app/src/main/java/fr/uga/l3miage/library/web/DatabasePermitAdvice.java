@@ -0,0 +1,28 @@
+package fr.uga.l3miage.library.web;
+
+import fr.uga.l3miage.library.datasource.DatabasePermitException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Answers 503 when a database call got no connection from the {@link fr.uga.l3miage.library.datasource.BoundedDataSource}
+ * in time, whether the request or an async call ran it.
+ */
+@RestControllerAdvice
+@ConditionalOnProperty(name = "library.web.threads", havingValue = "virtual")
+public class DatabasePermitAdvice {
+
+    @ExceptionHandler({DatabasePermitException.class, CannotCreateTransactionException.class})
+    public ResponseEntity<Void> saturated(RuntimeException e) {
+        // a transaction taking its connection as it begins wraps the exception
+        if (!(NestedExceptionUtils.getMostSpecificCause(e) instanceof DatabasePermitException)) {
+            throw e;
+        }
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+    }
+}
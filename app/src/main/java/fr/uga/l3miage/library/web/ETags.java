@@ -0,0 +1,81 @@
+package fr.uga.l3miage.library.web;
+
+import fr.uga.l3miage.library.data.domain.Author;
+import fr.uga.l3miage.library.data.domain.Book;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+
+/**
+ * Entity tags used for conditional GETs, computed from versions and counters so that a request answered
+ * with 304 Not Modified neither maps nor serializes anything. The version leading a strong ETag also guards
+ * updates sent with <code>If-Match</code>.
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    /**
+     * Strong ETag of an author, driven by its <code>@Version</code>
+     */
+    public static String of(Author author) {
+        return "\"" + author.getVersion() + "\"";
+    }
+
+    /**
+     * Strong ETag of a book. Its representation embeds its authors, whose versions are therefore folded in:
+     * renaming an author changes the ETag of their books.
+     */
+    public static String of(Book book) {
+        long authors = 0;
+        if (book.getAuthors() != null) {
+            for (Author author : book.getAuthors()) {
+                // order-independent combination of the (id, version) pairs
+                authors += mix(author.getId() * 31 + author.getVersion());
+            }
+        }
+        return "\"" + book.getVersion() + "-" + Long.toHexString(authors) + "\"";
+    }
+
+    /**
+     * Weak ETag of a listing, driven by the modification counter of the tables it is built from
+     */
+    public static String weak(long modificationCount) {
+        return "W/\"" + Long.toHexString(modificationCount) + "\"";
+    }
+
+    /**
+     * Reads the version an update is based on from its <code>If-Match</code> header. Only the version of the
+     * entity is compared: a book whose authors were renamed since can still be updated.
+     *
+     * Updates must be based on a version: there is no last-writer-wins path.
+     *
+     * @param ifMatch the header value, possibly null
+     * @return the version
+     * @throws ResponseStatusException 428 when the header is missing or <code>*</code>, 412 when it holds anything
+     *                                 else than a strong ETag of this API
+     */
+    public static long ifMatchVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_REQUIRED, "If-Match with the ETag of the entity is required");
+        }
+        String etag = ifMatch.trim();
+        if (etag.length() > 2 && etag.startsWith("\"") && etag.endsWith("\"")) {
+            String value = etag.substring(1, etag.length() - 1);
+            int dash = value.indexOf('-');
+            try {
+                return Long.parseLong(dash < 0 ? value : value.substring(0, dash));
+            } catch (NumberFormatException e) {
+                // not an ETag of ours
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "If-Match does not hold a current ETag");
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+        value = (value ^ (value >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return value ^ (value >>> 33);
+    }
+}
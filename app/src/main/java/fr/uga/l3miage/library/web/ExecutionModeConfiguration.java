@@ -0,0 +1,54 @@
+package fr.uga.l3miage.library.web;
+
+import fr.uga.l3miage.library.datasource.BoundedDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Runs the HTTP requests on virtual threads when <code>library.web.threads=virtual</code>: a request blocked on
+ * JDBC then parks its virtual thread instead of holding one of the few platform threads of Tomcat.
+ * <p>
+ * Virtual threads are not pooled, so nothing bounds the requests any more: the data source is wrapped in a
+ * {@link BoundedDataSource} to protect the connection pool, and a call that gets no connection in time fails
+ * with 503 (see {@link DatabasePermitAdvice}).
+ * <p>
+ * The build targets Java 17, which has no virtual threads: they are only compiled by a JDK 21 or later (see the
+ * <code>jdk21</code> profile), and startup fails with an explicit message otherwise.
+ */
+@Configuration
+@EnableConfigurationProperties(ExecutionProperties.class)
+@ConditionalOnProperty(name = "library.web.threads", havingValue = "virtual")
+public class ExecutionModeConfiguration {
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService virtualThreadExecutor() {
+        return VirtualThreads.newPerTaskExecutor();
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer(ExecutorService virtualThreadExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+    }
+
+    @Bean
+    public static BeanPostProcessor boundedDataSource(ObjectProvider<ExecutionProperties> properties) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof BoundedDataSource)) {
+                    var execution = properties.getObject();
+                    return new BoundedDataSource(dataSource, execution.dbPermits(), execution.dbPermitTimeout());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,23 @@
+package fr.uga.l3miage.library.web;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Request execution settings, read from <code>library.web.*</code>.
+ *
+ * @param threads          threads running the requests
+ * @param dbPermits        with virtual threads, maximum number of database connections in use at once, which
+ *                         should not exceed the size of the connection pool
+ * @param dbPermitTimeout  with virtual threads, how long a database call waits for a connection before failing
+ *                         with 503
+ */
+@ConfigurationProperties("library.web")
+public record ExecutionProperties(
+        @DefaultValue("platform") ThreadMode threads,
+        @DefaultValue("10") int dbPermits,
+        @DefaultValue("5s") Duration dbPermitTimeout
+) {
+}
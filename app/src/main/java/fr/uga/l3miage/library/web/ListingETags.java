@@ -0,0 +1,39 @@
+package fr.uga.l3miage.library.web;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Conditional GETs on listings, driven by the in-memory modification counters.
+ * <p>
+ * The counters move as soon as a write commits on the primary, while listings are read-only transactions that
+ * may be served by a lagging replica: a fresh ETag could then be paired with a stale body, which clients would
+ * keep until the next change. Listing ETags are therefore only issued when reads are not replicated.
+ */
+@Component
+public class ListingETags {
+
+    private final boolean replicated;
+
+    @Autowired
+    public ListingETags(Environment environment) {
+        this(environment.containsProperty("library.datasource.replicas[0].url"));
+    }
+
+    public ListingETags(boolean replicated) {
+        this.replicated = replicated;
+    }
+
+    /**
+     * Sets the weak ETag of a listing on the response and checks it against <code>If-None-Match</code>
+     *
+     * @param request           the current request
+     * @param modificationCount the modification counter of the tables the listing is built from
+     * @return true when the client copy is current and the response is a 304, always false with replicas
+     */
+    public boolean checkNotModified(WebRequest request, long modificationCount) {
+        return !replicated && request.checkNotModified(ETags.weak(modificationCount));
+    }
+}
@@ -0,0 +1,51 @@
+package fr.uga.l3miage.library.web;
+
+import org.springframework.http.ResponseEntity;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A page of a keyset-paginated listing and the cursor of the next page, if any.
+ *
+ * @param items the elements of the page
+ * @param next  the cursor of the next page, null on the last page
+ * @param <E>   element type
+ */
+public record Page<E>(List<E> items, Cursor next) {
+
+    /**
+     * Builds a page from elements fetched with a limit of <code>limit + 1</code>:
+     * the extra element only tells that a next page exists.
+     *
+     * @param fetched  the fetched elements, at most <code>limit + 1</code>
+     * @param limit    the page size
+     * @param cursorOf gives the cursor pointing at an element
+     */
+    public static <E> Page<E> of(Collection<E> fetched, int limit, Function<E, Cursor> cursorOf) {
+        List<E> items = new ArrayList<>(fetched);
+        if (items.size() <= limit) {
+            return new Page<>(items, null);
+        }
+        items = items.subList(0, limit);
+        return new Page<>(items, cursorOf.apply(items.get(limit - 1)));
+    }
+
+    /**
+     * Maps the page to a response, the next cursor being sent URL-encoded in the {@link Cursor#NEXT_CURSOR_HEADER} header
+     * so that it can be copied as is into the <code>after</code> query parameter
+     *
+     * @param mapper maps the elements to the response body
+     */
+    public <R> ResponseEntity<R> toResponse(Function<List<E>, R> mapper) {
+        var response = ResponseEntity.ok();
+        if (next != null) {
+            response.header(Cursor.NEXT_CURSOR_HEADER, URLEncoder.encode(next.toString(), StandardCharsets.UTF_8));
+        }
+        return response.body(mapper.apply(items));
+    }
+}
@@ -0,0 +1,15 @@
+package fr.uga.l3miage.library.web;
+
+/**
+ * Threads running the HTTP requests, and thus the service calls they make.
+ */
+public enum ThreadMode {
+    /**
+     * The bounded pool of platform threads of the servlet container
+     */
+    PLATFORM,
+    /**
+     * A new virtual thread per request; needs a Java 21 or later runtime
+     */
+    VIRTUAL
+}
@@ -0,0 +1,22 @@
+package fr.uga.l3miage.library.web;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Virtual threads as built by a JDK older than 21, which has none. Built by a JDK 21 or later, the
+ * <code>jdk21</code> profile compiles <code>src/main/java21</code> instead.
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    static boolean available() {
+        return false;
+    }
+
+    static ExecutorService newPerTaskExecutor() {
+        throw new IllegalStateException("library.web.threads=virtual needs the application to be built and run"
+                + " with a JDK 21 or later");
+    }
+}
@@ -0,0 +1,22 @@
+package fr.uga.l3miage.library.web;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Virtual threads, compiled by the <code>jdk21</code> profile. Built by an older JDK, the application gets
+ * <code>src/main/java17</code> instead.
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    static boolean available() {
+        return true;
+    }
+
+    static ExecutorService newPerTaskExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+}
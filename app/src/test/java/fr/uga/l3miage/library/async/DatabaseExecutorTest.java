@@ -0,0 +1,108 @@
+package fr.uga.l3miage.library.async;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class DatabaseExecutorTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final DatabaseExecutor executor = new DatabaseExecutor(
+            new AsyncProperties(1, 1, Duration.ofSeconds(5), Map.of("slow", Duration.ofMillis(100))), transactionManager);
+
+    @AfterEach
+    void shutdown() {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    void returnsTheResultOfTheCall() throws Exception {
+        assertThat(executor.supply("fast", () -> 42).get(5, TimeUnit.SECONDS)).isEqualTo(42);
+        assertThat(executor.statistics().completed()).isEqualTo(1);
+    }
+
+    @Test
+    void callsRunInReadOnlyTransactionsBoundByTheirTimeout() throws Exception {
+        executor.supply("fast", () -> 42).get(5, TimeUnit.SECONDS);
+        verify(transactionManager).getTransaction(argThat(definition -> definition.isReadOnly()
+                && definition.getTimeout() == 5));
+
+        // the database is given at least a second, the smallest transaction timeout
+        executor.supply("slow", () -> 0).get(5, TimeUnit.SECONDS);
+        verify(transactionManager).getTransaction(argThat(definition -> definition.isReadOnly()
+                && definition.getTimeout() == 1));
+    }
+
+    @Test
+    void checkedExceptionsOfTheCallAreNotWrapped() {
+        var failing = executor.supply("fast", () -> {
+            throw new IOException("disk full");
+        });
+
+        assertThatThrownBy(() -> failing.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .cause()
+                .isInstanceOf(IOException.class);
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void callsExceedingTheirTimeoutFailWith503() throws Exception {
+        var interrupted = new CountDownLatch(1);
+        var slow = executor.supply("slow", () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return 0;
+        });
+
+        assertThatThrownBy(() -> slow.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .cause()
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+        assertThat(executor.statistics().timedOut()).isEqualTo(1);
+        assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void callsBeyondTheQueueAreRejectedWith503() throws Exception {
+        var started = new CountDownLatch(1);
+        executor.supply("busy", () -> {
+            started.countDown();
+            return release.await(5, TimeUnit.SECONDS);
+        });
+        started.await(5, TimeUnit.SECONDS);
+        executor.supply("queued", () -> 1);
+
+        var rejected = executor.supply("rejected", () -> 2);
+
+        assertThat(rejected).isCompletedExceptionally();
+        assertThatThrownBy(rejected::get)
+                .cause()
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+        assertThat(executor.statistics().rejected()).isEqualTo(1);
+        assertThat(executor.statistics().queued()).isEqualTo(1);
+    }
+}
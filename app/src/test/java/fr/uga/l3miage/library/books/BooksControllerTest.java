@@ -0,0 +1,63 @@
+package fr.uga.l3miage.library.books;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.uga.l3miage.library.data.domain.Book;
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.web.ListingETags;
+import jakarta.validation.Validation;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class BooksControllerTest {
+
+    private static final String BOOK = """
+            {"title": "Les Misérables", "isbn": 9782253096337, "year": 1862, "language": "french"}""";
+
+    private final BookService bookService = mock(BookService.class);
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        var booksController = new BooksController(bookService, new BooksMapperImpl(), new ObjectMapper(),
+                Validation.buildDefaultValidatorFactory().getValidator(), new ListingETags(false));
+        mvc = MockMvcBuilders.standaloneSetup(booksController).build();
+    }
+
+    @Test
+    void duplicateIsbnIsAConflict() throws Exception {
+        // as reported by H2 for the unique index on book.isbn
+        when(bookService.save(eq(1L), any(Book.class))).thenThrow(integrityViolation("PUBLIC.IDX_BOOK_ISBN_INDEX_2"));
+
+        mvc.perform(post("/api/v1/authors/1/books").contentType(MediaType.APPLICATION_JSON).content(BOOK))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void otherIntegrityViolationsAreNotConflicts() throws Exception {
+        when(bookService.save(eq(1L), any(Book.class))).thenThrow(integrityViolation("FK_BOOK_AUTHOR"));
+
+        assertThatThrownBy(() -> mvc.perform(post("/api/v1/authors/1/books")
+                .contentType(MediaType.APPLICATION_JSON).content(BOOK)))
+                .hasCauseInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    private static DataIntegrityViolationException integrityViolation(String constraint) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", new SQLException(), constraint));
+    }
+}
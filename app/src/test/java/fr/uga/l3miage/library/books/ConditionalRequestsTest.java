@@ -0,0 +1,165 @@
+package fr.uga.l3miage.library.books;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.uga.l3miage.library.async.AsyncProperties;
+import fr.uga.l3miage.library.async.DatabaseExecutor;
+import fr.uga.l3miage.library.data.domain.Author;
+import fr.uga.l3miage.library.data.domain.Book;
+import fr.uga.l3miage.library.data.projection.BookView;
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.StaleVersionException;
+import fr.uga.l3miage.library.web.ListingETags;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.not;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ConditionalRequestsTest {
+
+    private final BookService bookService = mock(BookService.class);
+    private final DatabaseExecutor databaseExecutor = new DatabaseExecutor(
+            new AsyncProperties(2, 10, Duration.ofSeconds(5), Map.of()), mock(PlatformTransactionManager.class));
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        mvc = mvc(false);
+
+        var author = new Author();
+        author.setId(1L);
+        author.setFullName("Victor Hugo");
+        var book = new Book();
+        book.setId(2L);
+        book.setTitle("Les Misérables");
+        book.setIsbn(9782253096337L);
+        book.setVersion(3);
+        book.setAuthors(Set.of(author));
+        when(bookService.get(2L)).thenReturn(book);
+        when(bookService.listViews()).thenReturn(List.of(BookView.of(book)));
+        when(bookService.modificationCount()).thenReturn(42L);
+    }
+
+    private MockMvc mvc(boolean replicated) {
+        var booksMapper = new BooksMapperImpl();
+        var listingETags = new ListingETags(replicated);
+        var booksController = new BooksController(bookService, booksMapper, new ObjectMapper(),
+                Validation.buildDefaultValidatorFactory().getValidator(), listingETags);
+        return MockMvcBuilders.standaloneSetup(booksController,
+                        new AsyncBooksController(bookService, booksMapper, listingETags, databaseExecutor))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        databaseExecutor.shutdown();
+    }
+
+    @Test
+    void bookIsNotSentAgainWhileItsVersionIsUnchanged() throws Exception {
+        String etag = mvc.perform(get("/api/v1/books/2"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mvc.perform(get("/api/v1/books/2").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        // renaming the author changes the representation of the book
+        bookService.get(2L).getAuthors().iterator().next().setVersion(1);
+        mvc.perform(get("/api/v1/books/2").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(etag)));
+    }
+
+    @Test
+    void listingIsNotSentAgainWhileTheCounterIsUnchanged() throws Exception {
+        mvc.perform(get("/api/v1/books").header("If-None-Match", "W/\"2a\""))
+                .andExpect(status().isNotModified());
+
+        when(bookService.modificationCount()).thenReturn(43L);
+        mvc.perform(get("/api/v1/books").header("If-None-Match", "W/\"2a\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"2b\""));
+    }
+
+    @Test
+    void listingsCarryNoETagWhenReadFromReplicas() throws Exception {
+        // a replica may lag behind the counter: its body must not be cached under the current ETag
+        mvc(true).perform(get("/api/v1/books").header("If-None-Match", "W/\"2a\""))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("ETag"));
+    }
+
+    @Test
+    void asyncVariantsAreConditionalToo() throws Exception {
+        MvcResult result = mvc.perform(get("/api/v1/async/books").header("If-None-Match", "W/\"2a\""))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        // the ETag of a book is only known once the service returned it
+        String etag = mvc.perform(get("/api/v1/books/2")).andReturn().getResponse().getHeader("ETag");
+        result = mvc.perform(get("/api/v1/async/books/2").header("If-None-Match", etag))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void updateIsGuardedByIfMatch() throws Exception {
+        var updated = new Book();
+        updated.setId(2L);
+        updated.setTitle("Les Misérables, tome 1");
+        updated.setVersion(4);
+        when(bookService.update(any(Book.class), eq(3L))).thenReturn(updated);
+        when(bookService.update(any(Book.class), eq(2L))).thenThrow(new StaleVersionException("modified"));
+        String body = "{\"id\": 2, \"title\": \"Les Misérables, tome 1\", \"isbn\": 9782253096337, \"language\": \"french\"}";
+
+        mvc.perform(put("/api/v1/books/2").contentType(MediaType.APPLICATION_JSON).content(body)
+                        .header("If-Match", "\"3-1f\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4-0\""));
+        mvc.perform(put("/api/v1/books/2").contentType(MediaType.APPLICATION_JSON).content(body)
+                        .header("If-Match", "\"2-1f\""))
+                .andExpect(status().isPreconditionFailed());
+        mvc.perform(put("/api/v1/books/2").contentType(MediaType.APPLICATION_JSON).content(body)
+                        .header("If-Match", "W/\"3-1f\""))
+                .andExpect(status().isPreconditionFailed());
+        // no unconditional update
+        mvc.perform(put("/api/v1/books/2").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isPreconditionRequired());
+        mvc.perform(put("/api/v1/books/2").contentType(MediaType.APPLICATION_JSON).content(body)
+                        .header("If-Match", "*"))
+                .andExpect(status().isPreconditionRequired());
+        verify(bookService, never()).update(any(Book.class));
+    }
+}
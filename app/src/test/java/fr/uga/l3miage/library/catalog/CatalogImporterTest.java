@@ -0,0 +1,151 @@
+package fr.uga.l3miage.library.catalog;
+
+import fr.uga.l3miage.library.LibraryApplication;
+import fr.uga.l3miage.library.data.domain.Author;
+import fr.uga.l3miage.library.data.domain.Book;
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.CatalogService;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Streams small catalogs into an in-memory H2 database, by batches of two books. Each test uses its own authors
+ * and ISBNs, the database being shared by the tests.
+ */
+@SpringBootTest(classes = LibraryApplication.class, properties = {
+        "spring.datasource.url=jdbc:h2:mem:catalog;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database=h2",
+        "spring.jpa.show-sql=false",
+        "library.import.batch-size=2"})
+@AutoConfigureMockMvc
+class CatalogImporterTest {
+
+    @Autowired
+    CatalogImporter catalogImporter;
+
+    @Autowired
+    AuthorService authorService;
+
+    @Autowired
+    BookService bookService;
+
+    @SpyBean
+    CatalogService catalogService;
+
+    @Autowired
+    MockMvc mvc;
+
+    @Test
+    void csvIsImportedByBatches() throws EntityNotFoundException {
+        String csv = """
+                title,isbn,publisher,year,language,authors
+                Les Misérables,1000000001,Hetzel,1862,french,Victor Hugo
+                Notre-Dame de Paris,1000000002,Gosselin,1831,french,Victor Hugo
+                ,1000000003,Nobody,1900,french,Victor Hugo
+                Le Dernier Jour d'un condamné,1000000004,Gosselin,1829,klingon,Victor Hugo
+                Le Rhin,1000000005,Delloye,1842,french,Victor Hugo;Alexandre Dumas
+                Les Trois Mousquetaires,1000000006,Baudry,1844,french,Alexandre Dumas
+                Les Burgraves,1000000007,Michaud,1843,french,
+                Hernani,n/a,Mame,1830,french,Victor Hugo
+                Ruy Blas,1000000009,Delloye,MDCCCXXXVIII,french,Victor Hugo
+                """;
+
+        ImportReport report = catalogImporter.importCatalog(input(csv), CatalogFormat.CSV);
+
+        assertThat(report.imported()).isEqualTo(4);
+        // no title, unknown language, no author, malformed ISBN, malformed year: the rows after are still read
+        assertThat(report.rejected()).isEqualTo(5);
+        assertThat(report.duplicates()).isZero();
+        // each author is created in the first batch naming them, then found in the next ones
+        assertThat(report.authorsCreated()).isEqualTo(2);
+        verify(catalogService, times(2)).importBatch(anyList());
+
+        assertThat(booksOf("Victor Hugo")).extracting(Book::getTitle)
+                .containsExactlyInAnyOrder("Les Misérables", "Notre-Dame de Paris", "Le Rhin");
+        assertThat(booksOf("Alexandre Dumas")).extracting(Book::getTitle)
+                .containsExactlyInAnyOrder("Le Rhin", "Les Trois Mousquetaires");
+    }
+
+    @Test
+    void ndjsonReusesExistingAuthorsAndSkipsTakenIsbns() throws EntityNotFoundException {
+        String first = """
+                {"title": "Germinal", "isbn": 2000000001, "year": 1885, "language": "french", "authors": ["Émile Zola"]}
+                """;
+        assertThat(catalogImporter.importCatalog(input(first), CatalogFormat.NDJSON).authorsCreated()).isEqualTo(1);
+
+        String ndjson = """
+                {"title": "Germinal", "isbn": 2000000001, "year": 1885, "language": "french", "authors": ["Émile Zola"]}
+                {"title": "L'Assommoir", "isbn": 2000000002, "year": 1877, "language": "french", "authors": ["Émile Zola"]}
+                {"title": "Nana", "isbn": 2000000003, "year": 1880, "language": "french", "authors": []}
+                {"title": "Au Bonheur des Dames", "isbn": 2000000004, "year": 1883, "language": "french", "authors": ["Émile Zola", "Paul Alexis"]}
+                {"title": "L'Assommoir", "isbn": 2000000002, "year": 1877, "language": "french", "authors": ["Émile Zola"]}
+                """;
+        ImportReport report = catalogImporter.importCatalog(input(ndjson), CatalogFormat.NDJSON);
+
+        assertThat(report.imported()).isEqualTo(2);
+        assertThat(report.rejected()).isEqualTo(1);
+        // taken before the import, then taken by the first batch
+        assertThat(report.duplicates()).isEqualTo(2);
+        assertThat(report.authorsCreated()).isEqualTo(1);
+        assertThat(booksOf("Émile Zola")).extracting(Book::getTitle)
+                .containsExactlyInAnyOrder("Germinal", "L'Assommoir", "Au Bonheur des Dames");
+    }
+
+    @Test
+    void parseErrorIsABadRequestWithTheReport() throws Exception {
+        String ndjson = """
+                {"title": "Bel-Ami", "isbn": 3000000001, "year": 1885, "language": "french", "authors": ["Guy de Maupassant"]}
+                {"title": "Une vie", "isbn": 3000000002, "year": 1883, "language": "french", "authors": ["Guy de Maupassant"]}
+                {"title": "Pierre et Jean", "isbn": 3000000003, "year": 1888, "language": "french", "authors": []}
+                {"title": "Le Horla", "isbn":
+                """;
+
+        mvc.perform(post("/api/v1/import").contentType("application/x-ndjson").content(ndjson))
+                .andExpect(status().isBadRequest())
+                .andExpect(status().reason(allOf(containsString("cannot read catalog"),
+                        containsString("imported=2"), containsString("rejected=1"))));
+
+        // the batch read before the error is kept
+        mvc.perform(post("/api/v1/import").contentType("text/csv").content("""
+                        title,isbn,publisher,year,language,authors
+                        Bel-Ami,3000000001,Havard,1885,french,Guy de Maupassant
+                        """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(0))
+                .andExpect(jsonPath("$.duplicates").value(1));
+    }
+
+    private Collection<Book> booksOf(String fullName) throws EntityNotFoundException {
+        Collection<Author> authors = authorService.searchByName(fullName);
+        assertThat(authors).hasSize(1);
+        return bookService.getByAuthor(authors.iterator().next().getId());
+    }
+
+    private static InputStream input(String catalog) {
+        return new ByteArrayInputStream(catalog.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,44 @@
+package fr.uga.l3miage.library.datasource;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BoundedDataSourceTest {
+
+    private final DataSource target = mock(DataSource.class);
+    private final BoundedDataSource dataSource = new BoundedDataSource(target, 1, Duration.ofMillis(50));
+
+    @Test
+    void connectionsAreBoundedUntilClosed() throws SQLException {
+        Connection pooled = mock(Connection.class);
+        when(target.getConnection()).thenReturn(pooled);
+
+        Connection connection = dataSource.getConnection();
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(DatabasePermitException.class);
+
+        connection.close();
+        verify(pooled).close();
+        // closing twice gives the permit back once
+        connection.close();
+        assertThat(dataSource.availablePermits()).isEqualTo(1);
+        dataSource.getConnection().close();
+    }
+
+    @Test
+    void failedConnectionGivesThePermitBack() throws SQLException {
+        when(target.getConnection()).thenThrow(new SQLException("database down"));
+
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLException.class);
+        assertThat(dataSource.availablePermits()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,161 @@
+package fr.uga.l3miage.library.datasource;
+
+import fr.uga.l3miage.library.data.repo.PrimaryReads;
+import fr.uga.l3miage.library.service.ReadOnlyTransactional;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * In-memory H2 databases stand for the primary and its replicas.
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private static DataSource h2(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+
+    private static String database(DataSource dataSource, boolean readOnly) {
+        var transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status -> new JdbcTemplate(dataSource)
+                .queryForObject("SELECT DATABASE()", String.class));
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplicasInTurn() {
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing(ReplicaSelection.ROUND_ROBIN));
+
+        assertThat(database(dataSource, false)).isEqualTo("PRIMARY");
+        assertThat(List.of(database(dataSource, true), database(dataSource, true), database(dataSource, true)))
+                .containsExactly("REPLICA1", "REPLICA2", "REPLICA1");
+        assertThat(database(dataSource, false)).isEqualTo("PRIMARY");
+        assertThat(new JdbcTemplate(dataSource).queryForObject("SELECT DATABASE()", String.class)).isEqualTo("PRIMARY");
+    }
+
+    @Test
+    void leastLoadedReplicaIsChosen() throws Exception {
+        var routing = routing(ReplicaSelection.LEAST_LOADED);
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+
+        assertThat(database(dataSource, true)).isEqualTo("REPLICA1");
+        // a connection of the second replica is still in use: the first one is chosen even though it is not its turn
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        Connection busy;
+        try {
+            busy = routing.getConnection();
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        }
+        try (busy) {
+            assertThat(busy.getCatalog()).isEqualTo("REPLICA2");
+            assertThat(database(dataSource, true)).isEqualTo("REPLICA1");
+            assertThat(database(dataSource, true)).isEqualTo("REPLICA1");
+        }
+        assertThat(List.of(database(dataSource, true), database(dataSource, true)))
+                .containsExactly("REPLICA1", "REPLICA2");
+    }
+
+    @Test
+    void readOnlyServiceMethodsGoToReplicasThroughJpa() {
+        try (var context = new AnnotationConfigApplicationContext(JpaRouting.class)) {
+            var service = context.getBean(RoutedService.class);
+
+            assertThat(service.write()).isEqualTo("PRIMARY");
+            // the method-level read-only Spring transaction overrides the class-level JTA one
+            assertThat(service.read()).isEqualTo("REPLICA1");
+            // reads that must see the primary leave the read-only transaction
+            assertThat(service.readFromPrimary()).containsExactly("REPLICA2", "PRIMARY", "REPLICA2");
+        }
+    }
+
+    /**
+     * Same transaction setup as the services: class-level JTA transactions, read-only methods opting in
+     */
+    @Transactional
+    static class RoutedService {
+
+        @PersistenceContext
+        EntityManager entityManager;
+
+        final PrimaryReads primaryReads;
+
+        RoutedService(PrimaryReads primaryReads) {
+            this.primaryReads = primaryReads;
+        }
+
+        String write() {
+            return database();
+        }
+
+        @ReadOnlyTransactional
+        String read() {
+            return database();
+        }
+
+        @ReadOnlyTransactional
+        List<String> readFromPrimary() {
+            return List.of(database(), primaryReads.read(this::database), database());
+        }
+
+        private String database() {
+            return (String) entityManager.createNativeQuery("SELECT DATABASE()").getSingleResult();
+        }
+    }
+
+    /**
+     * Registered by hand rather than annotated with <code>@Configuration</code>, which would have the application
+     * started by {@link fr.uga.l3miage.library.web.ExecutionModeLoadTest} scan it
+     */
+    @EnableTransactionManagement
+    @Import({RoutedService.class, PrimaryReads.class})
+    static class JpaRouting {
+
+        @Bean
+        DataSource dataSource() {
+            return new LazyConnectionDataSourceProxy(routing(ReplicaSelection.ROUND_ROBIN));
+        }
+
+        @Bean
+        LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+            var factory = new LocalContainerEntityManagerFactoryBean();
+            factory.setDataSource(dataSource);
+            factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+            factory.setPackagesToScan(RoutedService.class.getPackageName());
+            return factory;
+        }
+
+        @Bean
+        PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+            return new JpaTransactionManager(entityManagerFactory);
+        }
+    }
+
+    private static ReadWriteRoutingDataSource routing(ReplicaSelection selection) {
+        var routing = new ReadWriteRoutingDataSource(h2("primary"), List.of(h2("replica1"), h2("replica2")), selection);
+        routing.afterPropertiesSet();
+        return routing;
+    }
+}
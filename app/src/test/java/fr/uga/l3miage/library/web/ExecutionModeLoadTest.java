@@ -0,0 +1,162 @@
+package fr.uga.l3miage.library.web;
+
+import fr.uga.l3miage.library.LibraryApplication;
+import fr.uga.l3miage.library.data.domain.Book;
+import fr.uga.l3miage.library.service.CatalogEntry;
+import fr.uga.l3miage.library.service.CatalogService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Load test comparing the throughput and the latencies of both {@link ThreadMode}s. The application is started
+ * once per mode on an in-memory H2 database (or the one given by <code>-Dspring.datasource.*</code>), loaded
+ * with the same clients for the same time, and both runs are reported side by side. Virtual threads need the
+ * application to be built and run by a JDK 21 or later.
+ * <pre>
+ * mvn -pl app test -Dtest=ExecutionModeLoadTest -Dloadtest=true [-Dloadtest.clients=200] [-Dloadtest.seconds=30]
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class ExecutionModeLoadTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExecutionModeLoadTest.class);
+
+    private final int clients = Integer.getInteger("loadtest.clients", 200);
+    private final Duration duration = Duration.ofSeconds(Integer.getInteger("loadtest.seconds", 30));
+
+    /**
+     * Outcome of one run; latencies are in milliseconds
+     */
+    record Run(ThreadMode mode, long succeeded, long rejected, long failed, double throughput, double p50, double p99) {
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%-8s %10.1f req/s  p50 %8.1f ms  p99 %8.1f ms  %6d rejected (503)  %6d failed",
+                    mode, throughput, p50, p99, rejected, failed);
+        }
+    }
+
+    @Test
+    void virtualThreadsAgainstPlatformThreads() throws Exception {
+        assumeTrue(VirtualThreads.available(), "virtual threads need a build by a JDK 21 or later");
+
+        Run platform = run(ThreadMode.PLATFORM);
+        Run virtual = run(ThreadMode.VIRTUAL);
+
+        LOGGER.info("{} clients for {}s on /api/v1/books\n{}\n{}\nvirtual/platform: throughput x{}, p99 x{}",
+                clients, duration.toSeconds(), platform, virtual,
+                String.format(Locale.ROOT, "%.2f", virtual.throughput() / platform.throughput()),
+                String.format(Locale.ROOT, "%.2f", virtual.p99() / platform.p99()));
+        assertThat(platform.succeeded()).isPositive();
+        assertThat(virtual.succeeded()).isPositive();
+        assertThat(platform.failed()).isZero();
+        assertThat(virtual.failed()).isZero();
+    }
+
+    private Run run(ThreadMode mode) throws Exception {
+        String name = mode.name().toLowerCase(Locale.ROOT);
+        // arguments rather than default properties, which application.properties would override
+        try (var context = new SpringApplicationBuilder(LibraryApplication.class).run("--server.port=0",
+                "--library.web.threads=" + name,
+                "--spring.datasource.url=" + System.getProperty("spring.datasource.url",
+                        "jdbc:h2:mem:load-" + name + ";DB_CLOSE_DELAY=-1"),
+                "--spring.datasource.driver-class-name=" + System.getProperty("spring.datasource.driver-class-name",
+                        "org.h2.Driver"),
+                "--spring.datasource.username=" + System.getProperty("spring.datasource.username", "sa"),
+                "--spring.datasource.password=" + System.getProperty("spring.datasource.password", ""),
+                "--spring.jpa.database=" + System.getProperty("spring.jpa.database", "h2"),
+                "--spring.jpa.show-sql=false")) {
+            context.getBean(CatalogService.class).importBatch(IntStream.range(0, 500)
+                    .mapToObj(ExecutionModeLoadTest::entry)
+                    .toList());
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            return load(mode, URI.create("http://localhost:" + port + "/api/v1/books?limit=50"));
+        }
+    }
+
+    private static CatalogEntry entry(int i) {
+        var book = new Book();
+        book.setTitle("Book " + i);
+        book.setIsbn(1_000_000_000L + i);
+        book.setLanguage(Book.Language.FRENCH);
+        return new CatalogEntry(book, List.of("Author " + i % 50));
+    }
+
+    private Run load(ThreadMode mode, URI uri) throws Exception {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET().build();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        long end = System.nanoTime() + duration.toNanos();
+
+        List<Future<long[]>> results = new ArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        try {
+            for (int i = 0; i < clients; i++) {
+                results.add(pool.submit(() -> {
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < end) {
+                        long start = System.nanoTime();
+                        try {
+                            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                            if (status == 503) {
+                                rejected.incrementAndGet();
+                                continue;
+                            }
+                            if (status != 200) {
+                                failed.incrementAndGet();
+                                continue;
+                            }
+                        } catch (IOException e) {
+                            failed.incrementAndGet();
+                            continue;
+                        }
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = System.nanoTime() - start;
+                    }
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+            long[] all = new long[0];
+            for (Future<long[]> result : results) {
+                long[] latencies = result.get();
+                int from = all.length;
+                all = Arrays.copyOf(all, from + latencies.length);
+                System.arraycopy(latencies, 0, all, from, latencies.length);
+            }
+            Arrays.sort(all);
+            if (all.length == 0) {
+                return new Run(mode, 0, rejected.get(), failed.get(), 0, 0, 0);
+            }
+            return new Run(mode, all.length, rejected.get(), failed.get(), all.length / (double) duration.toSeconds(),
+                    all[(int) (all.length * 0.50)] / 1e6, all[Math.min(all.length - 1, (int) (all.length * 0.99))] / 1e6);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package fr.uga.l3miage.library.benchmarks;
+
+import fr.uga.l3miage.library.benchmarks.LibraryState.Cursor;
+import fr.uga.l3miage.library.data.domain.Author;
+import fr.uga.l3miage.library.data.projection.AuthorView;
+import fr.uga.l3miage.library.data.repo.AuthorRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static fr.uga.l3miage.library.benchmarks.LibraryState.next;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthorRepositoryBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+
+    @Benchmark
+    public Author get(LibraryState state, Cursor cursor) {
+        Long id = next(state.dataset.authorIds, cursor);
+        return state.read(() -> state.authorRepository.get(id));
+    }
+
+    @Benchmark
+    public Author getWithBooks(LibraryState state, Cursor cursor) {
+        Long id = next(state.dataset.authorIds, cursor);
+        return state.read(() -> state.authorRepository.getWithBooks(id));
+    }
+
+    @Benchmark
+    public Long findVersion(LibraryState state, Cursor cursor) {
+        Long id = next(state.dataset.authorIds, cursor);
+        return state.read(() -> state.authorRepository.findVersion(id));
+    }
+
+    @Benchmark
+    public List<Author> all(LibraryState state) {
+        return state.read(state.authorRepository::all);
+    }
+
+    @Benchmark
+    public List<AuthorView> allViews(LibraryState state) {
+        return state.read(state.authorRepository::allViews);
+    }
+
+    @Benchmark
+    public List<Author> firstPage(LibraryState state) {
+        return state.read(() -> state.authorRepository.page(null, null, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public List<AuthorView> firstPageViews(LibraryState state) {
+        return state.read(() -> state.authorRepository.pageViews(null, null, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public List<Author> searchByName(LibraryState state, Cursor cursor) {
+        String namePart = next(state.dataset.nameParts, cursor);
+        return state.read(() -> state.authorRepository.searchByName(namePart));
+    }
+
+    @Benchmark
+    public List<Author> suggest(LibraryState state, Cursor cursor) {
+        String prefix = next(state.dataset.nameParts, cursor);
+        return state.read(() -> state.authorRepository.suggest(prefix, 10));
+    }
+
+    @Benchmark
+    public Map<String, Author> findByFullNames(LibraryState state, Cursor cursor) {
+        List<String> fullNames = List.of(next(state.dataset.authorNames, cursor), next(state.dataset.authorNames, cursor),
+                next(state.dataset.authorNames, cursor));
+        return state.read(() -> state.authorRepository.findByFullNames(fullNames));
+    }
+
+    @Benchmark
+    public boolean checkAuthorByIdHavingCoAuthoredBooks(LibraryState state, Cursor cursor) {
+        long id = next(state.dataset.authorIds, cursor);
+        return state.read(() -> state.authorRepository.checkAuthorByIdHavingCoAuthoredBooks(id));
+    }
+
+    @Benchmark
+    public List<AuthorRepository.CoAuthorship> coAuthors(LibraryState state, Cursor cursor) {
+        long id = next(state.dataset.authorIds, cursor);
+        return state.read(() -> state.authorRepository.coAuthors(id));
+    }
+}
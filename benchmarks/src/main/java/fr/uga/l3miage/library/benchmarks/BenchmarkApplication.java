@@ -0,0 +1,22 @@
+package fr.uga.l3miage.library.benchmarks;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Repositories and services on an embedded H2 database, without the web layer of the application.
+ */
+@SpringBootApplication(scanBasePackages = {"fr.uga.l3miage.library.data", "fr.uga.l3miage.library.service"})
+@EntityScan("fr.uga.l3miage.library.data.domain")
+public class BenchmarkApplication {
+
+    static ConfigurableApplicationContext start() {
+        SpringApplication application = new SpringApplication(BenchmarkApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        return application.run();
+    }
+
+}
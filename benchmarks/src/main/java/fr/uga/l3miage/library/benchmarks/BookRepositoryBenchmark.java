@@ -0,0 +1,128 @@
+package fr.uga.l3miage.library.benchmarks;
+
+import fr.uga.l3miage.library.benchmarks.LibraryState.Cursor;
+import fr.uga.l3miage.library.data.domain.Book;
+import fr.uga.l3miage.library.data.projection.BookView;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static fr.uga.l3miage.library.benchmarks.LibraryState.next;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookRepositoryBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+
+    @Benchmark
+    public Book get(LibraryState state, Cursor cursor) {
+        Long id = next(state.dataset.bookIds, cursor);
+        return state.read(() -> state.bookRepository.get(id));
+    }
+
+    @Benchmark
+    public Book findByIsbn(LibraryState state, Cursor cursor) {
+        long isbn = next(state.dataset.isbns, cursor);
+        return state.read(() -> state.bookRepository.findByIsbn(isbn));
+    }
+
+    @Benchmark
+    public Long findVersion(LibraryState state, Cursor cursor) {
+        Long id = next(state.dataset.bookIds, cursor);
+        return state.read(() -> state.bookRepository.findVersion(id));
+    }
+
+    @Benchmark
+    public List<Book> all(LibraryState state) {
+        return state.read(state.bookRepository::all);
+    }
+
+    @Benchmark
+    public List<BookView> allViews(LibraryState state) {
+        return state.read(state.bookRepository::allViews);
+    }
+
+    /**
+     * The same listing of views, read as managed entities then converted, or read directly as projections.
+     * Run with <code>-Djmh.args="BookRepositoryBenchmark.allVsAllViews -prof gc"</code> to compare the bytes
+     * allocated per listing (<code>gc.alloc.rate.norm</code>) along with the latency.
+     */
+    @Benchmark
+    public List<BookView> allVsAllViews(LibraryState state, Listing listing) {
+        if (listing.source == Source.ENTITIES) {
+            return state.read(() -> state.bookRepository.all().stream().map(BookView::of).toList());
+        }
+        return state.read(state.bookRepository::allViews);
+    }
+
+    @Benchmark
+    public List<Book> firstPage(LibraryState state) {
+        return state.read(() -> state.bookRepository.page(null, null, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public List<BookView> firstPageViews(LibraryState state) {
+        return state.read(() -> state.bookRepository.pageViews(null, null, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public List<Book> findByContainingTitle(LibraryState state, Cursor cursor) {
+        String word = next(state.dataset.titleWords, cursor);
+        return state.read(() -> state.bookRepository.findByContainingTitle(word));
+    }
+
+    @Benchmark
+    public List<BookView> findViewsByContainingTitle(LibraryState state, Cursor cursor) {
+        String word = next(state.dataset.titleWords, cursor);
+        return state.read(() -> state.bookRepository.findViewsByContainingTitle(word));
+    }
+
+    @Benchmark
+    public List<Book> findByAuthorId(LibraryState state, Cursor cursor) {
+        Long authorId = next(state.dataset.authorIds, cursor);
+        return state.read(() -> state.bookRepository.findByAuthorId(authorId));
+    }
+
+    @Benchmark
+    public List<Book> findByAuthorIdAndContainingTitle(LibraryState state, Cursor cursor) {
+        Long authorId = next(state.dataset.authorIds, cursor);
+        String word = next(state.dataset.titleWords, cursor);
+        return state.read(() -> state.bookRepository.findByAuthorIdAndContainingTitle(authorId, word));
+    }
+
+    @Benchmark
+    public List<Book> findBooksByAuthorContainingName(LibraryState state, Cursor cursor) {
+        String namePart = next(state.dataset.nameParts, cursor);
+        return state.read(() -> state.bookRepository.findBooksByAuthorContainingName(namePart));
+    }
+
+    @Benchmark
+    public List<Book> findBooksHavingAuthorCountGreaterThan(LibraryState state) {
+        return state.read(() -> state.bookRepository.findBooksHavingAuthorCountGreaterThan(2));
+    }
+
+    public enum Source {
+        ENTITIES, PROJECTIONS
+    }
+
+    @State(Scope.Benchmark)
+    public static class Listing {
+
+        @Param({"ENTITIES", "PROJECTIONS"})
+        public Source source;
+    }
+}
@@ -0,0 +1,72 @@
+package fr.uga.l3miage.library.benchmarks;
+
+import fr.uga.l3miage.library.benchmarks.LibraryState.Cursor;
+import fr.uga.l3miage.library.data.domain.Borrow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static fr.uga.l3miage.library.benchmarks.LibraryState.next;
+
+/**
+ * Read queries only: {@code pollNewlyOverdue} consumes the overdue borrows and would measure an empty poll after
+ * the first invocation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BorrowRepositoryBenchmark {
+
+    @Benchmark
+    public List<Borrow> all(LibraryState state) {
+        return state.read(state.borrowRepository::all);
+    }
+
+    @Benchmark
+    public List<Borrow> findInProgressByUser(LibraryState state, Cursor cursor) {
+        Long userId = next(state.dataset.userIds, cursor);
+        return state.read(() -> state.borrowRepository.findInProgressByUser(userId));
+    }
+
+    @Benchmark
+    public int countBorrowedBooksByUser(LibraryState state, Cursor cursor) {
+        Long userId = next(state.dataset.userIds, cursor);
+        return state.read(() -> state.borrowRepository.countBorrowedBooksByUser(userId));
+    }
+
+    @Benchmark
+    public int countCurrentBorrowedBooksByUser(LibraryState state, Cursor cursor) {
+        Long userId = next(state.dataset.userIds, cursor);
+        return state.read(() -> state.borrowRepository.countCurrentBorrowedBooksByUser(userId));
+    }
+
+    @Benchmark
+    public List<Borrow> foundAllLateBorrow(LibraryState state) {
+        return state.read(state.borrowRepository::foundAllLateBorrow);
+    }
+
+    @Benchmark
+    public List<Borrow> findOpenDueBetween(LibraryState state) {
+        Instant now = Instant.now();
+        Date from = Date.from(now);
+        Date until = Date.from(now.plus(7, ChronoUnit.DAYS));
+        return state.read(() -> state.borrowRepository.findOpenDueBetween(from, until, 0, 0, 100));
+    }
+
+    @Benchmark
+    public List<Borrow> findAllBorrowThatWillLateWithin(LibraryState state) {
+        return state.read(() -> state.borrowRepository.findAllBorrowThatWillLateWithin(3));
+    }
+}
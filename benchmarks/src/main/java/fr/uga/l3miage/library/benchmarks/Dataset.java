@@ -0,0 +1,171 @@
+package fr.uga.l3miage.library.benchmarks;
+
+import com.github.javafaker.Faker;
+import fr.uga.l3miage.library.data.domain.Author;
+import fr.uga.l3miage.library.data.domain.Book;
+import fr.uga.l3miage.library.data.domain.Borrow;
+import fr.uga.l3miage.library.data.domain.Librarian;
+import fr.uga.l3miage.library.data.domain.Person;
+import fr.uga.l3miage.library.data.domain.User;
+import jakarta.persistence.EntityManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A reproducible library: one author for four books, a third of the books co-authored, one user for ten books
+ * and one borrow for two books, half of them returned and some of the others late.
+ */
+final class Dataset {
+
+    private static final int CHUNK_SIZE = 500;
+
+    final List<Long> bookIds = new ArrayList<>();
+    final List<Long> isbns = new ArrayList<>();
+    final List<String> titleWords = new ArrayList<>();
+    final List<Long> authorIds = new ArrayList<>();
+    final List<String> authorNames = new ArrayList<>();
+    final List<String> nameParts = new ArrayList<>();
+    final List<Long> userIds = new ArrayList<>();
+
+    private final Random random = new Random(42);
+    private final Faker faker = Faker.instance(Locale.ENGLISH, random);
+
+    /**
+     * @param books number of books; authors, users and borrows are proportional
+     */
+    static Dataset load(EntityManager entityManager, TransactionTemplate transactionTemplate, int books) {
+        Dataset dataset = new Dataset();
+        transactionTemplate.executeWithoutResult(status -> dataset.persist(entityManager, books));
+        return dataset;
+    }
+
+    /**
+     * Detached books with their authors, as a listing would load them
+     */
+    static List<Book> detachedBooks(int count) {
+        Dataset dataset = new Dataset();
+        List<Author> authors = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, count / 4); i++) {
+            Author author = dataset.newAuthor();
+            author.setId((long) i + 1);
+            authors.add(author);
+        }
+        List<Book> books = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Book book = dataset.newBook(i, authors);
+            book.setId((long) i + 1);
+            books.add(book);
+        }
+        return books;
+    }
+
+    private void persist(EntityManager entityManager, int bookCount) {
+        List<Author> authors = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, bookCount / 4); i++) {
+            authors.add(persist(entityManager, newAuthor(), i));
+        }
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < bookCount; i++) {
+            books.add(persist(entityManager, newBook(i, authors), i));
+        }
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, bookCount / 10); i++) {
+            User user = new User();
+            setPerson(user);
+            user.setRegistered(faker.date().past(5 * 365, TimeUnit.DAYS));
+            user.setLateRatio(random.nextFloat());
+            users.add(persist(entityManager, user, i));
+        }
+        List<Librarian> librarians = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Librarian librarian = new Librarian();
+            setPerson(librarian);
+            librarians.add(persist(entityManager, librarian, i));
+        }
+        Instant now = Instant.now();
+        for (int i = 0; i < bookCount / 2; i++) {
+            Borrow borrow = new Borrow();
+            borrow.setBorrower(users.get(random.nextInt(users.size())));
+            borrow.setLibrarian(librarians.get(random.nextInt(librarians.size())));
+            List<Book> borrowed = new ArrayList<>();
+            for (int j = 0; j <= random.nextInt(3); j++) {
+                borrowed.add(books.get(random.nextInt(books.size())));
+            }
+            borrow.setBooks(borrowed);
+            Instant start = now.minus(random.nextInt(90), ChronoUnit.DAYS);
+            borrow.setStart(Date.from(start));
+            borrow.setRequestedReturn(Date.from(start.plus(30, ChronoUnit.DAYS)));
+            if (random.nextBoolean()) {
+                borrow.finish(Date.from(start.plus(random.nextInt(45), ChronoUnit.DAYS)));
+            }
+            persist(entityManager, borrow, i);
+        }
+        entityManager.flush();
+
+        books.forEach(book -> {
+            bookIds.add(book.getId());
+            isbns.add(book.getIsbn());
+        });
+        authors.forEach(author -> {
+            authorIds.add(author.getId());
+            authorNames.add(author.getFullName());
+        });
+        users.forEach(user -> userIds.add(user.getId()));
+    }
+
+    private <T> T persist(EntityManager entityManager, T entity, int index) {
+        entityManager.persist(entity);
+        if (index % CHUNK_SIZE == CHUNK_SIZE - 1) {
+            entityManager.flush();
+        }
+        return entity;
+    }
+
+    private Author newAuthor() {
+        Author author = new Author();
+        String fullName = faker.name().fullName();
+        author.setFullName(fullName);
+        String lastName = fullName.substring(fullName.lastIndexOf(' ') + 1);
+        nameParts.add(lastName.substring(0, Math.min(4, lastName.length())).toLowerCase());
+        return author;
+    }
+
+    private Book newBook(int index, List<Author> authors) {
+        Book book = new Book();
+        String title = faker.book().title();
+        book.setTitle(title);
+        for (String word : title.split("\\W+")) {
+            if (word.length() > 3) {
+                titleWords.add(word.toLowerCase());
+                break;
+            }
+        }
+        book.setPublisher(faker.book().publisher());
+        book.setIsbn(9_780_000_000_000L + index);
+        book.setYear((short) (1950 + random.nextInt(75)));
+        book.setLanguage(random.nextInt(3) == 0 ? Book.Language.FRENCH : Book.Language.ENGLISH);
+        book.addAuthor(authors.get(random.nextInt(authors.size())));
+        if (random.nextInt(3) == 0) {
+            book.addAuthor(authors.get(random.nextInt(authors.size())));
+            if (random.nextInt(3) == 0) {
+                book.addAuthor(authors.get(random.nextInt(authors.size())));
+            }
+        }
+        return book;
+    }
+
+    private void setPerson(Person person) {
+        person.setGender(Person.Gender.values()[random.nextInt(2)]);
+        person.setFirstName(faker.name().firstName());
+        person.setLastName(faker.name().lastName());
+        person.setBirth(faker.date().birthday(20, 60));
+    }
+}
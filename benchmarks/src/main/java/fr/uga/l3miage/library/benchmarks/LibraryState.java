@@ -0,0 +1,79 @@
+package fr.uga.l3miage.library.benchmarks;
+
+import fr.uga.l3miage.library.data.repo.AuthorRepository;
+import fr.uga.l3miage.library.data.repo.BookRepository;
+import fr.uga.l3miage.library.data.repo.BorrowRepository;
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.BookService;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * The application context and its loaded database, shared by the threads of a trial.
+ */
+@State(Scope.Benchmark)
+public class LibraryState {
+
+    @Param("5000")
+    public int books;
+
+    ConfigurableApplicationContext context;
+    BookRepository bookRepository;
+    AuthorRepository authorRepository;
+    BorrowRepository borrowRepository;
+    BookService bookService;
+    AuthorService authorService;
+    Dataset dataset;
+
+    private TransactionTemplate readOnly;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkApplication.start();
+        bookRepository = context.getBean(BookRepository.class);
+        authorRepository = context.getBean(AuthorRepository.class);
+        borrowRepository = context.getBean(BorrowRepository.class);
+        bookService = context.getBean(BookService.class);
+        authorService = context.getBean(AuthorService.class);
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        dataset = Dataset.load(context.getBean(EntityManager.class), new TransactionTemplate(transactionManager), books);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    /**
+     * Runs a repository call in its own read-only transaction, as a service would: every call starts from an
+     * empty persistence context.
+     */
+    <T> T read(Supplier<T> query) {
+        return readOnly.execute(status -> query.get());
+    }
+
+    static <T> T next(List<T> values, Cursor cursor) {
+        return values.get(Math.floorMod(cursor.next++, values.size()));
+    }
+
+    /**
+     * Walks the keys of the dataset in turn, one walk per benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+}
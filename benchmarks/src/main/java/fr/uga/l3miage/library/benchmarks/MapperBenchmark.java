@@ -0,0 +1,94 @@
+package fr.uga.l3miage.library.benchmarks;
+
+import fr.uga.l3miage.library.authors.AuthorDTO;
+import fr.uga.l3miage.library.authors.AuthorMapper;
+import fr.uga.l3miage.library.authors.AuthorMapperImpl;
+import fr.uga.l3miage.library.books.BookDTO;
+import fr.uga.l3miage.library.books.BooksMapper;
+import fr.uga.l3miage.library.books.BooksMapperImpl;
+import fr.uga.l3miage.library.data.domain.Author;
+import fr.uga.l3miage.library.data.domain.Book;
+import fr.uga.l3miage.library.data.projection.AuthorView;
+import fr.uga.l3miage.library.data.projection.BookView;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping of one listing to DTOs and back, without database: throughput in listings per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    @Param({"50", "1000"})
+    public int size;
+
+    private final BooksMapper booksMapper = new BooksMapperImpl();
+    private final AuthorMapper authorMapper = new AuthorMapperImpl();
+
+    private List<Book> books;
+    private List<BookView> bookViews;
+    private List<BookDTO> bookDTOs;
+    private List<Author> authors;
+    private List<AuthorView> authorViews;
+    private List<AuthorDTO> authorDTOs;
+
+    @Setup
+    public void createListings() {
+        books = Dataset.detachedBooks(size);
+        bookViews = books.stream().map(BookView::of).toList();
+        bookDTOs = List.copyOf(booksMapper.entityToDTO(books));
+        authors = books.stream().flatMap(book -> book.getAuthors().stream()).distinct().limit(size).toList();
+        authorViews = authors.stream().map(AuthorView::of).toList();
+        authorDTOs = List.copyOf(authorMapper.entityToDTO(authors));
+        Objects.requireNonNull(booksMapper.viewToDTO(bookViews));
+    }
+
+    @Benchmark
+    public Collection<BookDTO> booksToDTO() {
+        return booksMapper.entityToDTO(books);
+    }
+
+    @Benchmark
+    public Collection<BookDTO> bookViewsToDTO() {
+        return booksMapper.viewToDTO(bookViews);
+    }
+
+    @Benchmark
+    public Collection<Book> bookDTOsToEntity() {
+        return booksMapper.dtoToEntity(bookDTOs);
+    }
+
+    @Benchmark
+    public Collection<AuthorDTO> authorsToDTO() {
+        return authorMapper.entityToDTO(authors);
+    }
+
+    @Benchmark
+    public Collection<AuthorDTO> authorViewsToDTO() {
+        return authorMapper.viewToDTO(authorViews);
+    }
+
+    @Benchmark
+    public Collection<Author> authorDTOsToEntity() {
+        return authorMapper.dtoToEntity(authorDTOs);
+    }
+}
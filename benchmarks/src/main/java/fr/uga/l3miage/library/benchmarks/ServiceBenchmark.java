@@ -0,0 +1,90 @@
+package fr.uga.l3miage.library.benchmarks;
+
+import fr.uga.l3miage.library.benchmarks.LibraryState.Cursor;
+import fr.uga.l3miage.library.data.domain.Author;
+import fr.uga.l3miage.library.data.domain.Book;
+import fr.uga.l3miage.library.data.projection.AuthorView;
+import fr.uga.l3miage.library.data.projection.BookView;
+import fr.uga.l3miage.library.service.CoAuthor;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static fr.uga.l3miage.library.benchmarks.LibraryState.next;
+
+/**
+ * The service calls behind the read endpoints, each in the transaction the service opens itself.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+
+    @Benchmark
+    public Book getBook(LibraryState state, Cursor cursor) throws EntityNotFoundException {
+        return state.bookService.get(next(state.dataset.bookIds, cursor));
+    }
+
+    @Benchmark
+    public Book getBookByIsbn(LibraryState state, Cursor cursor) throws EntityNotFoundException {
+        return state.bookService.getByIsbn(next(state.dataset.isbns, cursor));
+    }
+
+    @Benchmark
+    public Collection<BookView> listBookViews(LibraryState state) {
+        return state.bookService.listViews(null, null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public Collection<Book> findBooksByTitle(LibraryState state, Cursor cursor) {
+        return state.bookService.findByTitle(next(state.dataset.titleWords, cursor));
+    }
+
+    @Benchmark
+    public Collection<BookView> findBookViewsByTitle(LibraryState state, Cursor cursor) {
+        return state.bookService.findViewsByTitle(next(state.dataset.titleWords, cursor));
+    }
+
+    @Benchmark
+    public Collection<Book> getBooksByAuthor(LibraryState state, Cursor cursor) throws EntityNotFoundException {
+        return state.bookService.getByAuthor(next(state.dataset.authorIds, cursor));
+    }
+
+    @Benchmark
+    public Author getAuthor(LibraryState state, Cursor cursor) throws EntityNotFoundException {
+        return state.authorService.get(next(state.dataset.authorIds, cursor));
+    }
+
+    @Benchmark
+    public Collection<AuthorView> listAuthorViews(LibraryState state) {
+        return state.authorService.listViews(null, null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public Collection<Author> searchAuthorsByName(LibraryState state, Cursor cursor) {
+        return state.authorService.searchByName(next(state.dataset.nameParts, cursor));
+    }
+
+    @Benchmark
+    public Collection<Author> suggestAuthors(LibraryState state, Cursor cursor) {
+        return state.authorService.suggest(next(state.dataset.nameParts, cursor), 10);
+    }
+
+    @Benchmark
+    public List<CoAuthor> coAuthors(LibraryState state, Cursor cursor) throws EntityNotFoundException {
+        return state.authorService.coAuthors(next(state.dataset.authorIds, cursor));
+    }
+}
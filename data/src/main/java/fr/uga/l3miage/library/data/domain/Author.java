@@ -1,26 +1,63 @@
 package fr.uga.l3miage.library.data.domain;
 
+import fr.uga.l3miage.library.data.index.AuthorNameIndexListener;
+import fr.uga.l3miage.library.data.index.ModificationCountersListener;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.OptimisticLock;
 
 import java.util.HashSet;
-import java.util.Objects;
 import java.util.Set;
+import java.util.UUID;
 
+//Graphe de chargement d'un auteur avec ses livres, utilisé par AuthorRepository.getWithBooks
+@NamedEntityGraph(
+    name = "author-with-books",
+    attributeNodes = @NamedAttributeNode("books")
+)
 @Entity
-@Table(name = "author")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Author.CACHE_REGION)
+@Table(name = "author", indexes = @Index(name = "idx_author_fullname_id", columnList = "fullName, id"))
+@EntityListeners({AuthorNameIndexListener.class, ModificationCountersListener.class})
 public class Author {
 
+    /**
+     * Régions du cache de second niveau (auteurs et livres des auteurs)
+     */
+    public static final String CACHE_REGION = "authors";
+    public static final String BOOKS_CACHE_REGION = "authors.books";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "author_seq")
+    @SequenceGenerator(name = "author_seq", sequenceName = "author_seq", allocationSize = 50)
     private Long id;
 
+    // clé d'identité attribuée à la construction, base de equals et hashCode
+    @Column(name = "uuid", nullable = false, updatable = false)
+    private UUID uuid = EntityKeys.newKey();
+
+    // version incrémentée par Hibernate à chaque modification de l'auteur
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
     @Column(name = "fullName")
     private String fullName;
 
-    @Column(name = "books")
-    @ManyToMany
+    // l'ajout d'un livre ne change pas l'auteur : sa version n'augmente pas
+    @ManyToMany(mappedBy = "authors")
+    @OptimisticLock(excluded = true)
+    @BatchSize(size = 100)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Author.BOOKS_CACHE_REGION)
     private Set<Book> books;
 
+    public UUID getUuid() {
+        return uuid;
+    }
+
     public Long getId() {
         return id;
     }
@@ -29,6 +66,14 @@ public class Author {
         this.id = id;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public String getFullName() {
         return fullName;
     }
@@ -52,16 +97,24 @@ public class Author {
         this.books.add(book);
     }
 
+    /**
+     * Deux auteurs sont égaux s'ils ont la même clé d'identité : attribuée à la construction et enregistrée avec
+     * l'entité, elle désigne la même ligne qu'elle soit rechargée, détachée ou pas encore enregistrée.
+     */
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-        Author author = (Author) o;
-        return Objects.equals(fullName, author.fullName);
+        // instanceof et accesseur plutôt que getClass() et le champ : o peut être un proxy Hibernate
+        if (!(o instanceof Author author)) return false;
+        return uuid.equals(author.getUuid());
     }
 
+    /**
+     * Hash de la clé d'identité : il ne change ni à l'enregistrement ni quand les champs sont modifiés, ne lit
+     * aucune association et répartit les auteurs dans les ensembles hachés.
+     */
     @Override
     public int hashCode() {
-        return Objects.hash(fullName);
+        return uuid.hashCode();
     }
 }
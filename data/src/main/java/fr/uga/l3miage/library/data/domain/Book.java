@@ -1,15 +1,33 @@
 package fr.uga.l3miage.library.data.domain;
 
+import fr.uga.l3miage.library.data.index.BookTitleIndexListener;
+import fr.uga.l3miage.library.data.index.CoAuthorGraphListener;
+import fr.uga.l3miage.library.data.index.IsbnIndexListener;
+import fr.uga.l3miage.library.data.index.ModificationCountersListener;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.HashSet;
-import java.util.Objects;
 import java.util.Set;
+import java.util.UUID;
 
 //NamedQuery pour la fonction all-books qui va renvoyer tous les livres 
 @NamedQuery(
     name = "all-books",
-    query = "SELECT b FROM Book b ORDER BY b.title ASC"
+    query = "SELECT b FROM Book b ORDER BY b.title ASC, b.id ASC"
+)
+
+//NamedQueries pour la pagination par clé (keyset) : les ids de la première page, puis ceux des livres situés
+//après le couple (titre, id) du dernier livre de la page précédente
+@NamedQuery(
+    name = "all-book-ids",
+    query = "SELECT b.id FROM Book b ORDER BY b.title ASC, b.id ASC"
+)
+@NamedQuery(
+    name = "book-ids-after",
+    query = "SELECT b.id FROM Book b WHERE b.title > :title OR (b.title = :title AND b.id > :id) ORDER BY b.title ASC, b.id ASC"
 )
 
 //NamedQuery pour la fonction indByContainingTitle(String namePart) qui va renvoyer les livres dont le paramètre est contenu dans le titre
@@ -18,6 +36,12 @@ import java.util.Set;
     query = "SELECT b FROM Book b WHERE LOWER(b.title) LIKE LOWER(CONCAT('%', :titlePart, '%'))"
 )
 
+//NamedQuery utilisée par findByContainingTitle pour charger uniquement les livres trouvés par l'index de titres
+@NamedQuery(
+    name = "find-books-by-ids",
+    query = "SELECT b FROM Book b WHERE b.id IN :ids ORDER BY b.id"
+)
+
 //NamedQuery pour la fonction findByAuthorIdAndContainingTitle(Long authorId, String titlePart) qui va renvoyer les livre en focntion de l'id d'auteur et du titre donné
 @NamedQuery(
     name = "find-books-by-author-and-title",
@@ -31,25 +55,73 @@ import java.util.Set;
     query="SELECT b FROM Book b JOIN b.authors a WHERE LOWER(a.fullName) LIKE CONCAT('%', LOWER(:namePart), '%')"
 )
     
+//NamedQuery pour la fonction findBooksHavingAuthorCountGreaterThan(int count) : parcours de l'index sur le nombre
+//d'auteurs dénormalisé plutôt qu'un comptage de la table de jointure pour chaque livre
 @NamedQuery(
     name = "find-books-by-several-authors",
-    query = "SELECT b FROM Book b WHERE SIZE(b.authors) > :count"
+    query = "SELECT b FROM Book b WHERE b.authorCount > :count"
+)
+
+//NamedQuery de vérification : les livres dont le nombre d'auteurs dénormalisé diffère de la table de jointure
+@NamedQuery(
+    name = "find-book-ids-with-wrong-author-count",
+    query = "SELECT b.id FROM Book b WHERE b.authorCount <> SIZE(b.authors)"
 )
 
 
 
 
 
+//Graphe de chargement utilisé par les listes de livres : les auteurs sont chargés dans la même requête (évite le N+1)
+@NamedEntityGraph(
+    name = "book-with-authors",
+    attributeNodes = @NamedAttributeNode("authors")
+)
+
+//NamedQuery pour la fonction findByAuthorId(Long authorId) qui renvoie les livres d'un auteur avec tous leurs auteurs en une requête
+@NamedQuery(
+    name = "find-books-by-author",
+    query = "SELECT DISTINCT b FROM Book b JOIN b.authors a LEFT JOIN FETCH b.authors WHERE a.id = :authorId ORDER BY b.title ASC, b.id ASC"
+)
+
 @Entity
-@Table(name = "book")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Book.CACHE_REGION)
+@Table(name = "book", indexes = {
+        @Index(name = "idx_book_title_id", columnList = "title, id"),
+        @Index(name = "idx_book_author_count", columnList = "author_count"),
+        @Index(name = Book.ISBN_INDEX, columnList = "isbn", unique = true)
+})
+@EntityListeners({BookTitleIndexListener.class, CoAuthorGraphListener.class, IsbnIndexListener.class,
+        ModificationCountersListener.class})
 public class Book {
 
-    
+    /**
+     * Régions du cache de second niveau (livres et auteurs des livres)
+     */
+    public static final String CACHE_REGION = "books";
+    public static final String AUTHORS_CACHE_REGION = "books.authors";
+
+    /**
+     * Index unique des ISBN : deux livres ne peuvent pas avoir le même ISBN
+     */
+    public static final String ISBN_INDEX = "idx_book_isbn";
+
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @SequenceGenerator(name = "book_seq", sequenceName = "book_seq", allocationSize = 50)
     private Long id;
 
+    // clé d'identité attribuée à la construction, base de equals et hashCode
+    @Column(name = "uuid", nullable = false, updatable = false)
+    private UUID uuid = EntityKeys.newKey();
+
+    // version incrémentée par Hibernate à chaque modification du livre, auteurs compris (côté propriétaire)
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
     @Column(name = "title")
     private String title;
 
@@ -65,10 +137,24 @@ public class Book {
     @Column(name = "language")
     private Language language;
 
-    @Column(name = "authors")
-    @ManyToMany(mappedBy="books")
+    // le livre porte la relation : ajouter un auteur à un nouveau livre n'oblige pas à charger tous les livres de l'auteur
+    // quand une liste de livres n'a pas chargé les auteurs, ils sont chargés par paquets de 100 livres
+    @ManyToMany
+    @JoinTable(name = "author_books",
+            joinColumns = @JoinColumn(name = "books_id"),
+            inverseJoinColumns = @JoinColumn(name = "authors_id"))
+    @BatchSize(size = 100)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Book.AUTHORS_CACHE_REGION)
     private Set<Author> authors;
 
+    // nombre d'auteurs dénormalisé, tenu à jour par addAuthor/removeAuthor/setAuthors
+    @Column(name = "author_count", nullable = false)
+    private int authorCount;
+
+    public UUID getUuid() {
+        return uuid;
+    }
+
     public Long getId() {
         return id;
     }
@@ -77,6 +163,14 @@ public class Book {
         this.id = id;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public String getTitle() {
         return title;
     }
@@ -123,13 +217,29 @@ public class Book {
 
     public void setAuthors(Set<Author> authors) {
         this.authors = authors;
+        this.authorCount = authors == null ? 0 : authors.size();
     }
 
     public void addAuthor(Author author) {
         if (this.authors == null) {
             this.authors = new HashSet<>();
         }
-        this.authors.add(author);
+        if (this.authors.add(author)) {
+            this.authorCount++;
+        }
+    }
+
+    public void removeAuthor(Author author) {
+        if (this.authors != null && this.authors.remove(author)) {
+            this.authorCount--;
+        }
+    }
+
+    /**
+     * @return le nombre d'auteurs, sans charger la collection des auteurs
+     */
+    public int getAuthorCount() {
+        return authorCount;
     }
 
     public enum Language {
@@ -137,18 +247,24 @@ public class Book {
         ENGLISH
     }
 
+    /**
+     * Deux livres sont égaux s'ils ont la même clé d'identité : attribuée à la construction et enregistrée avec
+     * l'entité, elle désigne la même ligne qu'elle soit rechargée, détachée ou pas encore enregistrée.
+     */
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-        Book book = (Book) o;
-        return isbn == book.isbn && year == book.year && Objects.equals(title, book.title) && Objects.equals(publisher, book.publisher) && language == book.language && Objects.equals(authors, book.authors);
+        // instanceof et accesseur plutôt que getClass() et le champ : o peut être un proxy Hibernate
+        if (!(o instanceof Book book)) return false;
+        return uuid.equals(book.getUuid());
     }
 
+    /**
+     * Hash de la clé d'identité : il ne change ni à l'enregistrement ni quand les champs sont modifiés, ne lit
+     * aucune association et répartit les livres dans les ensembles hachés.
+     */
     @Override
     public int hashCode() {
-        return Objects.hash(title, isbn, publisher, year, language, authors);
+        return uuid.hashCode();
     }
-
-    
 }
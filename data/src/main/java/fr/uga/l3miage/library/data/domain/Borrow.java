@@ -2,16 +2,27 @@ package fr.uga.l3miage.library.data.domain;
 
 import java.util.Date;
 import java.util.List;
-import java.util.Objects;
+import java.util.UUID;
 
+import fr.uga.l3miage.library.data.index.BorrowCountersListener;
+import fr.uga.l3miage.library.data.index.OverdueTrackerListener;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "borrow")
+@EntityListeners({BorrowCountersListener.class, OverdueTrackerListener.class})
+@Table(name = "borrow", indexes = {
+        @Index(name = "idx_borrow_librarian_start", columnList = "librarian_id, start"),
+        @Index(name = "idx_borrow_borrower_return", columnList = "borrower_id, requestedReturn"),
+        @Index(name = "idx_borrow_finished_return", columnList = "finished, requestedReturn")
+})
 public class Borrow {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "borrow_seq")
+    @SequenceGenerator(name = "borrow_seq", sequenceName = "borrow_seq", allocationSize = 50)
     private Long id;
+    // clé d'identité attribuée à la construction, base de equals et hashCode
+    @Column(name = "uuid", nullable = false, updatable = false)
+    private UUID uuid = EntityKeys.newKey();
     @ManyToMany
     private List<Book> books;
     private Date start;
@@ -21,6 +32,22 @@ public class Borrow {
     @OneToOne
     private Librarian librarian;
     private boolean finished;
+    /**
+     * Date du retour, renseignée quand l'emprunt est terminé
+     */
+    private Date returned;
+    /**
+     * Emprunteur et état tels que comptés par {@link fr.uga.l3miage.library.data.index.BorrowCounters}
+     * lors du dernier chargement ou de la dernière écriture
+     */
+    @Transient
+    private Long countedBorrowerId;
+    @Transient
+    private boolean countedOpen;
+
+    public UUID getUuid() {
+        return uuid;
+    }
 
     public Long getId() {
         return id;
@@ -75,16 +102,83 @@ public class Borrow {
         this.finished = finished;
     }
 
+    /**
+     * Termine l'emprunt et compte le retour (en retard ou non) dans les statistiques de l'emprunteur.
+     * Sans effet si l'emprunt est déjà terminé.
+     *
+     * @param returned la date du retour
+     */
+    public void finish(Date returned) {
+        if (finished) {
+            return;
+        }
+        this.finished = true;
+        this.returned = returned;
+        if (borrower != null) {
+            borrower.recordReturn(isLate());
+        }
+    }
+
+    /**
+     * Rouvre un emprunt terminé et retire son retour des statistiques de l'emprunteur.
+     * Sans effet si l'emprunt est en cours.
+     */
+    public void reopen() {
+        if (!finished) {
+            return;
+        }
+        if (borrower != null && returned != null) {
+            borrower.cancelReturn(isLate());
+        }
+        this.finished = false;
+        this.returned = null;
+    }
+
+    public Date getReturned() {
+        return returned;
+    }
+
+    /**
+     * @return true si l'emprunt a été rendu après la date de retour prévue
+     */
+    private boolean isLate() {
+        return returned != null && requestedReturn != null && returned.getTime() > requestedReturn.getTime();
+    }
+
+    public Long getCountedBorrowerId() {
+        return countedBorrowerId;
+    }
+
+    public boolean isCountedOpen() {
+        return countedOpen;
+    }
+
+    /**
+     * Retient l'emprunteur et l'état courants comme ceux déjà comptés
+     */
+    public void markCounted() {
+        this.countedBorrowerId = borrower == null ? null : borrower.getId();
+        this.countedOpen = !finished;
+    }
+
+    /**
+     * Deux emprunts sont égaux s'ils ont la même clé d'identité : attribuée à la construction et enregistrée avec
+     * l'entité, elle désigne la même ligne qu'elle soit rechargée, détachée ou pas encore enregistrée.
+     */
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-        Borrow borrow = (Borrow) o;
-        return finished == borrow.finished && Objects.equals(id, borrow.id) && Objects.equals(books, borrow.books) && Objects.equals(start, borrow.start) && Objects.equals(requestedReturn, borrow.requestedReturn) && Objects.equals(borrower, borrow.borrower) && Objects.equals(librarian, borrow.librarian);
+        // instanceof et accesseur plutôt que getClass() et le champ : o peut être un proxy Hibernate
+        if (!(o instanceof Borrow borrow)) return false;
+        return uuid.equals(borrow.getUuid());
     }
 
+    /**
+     * Hash de la clé d'identité : il ne change ni à l'enregistrement ni quand les champs sont modifiés, ne lit
+     * aucune association et répartit les emprunts dans les ensembles hachés.
+     */
     @Override
     public int hashCode() {
-        return Objects.hash(id, books, start, requestedReturn, borrower, librarian, finished);
+        return uuid.hashCode();
     }
-}
\ No newline at end of file
+}
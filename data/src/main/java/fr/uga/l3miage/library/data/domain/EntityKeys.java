@@ -0,0 +1,26 @@
+package fr.uga.l3miage.library.data.domain;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Clés d'identité des entités, attribuées à la construction et enregistrées avec elles : contrairement à l'id,
+ * elles existent avant l'enregistrement et ne changent jamais, ce qui permet de hacher les entités dessus.
+ */
+final class EntityKeys {
+
+    private EntityKeys() {
+    }
+
+    /**
+     * Une clé aléatoire de 122 bits (UUID de version 4). Tirée par {@link ThreadLocalRandom} et non par
+     * {@link UUID#randomUUID()} : Hibernate construit une entité à chaque chargement avant d'y copier la clé
+     * lue en base, et le générateur sécurisé partagé coûterait plus cher que le chargement lui-même.
+     */
+    static UUID newKey() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long most = (random.nextLong() & ~0xF000L) | 0x4000L;
+        long least = (random.nextLong() & ~(0xC000L << 48)) | (0x8000L << 48);
+        return new UUID(most, least);
+    }
+}
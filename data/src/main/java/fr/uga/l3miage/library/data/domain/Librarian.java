@@ -1,6 +1,5 @@
 package fr.uga.l3miage.library.data.domain;
 
-import java.util.Objects;
 import jakarta.persistence.*;
 
 
@@ -18,17 +17,4 @@ public class Librarian extends Person {
     public void setManager(Librarian manager) {
         this.manager = manager;
     }
-
-    @Override
-    public boolean equals(Object o) {
-        if (this == o) return true;
-        if (!(o instanceof Librarian librarian)) return false;
-        if (!super.equals(o)) return false;
-        return Objects.equals(manager, librarian.manager);
-    }
-
-    @Override
-    public int hashCode() {
-        return Objects.hash(super.hashCode(), manager);
-    }
-}
\ No newline at end of file
+}
@@ -1,7 +1,7 @@
 package fr.uga.l3miage.library.data.domain;
 
 import java.util.Date;
-import java.util.Objects;
+import java.util.UUID;
 
 import jakarta.persistence.*;
 
@@ -12,8 +12,12 @@ import jakarta.persistence.*;
 public abstract class Person {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "person_seq")
+    @SequenceGenerator(name = "person_seq", sequenceName = "person_seq", allocationSize = 50)
     private Long id;
+    // clé d'identité attribuée à la construction, base de equals et hashCode
+    @Column(name = "uuid", nullable = false, updatable = false)
+    private UUID uuid = EntityKeys.newKey();
     private Gender gender;
     private String firstName;
     private String lastName;
@@ -23,6 +27,10 @@ public abstract class Person {
         FEMALE, MALE, FLUID
     }
 
+    public UUID getUuid() {
+        return uuid;
+    }
+
     public Long getId() {
         return id;
     }
@@ -60,15 +68,24 @@ public abstract class Person {
         this.gender = gender;
     }
 
+    /**
+     * Deux personnes sont égales si elles ont la même clé d'identité : attribuée à la construction et enregistrée avec
+     * l'entité, elle désigne la même ligne qu'elle soit rechargée, détachée ou pas encore enregistrée.
+     */
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
+        // instanceof et accesseur plutôt que getClass() et le champ : o peut être un proxy Hibernate
         if (!(o instanceof Person person)) return false;
-        return gender == person.gender && Objects.equals(firstName, person.firstName) && Objects.equals(lastName, person.lastName) && Objects.equals(birth, person.birth);
+        return uuid.equals(person.getUuid());
     }
 
+    /**
+     * Hash de la clé d'identité : il ne change ni à l'enregistrement ni quand les champs sont modifiés, ne lit
+     * aucune association et répartit les personnes dans les ensembles hachés.
+     */
     @Override
     public int hashCode() {
-        return Objects.hash(gender, firstName, lastName, birth);
+        return uuid.hashCode();
     }
-}
\ No newline at end of file
+}
@@ -1,7 +1,6 @@
 package fr.uga.l3miage.library.data.domain;
 
 import java.util.Date;
-import java.util.Objects;
 
 import jakarta.persistence.*;
 
@@ -10,7 +9,18 @@ import jakarta.persistence.*;
 @DiscriminatorValue("user")
 public class User extends Person {
     private Date registered;
+    /**
+     * Part des emprunts rendus en retard, dérivée de {@link #returnCount} et {@link #lateReturnCount}
+     */
     private float lateRatio;
+    /**
+     * Nombre d'emprunts rendus
+     */
+    private int returnCount;
+    /**
+     * Nombre d'emprunts rendus après la date de retour prévue
+     */
+    private int lateReturnCount;
 
     public Date getRegistered() {
         return registered;
@@ -28,16 +38,35 @@ public class User extends Person {
         this.lateRatio = lateRatio;
     }
 
-    @Override
-    public boolean equals(Object o) {
-        if (this == o) return true;
-        if (!(o instanceof User user)) return false;
-        if (!super.equals(o)) return false;
-        return Float.compare(user.lateRatio, lateRatio) == 0 && Objects.equals(registered, user.registered);
+    public int getReturnCount() {
+        return returnCount;
     }
 
-    @Override
-    public int hashCode() {
-        return Objects.hash(super.hashCode(), registered, lateRatio);
+    public int getLateReturnCount() {
+        return lateReturnCount;
     }
-}
\ No newline at end of file
+
+    /**
+     * Compte un emprunt rendu et met à jour {@link #getLateRatio()}
+     *
+     * @param late true si l'emprunt est rendu après la date de retour prévue
+     */
+    public void recordReturn(boolean late) {
+        countReturns(returnCount + 1, lateReturnCount + (late ? 1 : 0));
+    }
+
+    /**
+     * Annule un retour compté par {@link #recordReturn(boolean)}, quand un emprunt terminé est rouvert
+     *
+     * @param late true si l'emprunt avait été rendu en retard
+     */
+    public void cancelReturn(boolean late) {
+        countReturns(Math.max(0, returnCount - 1), Math.max(0, lateReturnCount - (late ? 1 : 0)));
+    }
+
+    private void countReturns(int returns, int lateReturns) {
+        this.returnCount = returns;
+        this.lateReturnCount = lateReturns;
+        this.lateRatio = returns == 0 ? 0f : (float) lateReturns / returns;
+    }
+}
@@ -0,0 +1,180 @@
+package fr.uga.l3miage.library.data.index;
+
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Index des noms d'auteurs en mémoire servant l'auto-complétion : chaque mot du nom, normalisé
+ * (minuscules, sans accents), est rangé dans un {@link PrefixTrie} qui classe les auteurs par nom. Les
+ * {@value #RANKED} premiers auteurs d'un préfixe s'y lisent directement ; le sous-arbre du préfixe n'est parcouru
+ * que si ce classement ne suffit pas (plus de suggestions demandées, ou des mots déjà saisis qui en écartent).
+ * Les noms sont découpés en mots une seule fois, à l'indexation.
+ * <p>
+ * Il est construit au démarrage par {@link fr.uga.l3miage.library.data.repo.AuthorRepository} puis tenu à
+ * jour par {@link AuthorNameIndexListener}. Les écritures d'une transaction n'y entrent qu'à sa
+ * validation (voir {@link EntityIndex}) ; d'ici là, elle voit ses propres noms par {@link #suggest(String, int)}.
+ */
+@Component
+public class AuthorNameIndex extends EntityIndex<String> {
+
+    private static final int RANKED = 32;
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Comparator<Suggestion> BY_NAME = Comparator
+            .comparing(Suggestion::fullName, String.CASE_INSENSITIVE_ORDER)
+            .thenComparingLong(Suggestion::id);
+
+    private final Map<Long, Name> names = new HashMap<>();
+    private final PrefixTrie trie = new PrefixTrie(this::compare, RANKED);
+
+    /**
+     * Un auteur suggéré
+     */
+    public record Suggestion(long id, String fullName) {
+    }
+
+    /**
+     * Un nom indexé et ses mots normalisés
+     */
+    private record Name(String fullName, List<String> tokens) {
+    }
+
+    /**
+     * Suggère les auteurs dont chaque mot du préfixe commence un des mots du nom
+     * (non sensible à la casse ni aux accents)
+     *
+     * @param prefix début du nom, par exemple "vic" ou "victor h"
+     * @param limit  nombre maximum de suggestions
+     * @return au plus {@code limit} auteurs triés par nom
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        List<String> words = tokens(prefix);
+        if (words.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        // le dernier mot est en cours de saisie, les précédents servent de filtre
+        String typed = words.get(words.size() - 1);
+        List<String> filters = words.subList(0, words.size() - 1);
+        Map<Long, String> pending = pendingValues();
+        if (pending.isEmpty()) {
+            return indexed(typed, filters, limit);
+        }
+        // la transaction courante voit ses propres écritures, pas encore dans l'index
+        List<Suggestion> suggestions = new ArrayList<>();
+        for (Suggestion suggestion : indexed(typed, filters, limit + pending.size())) {
+            if (!pending.containsKey(suggestion.id())) {
+                suggestions.add(suggestion);
+            }
+        }
+        pending.forEach((id, fullName) -> {
+            if (fullName != null && matchesAll(tokens(fullName), words)) {
+                suggestions.add(new Suggestion(id, fullName));
+            }
+        });
+        suggestions.sort(BY_NAME);
+        return suggestions.size() > limit ? suggestions.subList(0, limit) : suggestions;
+    }
+
+    private List<Suggestion> indexed(String typed, List<String> filters, int limit) {
+        return read(() -> {
+            long[] first = trie.firstWithPrefix(typed);
+            List<Suggestion> suggestions = new ArrayList<>(Math.min(limit, first.length));
+            for (int i = 0; i < first.length && suggestions.size() < limit; i++) {
+                Name name = names.get(first[i]);
+                if (matchesAll(name.tokens(), filters)) {
+                    suggestions.add(new Suggestion(first[i], name.fullName()));
+                }
+            }
+            // le classement suffit s'il a donné assez de suggestions ou s'il couvre tout le préfixe
+            if (suggestions.size() == limit || first.length < RANKED) {
+                return suggestions;
+            }
+            return walk(typed, filters, limit);
+        });
+    }
+
+    private List<Suggestion> walk(String typed, List<String> filters, int limit) {
+        PriorityQueue<Suggestion> candidates = new PriorityQueue<>(limit + 1, BY_NAME.reversed());
+        Set<Long> seen = new HashSet<>();
+        trie.forEachWithPrefix(typed, id -> {
+            if (!seen.add(id)) {
+                return;
+            }
+            Name name = names.get(id);
+            if (!matchesAll(name.tokens(), filters)) {
+                return;
+            }
+            candidates.add(new Suggestion(id, name.fullName()));
+            if (candidates.size() > limit) {
+                candidates.poll();
+            }
+        });
+        List<Suggestion> suggestions = new ArrayList<>(candidates);
+        suggestions.sort(BY_NAME);
+        return suggestions;
+    }
+
+    @Override
+    protected void clear(int expectedSize) {
+        trie.clear();
+        names.clear();
+    }
+
+    @Override
+    protected void put(long id, String fullName) {
+        remove(id);
+        if (fullName == null) {
+            return;
+        }
+        Name name = new Name(fullName, tokens(fullName));
+        names.put(id, name);
+        for (String token : name.tokens()) {
+            trie.add(token, id);
+        }
+    }
+
+    @Override
+    protected void remove(long id) {
+        Name previous = names.get(id);
+        if (previous != null) {
+            // le nom reste connu le temps du retrait : le trie reclasse les auteurs par nom
+            for (String token : previous.tokens()) {
+                trie.remove(token, id);
+            }
+            names.remove(id);
+        }
+    }
+
+    private int compare(long id1, long id2) {
+        int byName = String.CASE_INSENSITIVE_ORDER.compare(names.get(id1).fullName(), names.get(id2).fullName());
+        return byName != 0 ? byName : Long.compare(id1, id2);
+    }
+
+    private static boolean matchesAll(List<String> nameTokens, List<String> prefixes) {
+        return prefixes.stream().allMatch(p -> nameTokens.stream().anyMatch(t -> t.startsWith(p)));
+    }
+
+    private static List<String> tokens(String text) {
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(normalized)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,32 @@
+package fr.uga.l3miage.library.data.index;
+
+import fr.uga.l3miage.library.data.domain.Author;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Listener JPA tenant {@link AuthorNameIndex} à jour à chaque écriture d'un {@link Author}.
+ * Instancié par Hibernate via le conteneur de beans Spring.
+ */
+public class AuthorNameIndexListener {
+
+    private final AuthorNameIndex authorNameIndex;
+
+    @Autowired
+    public AuthorNameIndexListener(AuthorNameIndex authorNameIndex) {
+        this.authorNameIndex = authorNameIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void saved(Author author) {
+        authorNameIndex.indexed(author.getId(), author.getFullName());
+    }
+
+    @PostRemove
+    public void removed(Author author) {
+        authorNameIndex.removed(author.getId());
+    }
+}
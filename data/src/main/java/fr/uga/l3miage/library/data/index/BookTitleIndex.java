@@ -0,0 +1,51 @@
+package fr.uga.l3miage.library.data.index;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Index de trigrammes sur les titres des livres, utilisé par
+ * {@link fr.uga.l3miage.library.data.repo.BookRepository#findByContainingTitle(String)}.
+ * <p>
+ * Il est construit au démarrage par le repository puis tenu à jour par {@link BookTitleIndexListener}. Les livres
+ * écrits par une transaction n'y entrent qu'à sa validation (voir {@link EntityIndex}).
+ */
+@Component
+public class BookTitleIndex extends EntityIndex<String> {
+
+    private final TrigramIndex index = new TrigramIndex();
+
+    /**
+     * Trouve les ids des livres dont le titre contient la chaine passée (non sensible à la casse)
+     *
+     * @param titlePart tout ou partie du titre
+     * @return les ids triés par ordre croissant, ou null si l'index ne peut pas répondre
+     * (index non construit, chaine trop courte ou contenant des caractères spéciaux de LIKE)
+     */
+    public long[] search(String titlePart) {
+        if (!isReady() || !TrigramIndex.isSearchable(titlePart) || hasLikeWildcard(titlePart)) {
+            return null;
+        }
+        // l'index de trigrammes a son propre verrou
+        return index.search(titlePart);
+    }
+
+    @Override
+    protected void clear(int expectedSize) {
+        index.clear();
+    }
+
+    @Override
+    protected void put(long id, String title) {
+        index.put(id, title);
+    }
+
+    @Override
+    protected void remove(long id) {
+        index.remove(id);
+    }
+
+    // la requête SQL interprète ces caractères, l'index non : on laisse la base répondre
+    private static boolean hasLikeWildcard(String part) {
+        return part.indexOf('%') >= 0 || part.indexOf('_') >= 0 || part.indexOf('\\') >= 0;
+    }
+}
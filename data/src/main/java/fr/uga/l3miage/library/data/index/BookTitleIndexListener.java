@@ -0,0 +1,33 @@
+package fr.uga.l3miage.library.data.index;
+
+import fr.uga.l3miage.library.data.domain.Book;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Listener JPA tenant {@link BookTitleIndex} à jour à chaque écriture d'un {@link Book}, quel que soit
+ * le chemin (repository, dirty checking, EntityManager direct).
+ * Instancié par Hibernate via le conteneur de beans Spring.
+ */
+public class BookTitleIndexListener {
+
+    private final BookTitleIndex bookTitleIndex;
+
+    @Autowired
+    public BookTitleIndexListener(BookTitleIndex bookTitleIndex) {
+        this.bookTitleIndex = bookTitleIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void saved(Book book) {
+        bookTitleIndex.indexed(book.getId(), book.getTitle());
+    }
+
+    @PostRemove
+    public void removed(Book book) {
+        bookTitleIndex.removed(book.getId());
+    }
+}
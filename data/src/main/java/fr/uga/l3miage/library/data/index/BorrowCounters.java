@@ -0,0 +1,224 @@
+package fr.uga.l3miage.library.data.index;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compteurs d'emprunts par utilisateur (total et en cours), servant
+ * {@link fr.uga.l3miage.library.data.repo.BorrowRepository#countBorrowedBooksByUser(Long)} et
+ * {@link fr.uga.l3miage.library.data.repo.BorrowRepository#countCurrentBorrowedBooksByUser(Long)} sans requête.
+ * <p>
+ * Ils sont construits au démarrage par le repository puis tenus à jour par {@link BorrowCountersListener}.
+ * Chaque utilisateur a son entrée dans une {@link ConcurrentHashMap}, les mises à jour de deux utilisateurs
+ * différents ne se bloquent donc pas. Comme pour {@link EntityIndex}, les deltas d'une transaction ne sont
+ * appliqués qu'à sa validation : les autres transactions ne comptent jamais un emprunt non validé, et la
+ * transaction qui a écrit lit les compteurs validés augmentés de ses propres deltas. Une réconciliation périodique
+ * ({@link #reconcile(Map, Map)}) corrige les écarts laissés par les écritures qui échappent aux listeners
+ * (requêtes de mise à jour en masse, SQL direct...).
+ */
+@Component
+public class BorrowCounters {
+
+    private static final Counts NONE = new Counts(0, 0);
+
+    private final Map<Long, Counts> counts = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+    private Map<Long, Counts> suspects = Map.of();
+
+    /**
+     * Les compteurs d'un utilisateur
+     *
+     * @param total nombre total d'emprunts
+     * @param open  nombre d'emprunts en cours (non terminés)
+     */
+    public record Counts(int total, int open) {
+
+        Counts plus(int totalDelta, int openDelta) {
+            return new Counts(total + totalDelta, open + openDelta);
+        }
+    }
+
+    /**
+     * @return true une fois les compteurs construits
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Reconstruit entièrement les compteurs
+     *
+     * @param byUser les compteurs par id d'utilisateur, les utilisateurs absents n'ont aucun emprunt
+     */
+    public void rebuild(Map<Long, Counts> byUser) {
+        counts.clear();
+        suspects = Map.of();
+        counts.putAll(byUser);
+        ready = true;
+    }
+
+    /**
+     * @param userId l'id de l'utilisateur
+     * @return ses compteurs vus par la transaction courante, ou null si les compteurs ne sont pas construits
+     */
+    public Counts get(Long userId) {
+        if (!ready) {
+            return null;
+        }
+        Counts committed = counts.getOrDefault(userId, NONE);
+        Counts delta = pending().get(userId);
+        return delta == null ? committed : committed.plus(delta.total(), delta.open());
+    }
+
+    /**
+     * Compte un emprunt enregistré
+     *
+     * @param userId l'emprunteur
+     * @param open   true si l'emprunt est en cours
+     */
+    public void added(Long userId, boolean open) {
+        apply(userId, 1, open ? 1 : 0);
+    }
+
+    /**
+     * Décompte un emprunt supprimé
+     *
+     * @param userId l'emprunteur
+     * @param open   true si l'emprunt était en cours
+     */
+    public void removed(Long userId, boolean open) {
+        apply(userId, -1, open ? -1 : 0);
+    }
+
+    /**
+     * Reporte la modification d'un emprunt (terminé, rouvert ou changé d'emprunteur)
+     */
+    public void changed(Long previousUserId, boolean previouslyOpen, Long userId, boolean open) {
+        if (previousUserId != null && previousUserId.equals(userId)) {
+            if (previouslyOpen != open) {
+                apply(userId, 0, open ? 1 : -1);
+            }
+            return;
+        }
+        removed(previousUserId, previouslyOpen);
+        added(userId, open);
+    }
+
+    /**
+     * Relève les compteurs vus par la transaction courante, à comparer à un recomptage en base. Le relevé doit
+     * précéder la lecture en base : l'écart entre les deux est ensuite appliqué comme un delta, sans perdre les
+     * écritures validées entretemps.
+     *
+     * @return les compteurs par id d'utilisateur
+     */
+    public Map<Long, Counts> snapshot() {
+        Map<Long, Counts> snapshot = new HashMap<>(counts);
+        pending().forEach((userId, delta) -> snapshot.merge(userId, delta, (c, d) -> c.plus(d.total(), d.open())));
+        return snapshot;
+    }
+
+    /**
+     * Compare les compteurs à ceux recalculés en base et corrige les écarts.
+     * <p>
+     * Un emprunt validé juste avant la lecture en base peut y être visible sans être encore compté : pour ne pas
+     * "corriger" à tort ces compteurs, un écart n'est corrigé que s'il est constaté à
+     * l'identique par deux réconciliations successives.
+     *
+     * @param before les compteurs relevés par {@link #snapshot()} avant la lecture en base
+     * @param byUser les compteurs recalculés en base pour tous les utilisateurs
+     * @return les ids des utilisateurs dont les compteurs ont été corrigés
+     */
+    public synchronized Set<Long> reconcile(Map<Long, Counts> before, Map<Long, Counts> byUser) {
+        Set<Long> userIds = new HashSet<>(byUser.keySet());
+        userIds.addAll(before.keySet());
+        Map<Long, Counts> mismatches = new HashMap<>();
+        for (Long userId : userIds) {
+            Counts difference = difference(byUser.get(userId), before.get(userId));
+            if (!NONE.equals(difference)) {
+                mismatches.put(userId, difference);
+            }
+        }
+        Set<Long> fixed = new HashSet<>();
+        mismatches.forEach((userId, difference) -> {
+            if (difference.equals(suspects.get(userId))) {
+                shift(userId, difference);
+                fixed.add(userId);
+            }
+        });
+        mismatches.keySet().removeAll(fixed);
+        suspects = mismatches;
+        return fixed;
+    }
+
+    /**
+     * Ajoute un delta aux compteurs d'un utilisateur, sans le lier à la transaction courante
+     */
+    private void shift(Long userId, Counts delta) {
+        if (!NONE.equals(delta)) {
+            counts.merge(userId, delta, (c, d) -> c.plus(d.total(), d.open()));
+        }
+    }
+
+    private static Counts difference(Counts fresh, Counts previous) {
+        Counts from = previous == null ? NONE : previous;
+        Counts to = fresh == null ? NONE : fresh;
+        return new Counts(to.total() - from.total(), to.open() - from.open());
+    }
+
+    private void apply(Long userId, int totalDelta, int openDelta) {
+        if (userId == null) {
+            return;
+        }
+        Counts delta = NONE.plus(totalDelta, openDelta);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            shift(userId, delta);
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Map<Long, Counts> pending = (Map<Long, Counts>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Map<Long, Counts> bound = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(this, bound);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bound.forEach(BorrowCounters.this::shift);
+                }
+
+                @Override
+                public void suspend() {
+                    // une transaction imbriquée (REQUIRES_NEW) a ses propres écritures
+                    TransactionSynchronizationManager.unbindResource(BorrowCounters.this);
+                }
+
+                @Override
+                public void resume() {
+                    TransactionSynchronizationManager.bindResource(BorrowCounters.this, bound);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(BorrowCounters.this);
+                }
+            });
+            pending = bound;
+        }
+        pending.merge(userId, delta, (c, d) -> c.plus(d.total(), d.open()));
+    }
+
+    /**
+     * @return les deltas de la transaction courante pas encore appliqués, par id d'utilisateur
+     */
+    @SuppressWarnings("unchecked")
+    private Map<Long, Counts> pending() {
+        Map<Long, Counts> pending = (Map<Long, Counts>) TransactionSynchronizationManager.getResource(this);
+        return pending == null ? Map.of() : pending;
+    }
+}
@@ -0,0 +1,48 @@
+package fr.uga.l3miage.library.data.index;
+
+import fr.uga.l3miage.library.data.domain.Borrow;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Listener JPA tenant {@link BorrowCounters} à jour à chaque écriture d'un {@link Borrow}.
+ * L'état déjà compté est retenu dans l'emprunt ({@link Borrow#markCounted()}) pour connaitre, lors d'une
+ * modification ou d'une suppression, ce qu'il faut décompter.
+ * Instancié par Hibernate via le conteneur de beans Spring.
+ */
+public class BorrowCountersListener {
+
+    private final BorrowCounters borrowCounters;
+
+    @Autowired
+    public BorrowCountersListener(BorrowCounters borrowCounters) {
+        this.borrowCounters = borrowCounters;
+    }
+
+    @PostLoad
+    public void loaded(Borrow borrow) {
+        borrow.markCounted();
+    }
+
+    @PostPersist
+    public void persisted(Borrow borrow) {
+        borrow.markCounted();
+        borrowCounters.added(borrow.getCountedBorrowerId(), borrow.isCountedOpen());
+    }
+
+    @PostUpdate
+    public void updated(Borrow borrow) {
+        Long previousBorrowerId = borrow.getCountedBorrowerId();
+        boolean previouslyOpen = borrow.isCountedOpen();
+        borrow.markCounted();
+        borrowCounters.changed(previousBorrowerId, previouslyOpen, borrow.getCountedBorrowerId(), borrow.isCountedOpen());
+    }
+
+    @PostRemove
+    public void removed(Borrow borrow) {
+        borrowCounters.removed(borrow.getCountedBorrowerId(), borrow.isCountedOpen());
+    }
+}
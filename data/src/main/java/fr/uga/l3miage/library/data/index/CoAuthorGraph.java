@@ -0,0 +1,231 @@
+package fr.uga.l3miage.library.data.index;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Graphe des co-auteurs en mémoire : deux auteurs sont voisins s'ils ont écrit au moins un livre ensemble,
+ * l'arête portant le nombre de livres partagés.
+ * <p>
+ * Les voisins sont rangés au format CSR (compressed sparse row) dans des tableaux de primitifs : les ids des
+ * auteurs triés, puis pour chacun une tranche du tableau des voisins. Savoir si un auteur a des co-auteurs,
+ * les lister ou compter son degré de collaboration coûte une recherche dichotomique plus la lecture de la tranche.
+ * Le CSR étant figé, une écriture n'y touche pas : elle ajoute ou retire un livre partagé à chaque paire
+ * d'auteurs du livre dans une table de deltas, en O(k²) pour k auteurs quel que soit le nombre de livres de
+ * chacun. Les lectures appliquent les deltas de l'auteur à sa tranche, et la table est fusionnée dans un nouveau
+ * CSR quand elle grossit. La reconstruction accumule ainsi tous les livres puis construit le CSR une seule fois.
+ * <p>
+ * Il est construit au démarrage par {@link fr.uga.l3miage.library.data.repo.AuthorRepository} puis tenu à jour
+ * par {@link CoAuthorGraphListener}, une entrée par livre donnant ses auteurs. Les livres écrits par une
+ * transaction n'y entrent qu'à sa validation (voir {@link EntityIndex}).
+ */
+@Component
+public class CoAuthorGraph extends EntityIndex<long[]> {
+
+    private static final long[] NO_IDS = new long[0];
+    private static final Row EMPTY = new Row(NO_IDS, new int[0]);
+    private static final int MIN_COMPACTION = 256;
+
+    private final Map<Long, long[]> authorsByBook = new HashMap<>();
+    /**
+     * Livres partagés ajoutés (ou retirés, en négatif) depuis la construction du CSR, par auteur puis co-auteur
+     */
+    private final Map<Long, Map<Long, Integer>> deltas = new HashMap<>();
+    private int deltaCount;
+    private Csr csr = Csr.build(Map.of());
+
+    /**
+     * Les co-auteurs d'un auteur
+     *
+     * @param ids         les ids des co-auteurs, triés
+     * @param sharedBooks le nombre de livres écrits avec chacun
+     */
+    public record Row(long[] ids, int[] sharedBooks) {
+    }
+
+    /**
+     * Reconstruit entièrement le graphe
+     *
+     * @param authorsOfBooks les ids des auteurs, par id de livre
+     */
+    @Override
+    public void rebuild(Map<Long, long[]> authorsOfBooks) {
+        super.rebuild(authorsOfBooks);
+        write(this::compact);
+    }
+
+    /**
+     * @return les co-auteurs de l'auteur (aucun si l'auteur est inconnu)
+     */
+    public Row coAuthors(long authorId) {
+        return read(() -> row(authorId));
+    }
+
+    /**
+     * @return le degré de collaboration de l'auteur : son nombre de co-auteurs distincts
+     */
+    public int degree(long authorId) {
+        return coAuthors(authorId).ids().length;
+    }
+
+    /**
+     * @return true si l'auteur a écrit au moins un livre avec un autre auteur
+     */
+    public boolean hasCoAuthors(long authorId) {
+        return degree(authorId) > 0;
+    }
+
+    private Row row(long authorId) {
+        Row row = csr.row(authorId);
+        Map<Long, Integer> delta = deltas.get(authorId);
+        return delta == null ? row : merge(row, delta);
+    }
+
+    @Override
+    protected void clear(int expectedSize) {
+        authorsByBook.clear();
+        deltas.clear();
+        deltaCount = 0;
+        csr = Csr.build(Map.of());
+    }
+
+    @Override
+    protected void put(long bookId, long[] authorIds) {
+        long[] authors = sortedDistinct(authorIds);
+        long[] previous = authorsByBook.getOrDefault(bookId, NO_IDS);
+        if (Arrays.equals(previous, authors)) {
+            return;
+        }
+        if (authors.length == 0) {
+            authorsByBook.remove(bookId);
+        } else {
+            authorsByBook.put(bookId, authors);
+        }
+        // chaque paire d'auteurs de l'ancienne liste perd un livre partagé, chaque paire de la nouvelle en gagne un
+        addPairs(previous, -1);
+        addPairs(authors, 1);
+    }
+
+    private void addPairs(long[] authors, int sharedBooks) {
+        for (long author : authors) {
+            for (long coAuthor : authors) {
+                if (author != coAuthor) {
+                    Map<Long, Integer> delta = deltas.computeIfAbsent(author, id -> new HashMap<>());
+                    int before = delta.size();
+                    delta.merge(coAuthor, sharedBooks, (count, added) -> count + added == 0 ? null : count + added);
+                    deltaCount += delta.size() - before;
+                    if (delta.isEmpty()) {
+                        deltas.remove(author);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void remove(long bookId) {
+        put(bookId, NO_IDS);
+    }
+
+    @Override
+    protected void changed() {
+        if (deltaCount > Math.max(MIN_COMPACTION, csr.neighbours.length / 8)) {
+            compact();
+        }
+    }
+
+    private void compact() {
+        Map<Long, Row> rows = new HashMap<>();
+        for (long author : csr.authorIds) {
+            rows.put(author, row(author));
+        }
+        for (Long author : deltas.keySet()) {
+            rows.computeIfAbsent(author, this::row);
+        }
+        rows.values().removeIf(row -> row.ids().length == 0);
+        csr = Csr.build(rows);
+        deltas.clear();
+        deltaCount = 0;
+    }
+
+    /**
+     * Applique des deltas à une ligne du CSR, en retirant les co-auteurs qui n'ont plus de livre partagé
+     */
+    private static Row merge(Row row, Map<Long, Integer> delta) {
+        long[] changed = delta.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        long[] ids = new long[row.ids().length + changed.length];
+        int[] counts = new int[ids.length];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < row.ids().length || j < changed.length) {
+            long id;
+            int count;
+            if (j == changed.length || (i < row.ids().length && row.ids()[i] < changed[j])) {
+                id = row.ids()[i];
+                count = row.sharedBooks()[i++];
+            } else if (i < row.ids().length && row.ids()[i] == changed[j]) {
+                id = row.ids()[i];
+                count = row.sharedBooks()[i++] + delta.get(changed[j++]);
+            } else {
+                id = changed[j++];
+                count = delta.get(id);
+            }
+            if (count > 0) {
+                ids[size] = id;
+                counts[size++] = count;
+            }
+        }
+        return size == 0 ? EMPTY : new Row(Arrays.copyOf(ids, size), Arrays.copyOf(counts, size));
+    }
+
+    private static long[] sortedDistinct(long[] ids) {
+        return ids == null ? NO_IDS : Arrays.stream(ids).sorted().distinct().toArray();
+    }
+
+    /**
+     * Voisinage figé au format CSR : les voisins de {@code authorIds[i]} sont
+     * {@code neighbours[offsets[i]..offsets[i + 1]]}
+     */
+    private static final class Csr {
+        private final long[] authorIds;
+        private final int[] offsets;
+        private final long[] neighbours;
+        private final int[] sharedBooks;
+
+        private Csr(long[] authorIds, int[] offsets, long[] neighbours, int[] sharedBooks) {
+            this.authorIds = authorIds;
+            this.offsets = offsets;
+            this.neighbours = neighbours;
+            this.sharedBooks = sharedBooks;
+        }
+
+        static Csr build(Map<Long, Row> rows) {
+            long[] authorIds = rows.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+            int[] offsets = new int[authorIds.length + 1];
+            for (int i = 0; i < authorIds.length; i++) {
+                offsets[i + 1] = offsets[i] + rows.get(authorIds[i]).ids().length;
+            }
+            long[] neighbours = new long[offsets[authorIds.length]];
+            int[] sharedBooks = new int[neighbours.length];
+            for (int i = 0; i < authorIds.length; i++) {
+                Row row = rows.get(authorIds[i]);
+                System.arraycopy(row.ids(), 0, neighbours, offsets[i], row.ids().length);
+                System.arraycopy(row.sharedBooks(), 0, sharedBooks, offsets[i], row.sharedBooks().length);
+            }
+            return new Csr(authorIds, offsets, neighbours, sharedBooks);
+        }
+
+        Row row(long authorId) {
+            int i = Arrays.binarySearch(authorIds, authorId);
+            if (i < 0) {
+                return EMPTY;
+            }
+            return new Row(Arrays.copyOfRange(neighbours, offsets[i], offsets[i + 1]),
+                    Arrays.copyOfRange(sharedBooks, offsets[i], offsets[i + 1]));
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package fr.uga.l3miage.library.data.index;
+
+import fr.uga.l3miage.library.data.domain.Author;
+import fr.uga.l3miage.library.data.domain.Book;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Objects;
+
+/**
+ * Listener JPA tenant {@link CoAuthorGraph} à jour à chaque écriture d'un {@link Book}.
+ * Les auteurs d'un livre ne peuvent changer que si sa collection a été chargée : sinon le graphe est laissé tel quel.
+ * Instancié par Hibernate via le conteneur de beans Spring.
+ */
+public class CoAuthorGraphListener {
+
+    private final CoAuthorGraph coAuthorGraph;
+
+    @Autowired
+    public CoAuthorGraphListener(CoAuthorGraph coAuthorGraph) {
+        this.coAuthorGraph = coAuthorGraph;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void saved(Book book) {
+        if (book.getAuthors() == null || !Hibernate.isInitialized(book.getAuthors())) {
+            return;
+        }
+        coAuthorGraph.indexed(book.getId(), book.getAuthors().stream()
+                .map(Author::getId)
+                .filter(Objects::nonNull)
+                .mapToLong(Long::longValue)
+                .toArray());
+    }
+
+    @PostRemove
+    public void removed(Book book) {
+        coAuthorGraph.removed(book.getId());
+    }
+}
@@ -0,0 +1,199 @@
+package fr.uga.l3miage.library.data.index;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Base des index en mémoire qui associent une valeur à chaque id d'entité, construits au démarrage par un
+ * repository puis tenus à jour par un listener JPA.
+ * <p>
+ * Elle porte la cohérence avec la base, commune à tous ces index : les listeners sont appelés au flush, avant la
+ * validation, et les écritures d'une transaction sont donc mises de côté puis appliquées sous le verrou en écriture
+ * une fois la transaction validée (perdues si elle est annulée). Les autres transactions ne voient ainsi jamais un
+ * état non validé. La transaction qui a écrit ne voit pas non plus ses écritures dans l'index : tant qu'elle en a
+ * en attente ({@link #hasPendingChanges()}), le repository lit la base, à moins que la sous-classe ne superpose
+ * ces écritures à l'index ({@link #pendingValues()}). Les sous-classes ne décrivent que leur
+ * structure : {@link #put(long, Object)}, {@link #remove(long)} et {@link #clear(int)}, toujours appelées sous le
+ * verrou en écriture.
+ *
+ * @param <V> la valeur indexée pour chaque id
+ */
+public abstract class EntityIndex<V> {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    /**
+     * Écritures d'une transaction en attente de validation
+     *
+     * @param values  la dernière valeur écrite par id, null pour une entité retirée
+     * @param changes les modifications de la structure, dans l'ordre
+     */
+    private record Pending<V>(Map<Long, V> values, List<Runnable> changes) {
+    }
+
+    /**
+     * @return true une fois l'index construit
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Reconstruit entièrement l'index
+     *
+     * @param values les valeurs indexées, par id
+     */
+    public void rebuild(Map<Long, V> values) {
+        write(() -> {
+            clear(values.size());
+            values.forEach(this::put);
+            ready = true;
+        });
+    }
+
+    /**
+     * Indexe la valeur d'une entité enregistrée ou modifiée, à la validation de la transaction courante
+     *
+     * @param id    l'id de l'entité, ignoré s'il n'est pas encore attribué
+     * @param value la valeur, null pour retirer l'entité
+     */
+    public void indexed(Long id, V value) {
+        update(id, value, () -> put(id, value));
+    }
+
+    /**
+     * Retire une entité supprimée, à la validation de la transaction courante
+     */
+    public void removed(Long id) {
+        update(id, null, () -> remove(id));
+    }
+
+    /**
+     * @return true si la transaction courante a écrit dans l'index des valeurs pas encore appliquées : l'index ne
+     * reflète pas ce qu'elle lit en base
+     */
+    public boolean hasPendingChanges() {
+        return pending() != null;
+    }
+
+    /**
+     * Applique une écriture à l'index à la validation de la transaction courante (immédiatement hors transaction)
+     *
+     * @param id     l'id de l'entité écrite, ignorée s'il n'est pas encore attribué
+     * @param value  la valeur écrite, null si l'entité sort de l'index
+     * @param change la modification de la structure
+     */
+    protected void update(Long id, V value, Runnable change) {
+        if (id == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            write(change);
+            return;
+        }
+        Pending<V> pending = pending();
+        if (pending == null) {
+            Pending<V> bound = new Pending<>(new HashMap<>(), new ArrayList<>());
+            TransactionSynchronizationManager.bindResource(this, bound);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    write(() -> bound.changes().forEach(Runnable::run));
+                }
+
+                @Override
+                public void suspend() {
+                    // une transaction imbriquée (REQUIRES_NEW) a ses propres écritures
+                    TransactionSynchronizationManager.unbindResource(EntityIndex.this);
+                }
+
+                @Override
+                public void resume() {
+                    TransactionSynchronizationManager.bindResource(EntityIndex.this, bound);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(EntityIndex.this);
+                }
+            });
+            pending = bound;
+        }
+        pending.values().put(id, value);
+        pending.changes().add(change);
+    }
+
+    /**
+     * @return les valeurs écrites par la transaction courante et pas encore appliquées, par id (null pour une
+     * entité retirée)
+     */
+    protected Map<Long, V> pendingValues() {
+        Pending<V> pending = pending();
+        return pending == null ? Map.of() : Collections.unmodifiableMap(pending.values());
+    }
+
+    /**
+     * Modifie la structure sous le verrou en écriture, sans la lier à la transaction courante
+     */
+    protected void write(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+            changed();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Lit la structure sous le verrou en lecture
+     */
+    protected <T> T read(Supplier<T> query) {
+        lock.readLock().lock();
+        try {
+            return query.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Vide la structure avant une reconstruction
+     *
+     * @param expectedSize le nombre d'entités qui vont être indexées
+     */
+    protected abstract void clear(int expectedSize);
+
+    /**
+     * Indexe (ou ré-indexe) la valeur d'un id
+     *
+     * @param value la valeur, null pour retirer l'id
+     */
+    protected abstract void put(long id, V value);
+
+    /**
+     * Retire un id de la structure
+     */
+    protected abstract void remove(long id);
+
+    /**
+     * Appelée sous le verrou en écriture après chaque modification de la structure
+     */
+    protected void changed() {
+    }
+
+    @SuppressWarnings("unchecked")
+    private Pending<V> pending() {
+        return (Pending<V>) TransactionSynchronizationManager.getResource(this);
+    }
+}
@@ -0,0 +1,59 @@
+package fr.uga.l3miage.library.data.index;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Index en mémoire des ISBN, servant {@link fr.uga.l3miage.library.data.repo.BookRepository#findByIsbn(long)}
+ * sans requête : l'ISBN donne l'id du livre par une table de hachage de primitifs ({@link LongLongHashMap}),
+ * le livre est ensuite lu par id, depuis le cache de second niveau le plus souvent.
+ * <p>
+ * Il est construit au démarrage par le repository puis tenu à jour par {@link IsbnIndexListener}. Une seconde
+ * table donne l'ISBN indexé de chaque livre, pour retirer l'ancienne entrée quand l'ISBN change. Les livres
+ * écrits par une transaction n'y entrent qu'à sa validation (voir {@link EntityIndex}).
+ */
+@Component
+public class IsbnIndex extends EntityIndex<Long> {
+
+    /**
+     * Valeur renvoyée par {@link #idOf(long)} pour un ISBN inconnu
+     */
+    public static final long MISSING = Long.MIN_VALUE;
+
+    private LongLongHashMap idsByIsbn = new LongLongHashMap(0);
+    private LongLongHashMap isbnsById = new LongLongHashMap(0);
+
+    /**
+     * @param isbn l'ISBN recherché
+     * @return l'id du livre, ou {@link #MISSING} si aucun livre indexé n'a cet ISBN
+     */
+    public long idOf(long isbn) {
+        return read(() -> idsByIsbn.get(isbn, MISSING));
+    }
+
+    @Override
+    protected void clear(int expectedSize) {
+        idsByIsbn = new LongLongHashMap(expectedSize);
+        isbnsById = new LongLongHashMap(expectedSize);
+    }
+
+    @Override
+    protected void put(long id, Long isbn) {
+        if (isbn == null) {
+            remove(id);
+            return;
+        }
+        long previous = isbnsById.put(id, isbn, MISSING);
+        if (previous != MISSING && previous != isbn && idsByIsbn.get(previous, MISSING) == id) {
+            idsByIsbn.remove(previous, MISSING);
+        }
+        idsByIsbn.put(isbn, id, MISSING);
+    }
+
+    @Override
+    protected void remove(long id) {
+        long isbn = isbnsById.remove(id, MISSING);
+        if (isbn != MISSING && idsByIsbn.get(isbn, MISSING) == id) {
+            idsByIsbn.remove(isbn, MISSING);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package fr.uga.l3miage.library.data.index;
+
+import fr.uga.l3miage.library.data.domain.Book;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Listener JPA tenant {@link IsbnIndex} à jour à chaque écriture d'un {@link Book}.
+ * Instancié par Hibernate via le conteneur de beans Spring.
+ */
+public class IsbnIndexListener {
+
+    private final IsbnIndex isbnIndex;
+
+    @Autowired
+    public IsbnIndexListener(IsbnIndex isbnIndex) {
+        this.isbnIndex = isbnIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void saved(Book book) {
+        isbnIndex.indexed(book.getId(), book.getIsbn());
+    }
+
+    @PostRemove
+    public void removed(Book book) {
+        isbnIndex.removed(book.getId());
+    }
+}
@@ -0,0 +1,149 @@
+package fr.uga.l3miage.library.data.index;
+
+/**
+ * Table de hachage {@code long → long} à adressage ouvert (sondage linéaire), sans objet par entrée ni boxing :
+ * clés et valeurs sont rangées dans deux tableaux de primitifs. La clé 0 sert à marquer les cases libres,
+ * elle est donc gardée à part. Les suppressions décalent les entrées suivantes au lieu de laisser des marques,
+ * les recherches restent courtes quel que soit le nombre de suppressions.
+ * <p>
+ * Non synchronisée : {@link IsbnIndex} la protège par un verrou.
+ */
+final class LongLongHashMap {
+
+    private static final long FREE = 0L;
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int size;
+    private boolean hasFreeKey;
+    private long freeKeyValue;
+
+    LongLongHashMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    int size() {
+        return size + (hasFreeKey ? 1 : 0);
+    }
+
+    /**
+     * @return la valeur associée à la clé, ou {@code missing} si la clé est absente
+     */
+    long get(long key, long missing) {
+        if (key == FREE) {
+            return hasFreeKey ? freeKeyValue : missing;
+        }
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            long k = keys[i];
+            if (k == key) {
+                return values[i];
+            }
+            if (k == FREE) {
+                return missing;
+            }
+        }
+    }
+
+    /**
+     * Associe la valeur à la clé
+     *
+     * @return l'ancienne valeur, ou {@code missing} si la clé était absente
+     */
+    long put(long key, long value, long missing) {
+        if (key == FREE) {
+            long previous = hasFreeKey ? freeKeyValue : missing;
+            hasFreeKey = true;
+            freeKeyValue = value;
+            return previous;
+        }
+        int i = slot(key);
+        for (; keys[i] != FREE; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                long previous = values[i];
+                values[i] = value;
+                return previous;
+            }
+        }
+        keys[i] = key;
+        values[i] = value;
+        // taux de remplissage maximum de 3/4
+        if (++size > (mask + 1) / 4 * 3) {
+            rehash((mask + 1) * 2);
+        }
+        return missing;
+    }
+
+    /**
+     * Retire la clé
+     *
+     * @return la valeur retirée, ou {@code missing} si la clé était absente
+     */
+    long remove(long key, long missing) {
+        if (key == FREE) {
+            long previous = hasFreeKey ? freeKeyValue : missing;
+            hasFreeKey = false;
+            return previous;
+        }
+        int i = slot(key);
+        while (keys[i] != key) {
+            if (keys[i] == FREE) {
+                return missing;
+            }
+            i = (i + 1) & mask;
+        }
+        long previous = values[i];
+        size--;
+        // remonte dans le trou les entrées suivantes du même groupe qui peuvent l'occuper
+        int hole = i;
+        for (int j = (i + 1) & mask; keys[j] != FREE; j = (j + 1) & mask) {
+            int ideal = slot(keys[j]);
+            boolean movable = hole <= j ? (ideal <= hole || ideal > j) : (ideal <= hole && ideal > j);
+            if (movable) {
+                keys[hole] = keys[j];
+                values[hole] = values[j];
+                hole = j;
+            }
+        }
+        keys[hole] = FREE;
+        values[hole] = 0L;
+        return previous;
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != FREE) {
+                int j = slot(key);
+                while (keys[j] != FREE) {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = key;
+                values[j] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity / 4 * 3 < expectedSize) {
+            capacity *= 2;
+        }
+        return capacity;
+    }
+}
@@ -0,0 +1,64 @@
+package fr.uga.l3miage.library.data.index;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compteurs de modifications par table : le compteur d'une entité augmente à chaque écriture de l'une de ses
+ * lignes. Tant qu'il n'a pas bougé, une liste déjà servie de ces entités est inchangée.
+ * <p>
+ * Le compteur n'augmente qu'à la fin de la transaction : avant, les autres transactions lisent encore
+ * l'ancien état. Une transaction annulée l'augmente aussi, ce qui est sans risque. Les compteurs partent de
+ * l'heure de démarrage pour ne pas reprendre les valeurs d'une exécution précédente.
+ * Tenus à jour par {@link ModificationCountersListener} et par les écritures en masse des repositories.
+ */
+@Component
+public class ModificationCounters {
+
+    private final long start = System.currentTimeMillis();
+    private final Map<Class<?>, AtomicLong> counters = new ConcurrentHashMap<>();
+
+    /**
+     * @return le compteur de modifications de l'entité
+     */
+    public long current(Class<?> entity) {
+        return counter(entity).get();
+    }
+
+    /**
+     * Signale une écriture de l'entité, prise en compte à la fin de la transaction courante
+     * (immédiatement hors transaction)
+     */
+    public void modified(Class<?> entity) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            counter(entity).incrementAndGet();
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<Class<?>> entities = (Set<Class<?>>) TransactionSynchronizationManager.getResource(this);
+        if (entities == null) {
+            Set<Class<?>> bound = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, bound);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ModificationCounters.this);
+                    bound.forEach(modified -> counter(modified).incrementAndGet());
+                }
+            });
+            entities = bound;
+        }
+        entities.add(entity);
+    }
+
+    private AtomicLong counter(Class<?> entity) {
+        return counters.computeIfAbsent(entity, e -> new AtomicLong(start));
+    }
+}
@@ -0,0 +1,27 @@
+package fr.uga.l3miage.library.data.index;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Listener JPA augmentant le compteur de {@link ModificationCounters} de l'entité écrite.
+ * Instancié par Hibernate via le conteneur de beans Spring.
+ */
+public class ModificationCountersListener {
+
+    private final ModificationCounters modificationCounters;
+
+    @Autowired
+    public ModificationCountersListener(ModificationCounters modificationCounters) {
+        this.modificationCounters = modificationCounters;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void modified(Object entity) {
+        modificationCounters.modified(entity.getClass());
+    }
+}
@@ -0,0 +1,149 @@
+package fr.uga.l3miage.library.data.index;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Échéancier des emprunts en cours, trié par date de retour prévue, servant
+ * {@link fr.uga.l3miage.library.data.repo.BorrowRepository#foundAllLateBorrow()} sans parcourir la table :
+ * les emprunts en retard sont la tête de l'échéancier, leur lecture coûte O(log n + k) pour k retards.
+ * Seuls les emprunts en cours y sont : sa taille suit le nombre d'emprunts en cours et non l'historique. Les
+ * emprunts terminés en retard, que la requête remplacée comptait aussi, sont lus en base par le repository.
+ * <p>
+ * Il est construit au démarrage par le repository puis tenu à jour par {@link OverdueTrackerListener} : un emprunt
+ * terminé ou supprimé en sort, un emprunt rouvert y revient. {@link #pollNewlyOverdue(Instant)} donne les emprunts en cours passés en retard depuis
+ * l'appel précédent. Les emprunts écrits par une transaction n'y entrent qu'à sa
+ * validation (voir {@link EntityIndex}).
+ */
+@Component
+public class OverdueTracker extends EntityIndex<Instant> {
+
+    private static final Comparator<Entry> BY_DATE = Comparator.comparingLong(Entry::dueAt).thenComparingLong(Entry::borrowId);
+
+    private final NavigableSet<Entry> schedule = new TreeSet<>(BY_DATE);
+    private final Map<Long, Entry> byBorrow = new HashMap<>();
+    /**
+     * Emprunts en cours passés en retard par une écriture (échéance antérieure au dernier relevé), pas encore signalés
+     */
+    private final Set<Long> lateOnArrival = new LinkedHashSet<>();
+    private long lastCutoff = Long.MIN_VALUE;
+
+    private record Entry(long dueAt, long borrowId) {
+    }
+
+    /**
+     * Reconstruit entièrement l'échéancier. Les emprunts déjà en retard ne seront pas signalés par
+     * {@link #pollNewlyOverdue(Instant)}.
+     *
+     * @param dueDates l'échéance des emprunts en cours, par id d'emprunt
+     * @param cutoff   les emprunts dont l'échéance est antérieure sont déjà en retard
+     */
+    public void rebuild(Map<Long, Instant> dueDates, Instant cutoff) {
+        write(() -> {
+            rebuild(dueDates);
+            lastCutoff = cutoff.toEpochMilli();
+        });
+    }
+
+    /**
+     * Met à jour l'échéance d'un emprunt enregistré ou modifié, à la validation de la transaction courante
+     *
+     * @param borrowId l'id de l'emprunt
+     * @param dueAt    sa date de retour prévue, null si inconnue
+     * @param open     false si l'emprunt est terminé : il sort de l'échéancier
+     */
+    public void tracked(Long borrowId, Instant dueAt, boolean open) {
+        update(borrowId, open ? dueAt : null, () -> doPut(borrowId, open ? dueAt : null, true));
+    }
+
+    /**
+     * @param cutoff la date limite
+     * @return les ids des emprunts en cours dont la date de retour prévue est antérieure à {@code cutoff},
+     * du plus ancien au plus récent
+     */
+    public List<Long> overdue(Instant cutoff) {
+        return read(() -> {
+            Set<Entry> late = schedule.headSet(new Entry(cutoff.toEpochMilli(), Long.MIN_VALUE), false);
+            List<Long> ids = new ArrayList<>(late.size());
+            for (Entry entry : late) {
+                ids.add(entry.borrowId());
+            }
+            return ids;
+        });
+    }
+
+    /**
+     * Relève les emprunts en cours passés en retard depuis le relevé précédent : ceux dont l'échéance est tombée
+     * entre les deux relevés, et ceux enregistrés (ou rouverts) entretemps avec une échéance déjà dépassée.
+     *
+     * @param cutoff les emprunts dont l'échéance est antérieure sont en retard
+     * @return les ids des emprunts nouvellement en retard
+     */
+    public List<Long> pollNewlyOverdue(Instant cutoff) {
+        List<Long> ids = new ArrayList<>();
+        write(() -> {
+            long until = cutoff.toEpochMilli();
+            ids.addAll(lateOnArrival);
+            lateOnArrival.clear();
+            if (until > lastCutoff) {
+                for (Entry entry : schedule.subSet(new Entry(lastCutoff, Long.MIN_VALUE), true,
+                        new Entry(until, Long.MIN_VALUE), false)) {
+                    ids.add(entry.borrowId());
+                }
+                lastCutoff = until;
+            }
+        });
+        return ids;
+    }
+
+    @Override
+    protected void clear(int expectedSize) {
+        schedule.clear();
+        byBorrow.clear();
+        lateOnArrival.clear();
+    }
+
+    @Override
+    protected void put(long id, Instant dueAt) {
+        doPut(id, dueAt, false);
+    }
+
+    @Override
+    protected void remove(long id) {
+        Entry previous = byBorrow.remove(id);
+        if (previous != null) {
+            schedule.remove(previous);
+        }
+        lateOnArrival.remove(id);
+    }
+
+    /**
+     * @param dueAt l'échéance de l'emprunt, null s'il est terminé ou sans échéance
+     */
+    private void doPut(long id, Instant dueAt, boolean notify) {
+        Entry previous = byBorrow.get(id);
+        boolean pending = lateOnArrival.contains(id);
+        remove(id);
+        if (dueAt == null) {
+            return;
+        }
+        Entry entry = new Entry(dueAt.toEpochMilli(), id);
+        schedule.add(entry);
+        byBorrow.put(id, entry);
+        // un emprunt (ré)ouvert ou dont l'échéance passe avant le dernier relevé ne sera pas vu par le suivant
+        boolean newlyLate = notify && (previous == null || previous.dueAt() >= lastCutoff);
+        if (entry.dueAt() < lastCutoff && (pending || newlyLate)) {
+            lateOnArrival.add(id);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package fr.uga.l3miage.library.data.index;
+
+import fr.uga.l3miage.library.data.domain.Borrow;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Instant;
+
+/**
+ * Listener JPA tenant {@link OverdueTracker} à jour à chaque écriture d'un {@link Borrow}.
+ * Instancié par Hibernate via le conteneur de beans Spring.
+ */
+public class OverdueTrackerListener {
+
+    private final OverdueTracker overdueTracker;
+
+    @Autowired
+    public OverdueTrackerListener(OverdueTracker overdueTracker) {
+        this.overdueTracker = overdueTracker;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void saved(Borrow borrow) {
+        overdueTracker.tracked(borrow.getId(),
+                borrow.getRequestedReturn() == null ? null : Instant.ofEpochMilli(borrow.getRequestedReturn().getTime()),
+                !borrow.isFinished());
+    }
+
+    @PostRemove
+    public void removed(Borrow borrow) {
+        overdueTracker.removed(borrow.getId());
+    }
+}
@@ -0,0 +1,243 @@
+package fr.uga.l3miage.library.data.index;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Trie compact associant des mots à des ids : chaque noeud stocke ses fils dans des tableaux triés de
+ * caractères et les ids des mots qui s'y terminent dans un tableau de primitifs.
+ * <p>
+ * Chaque noeud garde aussi les premiers ids de son sous-arbre dans l'ordre donné à la construction : les
+ * premiers mots d'un préfixe se lisent sur son noeud sans parcourir le sous-arbre. Un ajout insère l'id dans
+ * les classements du chemin du mot ; un retrait recalcule, en remontant le chemin, les classements qui le
+ * contenaient à partir de ceux des fils.
+ * <p>
+ * Cette classe n'est pas thread-safe, la synchronisation est à la charge de l'appelant.
+ */
+public class PrefixTrie {
+
+    /**
+     * Ordre des ids, qui ne doit pas changer tant qu'un id est dans le trie
+     */
+    @FunctionalInterface
+    public interface IdOrder {
+        int compare(long id1, long id2);
+    }
+
+    private final IdOrder order;
+    private final int ranked;
+    private final Node root = new Node();
+
+    /**
+     * @param order  l'ordre des ids
+     * @param ranked le nombre d'ids classés gardés par noeud
+     */
+    public PrefixTrie(IdOrder order, int ranked) {
+        this.order = order;
+        this.ranked = ranked;
+    }
+
+    /**
+     * Associe un mot à un id
+     */
+    public void add(String word, long id) {
+        Node node = root;
+        rank(node, id);
+        for (int i = 0; i < word.length(); i++) {
+            node = node.childOrCreate(word.charAt(i));
+            rank(node, id);
+        }
+        node.addId(id);
+    }
+
+    /**
+     * Retire l'association entre un mot et un id
+     */
+    public void remove(String word, long id) {
+        Node[] path = new Node[word.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < word.length(); i++) {
+            path[i + 1] = path[i].child(word.charAt(i));
+            if (path[i + 1] == null) {
+                return;
+            }
+        }
+        path[word.length()].removeId(id);
+        // élagage des noeuds devenus vides, puis reclassement des noeuds qui classaient l'id
+        for (int i = word.length(); i > 0 && path[i].isEmpty(); i--) {
+            path[i - 1].removeChild(word.charAt(i - 1));
+        }
+        for (int i = word.length(); i >= 0; i--) {
+            if (contains(path[i].first, id)) {
+                rerank(path[i]);
+            }
+        }
+    }
+
+    /**
+     * Vide le trie
+     */
+    public void clear() {
+        root.keys = new char[0];
+        root.children = new Node[0];
+        root.ids = new long[0];
+        root.first = new long[0];
+    }
+
+    /**
+     * Les premiers ids, dans l'ordre du trie, des mots commençant par le préfixe donné. Un id n'y figure qu'une
+     * fois même s'il a plusieurs mots.
+     *
+     * @param prefix le préfixe
+     * @return au plus {@code ranked} ids ; moins si le préfixe n'a pas plus d'ids
+     */
+    public long[] firstWithPrefix(String prefix) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.child(prefix.charAt(i));
+        }
+        return node == null ? new long[0] : node.first.clone();
+    }
+
+    /**
+     * Parcourt les ids de tous les mots commençant par le préfixe donné
+     *
+     * @param prefix   le préfixe
+     * @param consumer reçoit les ids (un id peut être reçu plusieurs fois s'il a plusieurs mots)
+     */
+    public void forEachWithPrefix(String prefix, LongConsumer consumer) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.child(prefix.charAt(i));
+        }
+        if (node != null) {
+            node.forEach(consumer);
+        }
+    }
+
+    /**
+     * Insère l'id à son rang parmi les premiers ids du noeud, s'il y a sa place
+     */
+    private void rank(Node node, long id) {
+        long[] first = node.first;
+        if (contains(first, id)) {
+            return;
+        }
+        int pos = first.length;
+        while (pos > 0 && order.compare(id, first[pos - 1]) < 0) {
+            pos--;
+        }
+        if (pos == ranked) {
+            return;
+        }
+        long[] ranks = new long[Math.min(first.length + 1, ranked)];
+        System.arraycopy(first, 0, ranks, 0, pos);
+        ranks[pos] = id;
+        System.arraycopy(first, pos, ranks, pos + 1, ranks.length - pos - 1);
+        node.first = ranks;
+    }
+
+    /**
+     * Recalcule les premiers ids du noeud à partir de ses propres ids et des premiers ids de ses fils
+     */
+    private void rerank(Node node) {
+        node.first = new long[0];
+        for (long id : node.ids) {
+            rank(node, id);
+        }
+        for (Node child : node.children) {
+            for (long id : child.first) {
+                rank(node, id);
+            }
+        }
+    }
+
+    private static boolean contains(long[] ids, long id) {
+        for (long existing : ids) {
+            if (existing == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Node {
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private long[] ids = new long[0];
+        private long[] first = new long[0];
+
+        Node child(char c) {
+            int pos = Arrays.binarySearch(keys, c);
+            return pos >= 0 ? children[pos] : null;
+        }
+
+        Node childOrCreate(char c) {
+            int pos = Arrays.binarySearch(keys, c);
+            if (pos >= 0) {
+                return children[pos];
+            }
+            int insertAt = -pos - 1;
+            Node created = new Node();
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            newKeys[insertAt] = c;
+            newChildren[insertAt] = created;
+            System.arraycopy(keys, insertAt, newKeys, insertAt + 1, keys.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            keys = newKeys;
+            children = newChildren;
+            return created;
+        }
+
+        void removeChild(char c) {
+            int pos = Arrays.binarySearch(keys, c);
+            if (pos < 0) {
+                return;
+            }
+            char[] newKeys = new char[keys.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, pos);
+            System.arraycopy(children, 0, newChildren, 0, pos);
+            System.arraycopy(keys, pos + 1, newKeys, pos, keys.length - pos - 1);
+            System.arraycopy(children, pos + 1, newChildren, pos, children.length - pos - 1);
+            keys = newKeys;
+            children = newChildren;
+        }
+
+        void addId(long id) {
+            if (contains(ids, id)) {
+                return;
+            }
+            ids = Arrays.copyOf(ids, ids.length + 1);
+            ids[ids.length - 1] = id;
+        }
+
+        void removeId(long id) {
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == id) {
+                    long[] newIds = new long[ids.length - 1];
+                    System.arraycopy(ids, 0, newIds, 0, i);
+                    System.arraycopy(ids, i + 1, newIds, i, ids.length - i - 1);
+                    ids = newIds;
+                    return;
+                }
+            }
+        }
+
+        boolean isEmpty() {
+            return ids.length == 0 && keys.length == 0;
+        }
+
+        void forEach(LongConsumer consumer) {
+            for (long id : ids) {
+                consumer.accept(id);
+            }
+            for (Node child : children) {
+                child.forEach(consumer);
+            }
+        }
+    }
+}
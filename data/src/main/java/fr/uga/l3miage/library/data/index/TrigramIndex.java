@@ -0,0 +1,240 @@
+package fr.uga.l3miage.library.data.index;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index inversé de trigrammes (n-grammes de 3 caractères) permettant la recherche de sous-chaîne
+ * insensible à la casse sans parcourir tous les textes.
+ * <p>
+ * Chaque texte est normalisé en minuscules puis découpé en trigrammes ; chaque trigramme pointe vers
+ * la liste triée des ids qui le contiennent. Une recherche intersecte les listes des trigrammes de la
+ * chaîne cherchée puis vérifie les candidats sur le texte stocké, le résultat est donc exact.
+ */
+public class TrigramIndex {
+
+    /**
+     * Taille minimale d'une chaîne recherchable via l'index
+     */
+    public static final int GRAM = 3;
+
+    private final Map<Long, String> texts = new HashMap<>();
+    private final Map<Long, PostingList> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Indexe (ou ré-indexe) le texte associé à un id
+     *
+     * @param id   l'id de l'objet indexé
+     * @param text le texte, null pour retirer l'id de l'index
+     */
+    public void put(long id, String text) {
+        if (text == null) {
+            remove(id);
+            return;
+        }
+        String normalized = normalize(text);
+        lock.writeLock().lock();
+        try {
+            String previous = texts.put(id, normalized);
+            if (normalized.equals(previous)) {
+                return;
+            }
+            if (previous != null) {
+                unlink(id, previous);
+            }
+            for (long gram : grams(normalized)) {
+                postings.computeIfAbsent(gram, g -> new PostingList()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retire un id de l'index
+     *
+     * @param id l'id à retirer
+     */
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            String previous = texts.remove(id);
+            if (previous != null) {
+                unlink(id, previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Vide l'index
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            texts.clear();
+            postings.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return le nombre de textes indexés
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return texts.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Indique si la chaîne peut être cherchée via l'index (au moins un trigramme)
+     *
+     * @param part la chaîne cherchée
+     * @return true si {@link #search(String)} peut y répondre
+     */
+    public static boolean isSearchable(String part) {
+        return part != null && part.length() >= GRAM;
+    }
+
+    /**
+     * Trouve les ids dont le texte contient la chaîne passée (non sensible à la casse)
+     *
+     * @param part tout ou partie du texte, d'au moins {@link #GRAM} caractères
+     * @return les ids trouvés, triés par ordre croissant
+     */
+    public long[] search(String part) {
+        if (!isSearchable(part)) {
+            throw new IllegalArgumentException("search requires at least " + GRAM + " characters");
+        }
+        String normalized = normalize(part);
+        long[] grams = grams(normalized);
+        lock.readLock().lock();
+        try {
+            PostingList[] lists = new PostingList[grams.length];
+            for (int i = 0; i < grams.length; i++) {
+                lists[i] = postings.get(grams[i]);
+                if (lists[i] == null) {
+                    return new long[0];
+                }
+            }
+            // on part de la liste la plus courte pour réduire le coût des intersections
+            Arrays.sort(lists, Comparator.comparingInt(l -> l.size));
+            long[] candidates = Arrays.copyOf(lists[0].ids, lists[0].size);
+            int count = candidates.length;
+            for (int i = 1; i < lists.length && count > 0; i++) {
+                count = lists[i].retainAll(candidates, count);
+            }
+            // les trigrammes ne garantissent pas la contiguïté : on vérifie sur le texte
+            int matched = 0;
+            for (int i = 0; i < count; i++) {
+                if (texts.get(candidates[i]).contains(normalized)) {
+                    candidates[matched++] = candidates[i];
+                }
+            }
+            return Arrays.copyOf(candidates, matched);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void unlink(long id, String text) {
+        for (long gram : grams(text)) {
+            PostingList list = postings.get(gram);
+            if (list != null && list.remove(id) && list.size == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    private static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Découpe un texte normalisé en trigrammes distincts, chacun codé sur un long (3 x 16 bits)
+     */
+    private static long[] grams(String text) {
+        if (text.length() < GRAM) {
+            return new long[0];
+        }
+        long[] grams = new long[text.length() - GRAM + 1];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+        }
+        return Arrays.stream(grams).distinct().toArray();
+    }
+
+    /**
+     * Liste d'ids triée par ordre croissant, stockée dans un tableau de primitifs
+     */
+    private static final class PostingList {
+        private long[] ids = new long[4];
+        private int size;
+
+        void add(long id) {
+            // cas le plus fréquent : les ids sont générés de façon croissante
+            if (size == 0 || ids[size - 1] < id) {
+                grow();
+                ids[size++] = id;
+                return;
+            }
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0) {
+                return;
+            }
+            int insertAt = -pos - 1;
+            grow();
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos < 0) {
+                return false;
+            }
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            size--;
+            return true;
+        }
+
+        /**
+         * Conserve dans {@code candidates} (trié) les seuls ids présents dans cette liste
+         *
+         * @return le nombre de candidats restants
+         */
+        int retainAll(long[] candidates, int count) {
+            int kept = 0;
+            int from = 0;
+            for (int i = 0; i < count && from < size; i++) {
+                int pos = Arrays.binarySearch(ids, from, size, candidates[i]);
+                if (pos >= 0) {
+                    candidates[kept++] = candidates[i];
+                    from = pos + 1;
+                } else {
+                    from = -pos - 1;
+                }
+            }
+            return kept;
+        }
+
+        private void grow() {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+        }
+    }
+}
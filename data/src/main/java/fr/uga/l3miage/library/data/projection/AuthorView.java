@@ -0,0 +1,19 @@
+package fr.uga.l3miage.library.data.projection;
+
+import fr.uga.l3miage.library.data.domain.Author;
+
+/**
+ * Projection en lecture seule d'un auteur, lue directement en base sans créer d'entité gérée
+ *
+ * @param id       l'id de l'auteur
+ * @param fullName son nom complet
+ */
+public record AuthorView(Long id, String fullName) {
+
+    /**
+     * @return la projection d'une entité déjà chargée
+     */
+    public static AuthorView of(Author author) {
+        return new AuthorView(author.getId(), author.getFullName());
+    }
+}
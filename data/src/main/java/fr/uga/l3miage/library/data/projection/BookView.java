@@ -0,0 +1,27 @@
+package fr.uga.l3miage.library.data.projection;
+
+import fr.uga.l3miage.library.data.domain.Book;
+
+import java.util.List;
+
+/**
+ * Projection en lecture seule d'un livre et de ses auteurs, lue directement en base sans créer d'entité gérée
+ * ni d'instantané pour le dirty checking
+ *
+ * @param authors les auteurs du livre, par id croissant
+ */
+public record BookView(Long id, String title, long isbn, String publisher, short year, Book.Language language,
+                       List<AuthorView> authors) {
+
+    /**
+     * @return la projection d'une entité déjà chargée
+     */
+    public static BookView of(Book book) {
+        List<AuthorView> authors = book.getAuthors() == null ? List.of() : book.getAuthors().stream()
+                .map(AuthorView::of)
+                .sorted((a1, a2) -> Long.compare(a1.id(), a2.id()))
+                .toList();
+        return new BookView(book.getId(), book.getTitle(), book.getIsbn(), book.getPublisher(), book.getYear(),
+                book.getLanguage(), authors);
+    }
+}
@@ -1,21 +1,78 @@
 package fr.uga.l3miage.library.data.repo;
 
 import fr.uga.l3miage.library.data.domain.Author;
-import fr.uga.l3miage.library.data.domain.Book;
+import fr.uga.l3miage.library.data.index.AuthorNameIndex;
+import fr.uga.l3miage.library.data.index.CoAuthorGraph;
+import fr.uga.l3miage.library.data.index.ModificationCounters;
+import fr.uga.l3miage.library.data.projection.AuthorView;
 import jakarta.persistence.EntityManager;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
 public class AuthorRepository implements CRUDRepository<Long, Author> {
 
+    /**
+     * Nombre maximum de valeurs passées dans une clause IN
+     */
+    private static final int IN_CHUNK_SIZE = 500;
+
+    /**
+     * Expression de constructeur des projections {@link AuthorView}
+     */
+    private static final String AUTHOR_VIEW_SELECT = "SELECT new fr.uga.l3miage.library.data.projection.AuthorView(a.id, a.fullName) FROM Author a";
+
     private final EntityManager entityManager;
+    private final AuthorNameIndex nameIndex;
+    private final CoAuthorGraph coAuthorGraph;
+    private final ModificationCounters modificationCounters;
 
     @Autowired
-    public AuthorRepository(EntityManager entityManager) {
+    public AuthorRepository(EntityManager entityManager, AuthorNameIndex nameIndex, CoAuthorGraph coAuthorGraph,
+                            ModificationCounters modificationCounters) {
         this.entityManager = entityManager;
+        this.nameIndex = nameIndex;
+        this.coAuthorGraph = coAuthorGraph;
+        this.modificationCounters = modificationCounters;
+    }
+
+    /**
+     * Compteur de modifications des auteurs : tant qu'il ne change pas, une liste d'auteurs déjà servie est inchangée
+     */
+    public long modificationCount() {
+        return modificationCounters.current(Author.class);
+    }
+
+    /**
+     * Construit l'index des noms d'auteurs au démarrage de l'application
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void buildNameIndex() {
+        nameIndex.rebuild(namesById(entityManager.createQuery("SELECT a.id, a.fullName FROM Author a", Object[].class)
+                .getResultList()));
+    }
+
+    /**
+     * Construit le graphe des co-auteurs au démarrage de l'application
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void buildCoAuthorGraph() {
+        coAuthorGraph.rebuild(authorsByBook(entityManager
+                .createQuery("SELECT b.id, a.id FROM Book b JOIN b.authors a", Object[].class)
+                .getResultList()));
     }
 
     @Override
@@ -29,6 +86,68 @@ public class AuthorRepository implements CRUDRepository<Long, Author> {
         return entityManager.find(Author.class, id);
     }
 
+    /**
+     * Lit la version en base, sans passer par le contexte de persistance ni par le cache
+     *
+     * @return la version, ou null si l'auteur n'existe pas
+     */
+    public Long findVersion(Long id) {
+        return entityManager.createQuery("SELECT a.version FROM Author a WHERE a.id = :id", Long.class)
+                .setParameter("id", id)
+                .getResultStream()
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Renomme un auteur à condition que sa version n'ait pas changé : une seule requête
+     * <code>UPDATE ... WHERE id = ? AND version = ?</code>, sans relire l'auteur. La requête ne passe ni par les
+     * listeners ni par le contexte de persistance : l'index des noms est mis à jour ici, Hibernate invalide la
+     * région des auteurs, et seul l'auteur modifié est remis à jour dans le contexte de persistance.
+     *
+     * @param author  l'auteur, identifié par son id
+     * @param version la version attendue
+     * @return true si l'auteur a été mis à jour, false s'il n'existe pas ou si sa version a changé
+     */
+    public boolean updateIfVersion(Author author, long version) {
+        entityManager.flush();
+        var query = entityManager.createQuery("UPDATE Author a SET a.fullName = :fullName, a.version = a.version + 1 "
+                        + "WHERE a.id = :id AND a.version = :version")
+                .setParameter("fullName", author.getFullName())
+                .setParameter("id", author.getId())
+                .setParameter("version", version);
+        if (query.executeUpdate() == 0) {
+            return false;
+        }
+        refresh(author.getId());
+        nameIndex.indexed(author.getId(), author.getFullName());
+        modificationCounters.modified(Author.class);
+        return true;
+    }
+
+    /**
+     * Remet à jour l'auteur modifié par une requête de masse dans le contexte de persistance, sans toucher au reste
+     * du contexte : relu s'il y est chargé, oublié sinon
+     */
+    private void refresh(Long id) {
+        Author managed = entityManager.getReference(Author.class, id);
+        if (entityManager.getEntityManagerFactory().getPersistenceUnitUtil().isLoaded(managed)) {
+            entityManager.refresh(managed);
+        } else {
+            entityManager.detach(managed);
+        }
+    }
+
+    /**
+     * Charge un auteur avec ses livres en une seule requête
+     *
+     * @param id l'id de l'auteur
+     * @return l'auteur ou null s'il n'existe pas
+     */
+    public Author getWithBooks(Long id) {
+        return entityManager.find(Author.class, id,
+                Map.of(BookRepository.FETCH_GRAPH, entityManager.getEntityGraph("author-with-books")));
+    }
 
     @Override
     public void delete(Author author) {
@@ -44,12 +163,69 @@ public class AuthorRepository implements CRUDRepository<Long, Author> {
     public List<Author> all() {
 
         //Requête qui va rechercher les noms d'auteurs dans la table Author et les trier par ordre alphabétique
-        String query = "FROM Author a ORDER BY a.fullName";
+        String query = "FROM Author a ORDER BY a.fullName, a.id";
 
         //La méthode getResultList() est utilisée pour exécuter la requête et retourner les résultats.
         return entityManager.createQuery(query, Author.class).getResultList();
     }
 
+    /**
+     * Renvoie une page d'auteurs triés par nom, située après l'auteur (nom, id) passé (pagination par clé)
+     *
+     * @param afterFullName nom du dernier auteur de la page précédente, null pour la première page
+     * @param afterId       id du dernier auteur de la page précédente, null pour la première page
+     * @param limit         nombre maximum d'auteurs
+     * @return une liste d'auteurs trié par nom puis par id
+     */
+    public List<Author> page(String afterFullName, Long afterId, int limit) {
+        if (afterFullName == null || afterId == null) {
+            return entityManager.createQuery("FROM Author a ORDER BY a.fullName, a.id", Author.class)
+                    .setMaxResults(limit)
+                    .getResultList();
+        }
+
+        //Requête qui reprend la liste juste après le couple (nom, id) donné, en s'appuyant sur l'index (fullName, id)
+        String query = "SELECT a FROM Author a WHERE a.fullName > :fullName OR (a.fullName = :fullName AND a.id > :id) " +
+                "ORDER BY a.fullName, a.id";
+
+        return entityManager.createQuery(query, Author.class)
+                .setParameter("fullName", afterFullName)
+                .setParameter("id", afterId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * Comme {@link #all()}, mais en projections (expression de constructeur JPQL) : ni entité gérée ni instantané
+     * pour le dirty checking
+     *
+     * @return une liste d'auteurs triée par nom puis par id
+     */
+    public List<AuthorView> allViews() {
+        return entityManager.createQuery(AUTHOR_VIEW_SELECT + " ORDER BY a.fullName, a.id", AuthorView.class)
+                .getResultList();
+    }
+
+    /**
+     * Comme {@link #page(String, Long, int)}, mais en projections
+     *
+     * @return une liste d'auteurs triée par nom puis par id
+     */
+    public List<AuthorView> pageViews(String afterFullName, Long afterId, int limit) {
+        if (afterFullName == null || afterId == null) {
+            return entityManager.createQuery(AUTHOR_VIEW_SELECT + " ORDER BY a.fullName, a.id", AuthorView.class)
+                    .setMaxResults(limit)
+                    .getResultList();
+        }
+        return entityManager.createQuery(AUTHOR_VIEW_SELECT
+                        + " WHERE a.fullName > :fullName OR (a.fullName = :fullName AND a.id > :id) ORDER BY a.fullName, a.id",
+                        AuthorView.class)
+                .setParameter("fullName", afterFullName)
+                .setParameter("id", afterId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
     /**
      * Recherche un auteur par nom (ou partie du nom) de façon insensible  à la casse.
      *
@@ -69,12 +245,33 @@ public class AuthorRepository implements CRUDRepository<Long, Author> {
                 .getResultList();
     }
 
+    /**
+     * Recherche les auteurs portant exactement l'un des noms passés
+     *
+     * @param fullNames les noms complets recherchés
+     * @return les auteurs trouvés, par nom ; pour un nom porté par plusieurs auteurs, celui de plus petit id
+     */
+    public Map<String, Author> findByFullNames(Collection<String> fullNames) {
+        List<String> names = List.copyOf(fullNames);
+        Map<String, Author> authors = new HashMap<>();
+        for (int from = 0; from < names.size(); from += IN_CHUNK_SIZE) {
+            entityManager.createQuery("SELECT a FROM Author a WHERE a.fullName IN :names ORDER BY a.id DESC", Author.class)
+                    .setParameter("names", names.subList(from, Math.min(names.size(), from + IN_CHUNK_SIZE)))
+                    .getResultStream()
+                    .forEach(author -> authors.put(author.getFullName(), author));
+        }
+        return authors;
+    }
+
     /**
      * Recherche si l'auteur a au moins un livre co-écrit avec un autre auteur
      *
      * @return true si l'auteur partage
      */
     public boolean checkAuthorByIdHavingCoAuthoredBooks(long authorId) {
+        if (coAuthorGraphReady()) {
+            return coAuthorGraph.hasCoAuthors(authorId);
+        }
 
         //Requête qui va rechercher si l'auteur d'id authorId a au moins un livre co-écrit avec un autre auteur
         String query = "SELECT COUNT(*) FROM Book b " +
@@ -88,4 +285,106 @@ public class AuthorRepository implements CRUDRepository<Long, Author> {
         return count > 0;
     }
 
+    /**
+     * Un co-auteur et le nombre de livres qu'il a écrits avec l'auteur
+     *
+     * @param author      le co-auteur
+     * @param sharedBooks le nombre de livres écrits ensemble
+     */
+    public record CoAuthorship(Author author, int sharedBooks) {
+    }
+
+    /**
+     * Renvoie les co-auteurs d'un auteur, c'est-à-dire les auteurs ayant écrit au moins un livre avec lui.
+     * Le graphe des co-auteurs donne leurs ids sans jointure, seuls les auteurs eux-mêmes sont lus en base, par
+     * paquets de {@value #IN_CHUNK_SIZE}.
+     *
+     * @param authorId l'id de l'auteur
+     * @return les co-auteurs avec le nombre de livres écrits avec l'auteur,
+     * du plus grand nombre de livres partagés au plus petit puis par nom
+     */
+    public List<CoAuthorship> coAuthors(long authorId) {
+        if (!coAuthorGraphReady()) {
+            return sorted(entityManager.createQuery("SELECT aa, COUNT(b) FROM Book b JOIN b.authors a JOIN b.authors aa " +
+                            "WHERE a.id = :authorId AND aa.id <> a.id GROUP BY aa", Object[].class)
+                    .setParameter("authorId", authorId)
+                    .getResultStream()
+                    .map(row -> new CoAuthorship((Author) row[0], ((Long) row[1]).intValue())));
+        }
+        CoAuthorGraph.Row row = coAuthorGraph.coAuthors(authorId);
+        List<Long> ids = Arrays.stream(row.ids()).boxed().toList();
+        List<CoAuthorship> coAuthors = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += IN_CHUNK_SIZE) {
+            entityManager.createQuery("SELECT a FROM Author a WHERE a.id IN :ids", Author.class)
+                    .setParameter("ids", ids.subList(from, Math.min(ids.size(), from + IN_CHUNK_SIZE)))
+                    .getResultStream()
+                    // les ids de la ligne sont triés
+                    .forEach(author -> coAuthors.add(new CoAuthorship(author,
+                            row.sharedBooks()[Arrays.binarySearch(row.ids(), author.getId())])));
+        }
+        return sorted(coAuthors.stream());
+    }
+
+    /**
+     * Suggère des auteurs dont le nom commence par le préfixe passé (auto-complétion), sans requête en base.
+     * Les auteurs renvoyés ne sont pas chargés par JPA : seuls l'id et le nom sont renseignés.
+     *
+     * @param prefix début d'un ou plusieurs mots du nom (non sensible à la casse ni aux accents)
+     * @param limit  nombre maximum d'auteurs
+     * @return une liste d'auteurs trié par nom
+     */
+    public List<Author> suggest(String prefix, int limit) {
+        // les listeners ne voient les auteurs qu'une fois insérés : on pousse les écritures en attente
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            entityManager.flush();
+        }
+        return nameIndex.suggest(prefix, limit).stream()
+                .map(suggestion -> {
+                    Author author = new Author();
+                    author.setId(suggestion.id());
+                    author.setFullName(suggestion.fullName());
+                    return author;
+                })
+                .toList();
+    }
+
+    /**
+     * Prépare le graphe des co-auteurs à la lecture : écritures en attente poussées
+     *
+     * @return false si le graphe n'est pas encore construit, ou s'il n'a pas encore les écritures de la
+     * transaction courante
+     */
+    private boolean coAuthorGraphReady() {
+        // les listeners ne voient les livres qu'une fois écrits : on pousse les écritures en attente
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            entityManager.flush();
+        }
+        return coAuthorGraph.isReady() && !coAuthorGraph.hasPendingChanges();
+    }
+
+    private static List<CoAuthorship> sorted(Stream<CoAuthorship> coAuthors) {
+        return coAuthors.sorted(Comparator.comparingInt(CoAuthorship::sharedBooks).reversed()
+                        .thenComparing(coAuthor -> coAuthor.author().getFullName(), Comparator.nullsLast(Comparator.naturalOrder()))
+                        .thenComparing(coAuthor -> coAuthor.author().getId()))
+                .toList();
+    }
+
+    private static Map<Long, long[]> authorsByBook(Collection<Object[]> rows) {
+        Map<Long, List<Long>> grouped = new HashMap<>();
+        for (Object[] row : rows) {
+            grouped.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((Long) row[1]);
+        }
+        Map<Long, long[]> authors = new HashMap<>();
+        grouped.forEach((bookId, ids) -> authors.put(bookId, ids.stream().mapToLong(Long::longValue).toArray()));
+        return authors;
+    }
+
+    private static Map<Long, String> namesById(Collection<Object[]> rows) {
+        Map<Long, String> names = new HashMap<>();
+        for (Object[] row : rows) {
+            names.put((Long) row[0], (String) row[1]);
+        }
+        return names;
+    }
+
 }
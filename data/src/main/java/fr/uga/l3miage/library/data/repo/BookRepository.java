@@ -1,20 +1,107 @@
 package fr.uga.l3miage.library.data.repo;
 
+import fr.uga.l3miage.library.data.domain.Author;
 import fr.uga.l3miage.library.data.domain.Book;
+import fr.uga.l3miage.library.data.index.BookTitleIndex;
+import fr.uga.l3miage.library.data.index.CoAuthorGraph;
+import fr.uga.l3miage.library.data.index.IsbnIndex;
+import fr.uga.l3miage.library.data.index.ModificationCounters;
+import fr.uga.l3miage.library.data.projection.AuthorView;
+import fr.uga.l3miage.library.data.projection.BookView;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.SessionFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Repository
 public class BookRepository implements CRUDRepository<Long, Book> {
 
+    /**
+     * Nombre maximum d'ids passés dans une clause IN
+     */
+    private static final int IN_CHUNK_SIZE = 500;
+
+    /**
+     * Indication JPA appliquant un graphe de chargement
+     */
+    static final String FETCH_GRAPH = "jakarta.persistence.fetchgraph";
+
+    /**
+     * Nombre de livres insérés entre deux flush/clear lors d'un enregistrement en masse,
+     * aligné sur hibernate.jdbc.batch_size
+     */
+    static final int INSERT_CHUNK_SIZE = 50;
+
+    /**
+     * Nombre de livres lus à la fois lors d'un parcours complet de la table
+     */
+    private static final int EXPORT_PAGE_SIZE = 500;
+
+    /**
+     * Colonnes lues pour une projection {@link BookView}, sans les auteurs
+     */
+    private static final String BOOK_VIEW_SELECT = "SELECT b.id, b.title, b.isbn, b.publisher, b.year, b.language FROM Book b";
+
+    /**
+     * Auteurs lus pour les projections {@link BookView} : (id du livre, id de l'auteur, nom de l'auteur)
+     */
+    private static final String BOOK_AUTHORS_SELECT = "SELECT b.id, a.id, a.fullName FROM Book b JOIN b.authors a";
+
     private final EntityManager entityManager;
+    private final BookTitleIndex titleIndex;
+    private final CoAuthorGraph coAuthorGraph;
+    private final IsbnIndex isbnIndex;
+    private final ModificationCounters modificationCounters;
 
     @Autowired
-    public BookRepository(EntityManager entityManager) {
+    public BookRepository(EntityManager entityManager, BookTitleIndex titleIndex, CoAuthorGraph coAuthorGraph, IsbnIndex isbnIndex,
+                          ModificationCounters modificationCounters) {
         this.entityManager = entityManager;
+        this.titleIndex = titleIndex;
+        this.coAuthorGraph = coAuthorGraph;
+        this.isbnIndex = isbnIndex;
+        this.modificationCounters = modificationCounters;
+    }
+
+    /**
+     * Compteur de modifications des livres et de leurs auteurs : tant qu'il ne change pas, une liste de livres
+     * déjà servie est inchangée
+     */
+    public long modificationCount() {
+        return modificationCounters.current(Book.class) + modificationCounters.current(Author.class);
+    }
+
+    /**
+     * Construit l'index des titres au démarrage de l'application
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void buildTitleIndex() {
+        titleIndex.rebuild(titlesById(entityManager.createQuery("SELECT b.id, b.title FROM Book b", Object[].class)
+                .getResultList()));
+    }
+
+    /**
+     * Construit l'index des ISBN au démarrage de l'application
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void buildIsbnIndex() {
+        isbnIndex.rebuild(isbnsById(entityManager.createQuery("SELECT b.id, b.isbn FROM Book b", Object[].class)
+                .getResultList()));
     }
 
     @Override
@@ -28,18 +115,218 @@ public class BookRepository implements CRUDRepository<Long, Book> {
         return entityManager.find(Book.class, id);
     }
 
+    /**
+     * Enregistre en masse des livres d'un même auteur. Les livres sont insérés par paquets de
+     * {@value #INSERT_CHUNK_SIZE} (batch JDBC) et le contexte de persistance est vidé après chaque paquet :
+     * les livres renvoyés sont donc détachés. Le livre est ajouté à l'auteur côté livre uniquement, la
+     * collection des livres de l'auteur n'est pas chargée.
+     * @param author l'auteur des livres
+     * @param books les nouveaux livres
+     * @return les livres enregistrés, avec leur id
+     */
+    public List<Book> saveAll(Author author, Collection<Book> books) {
+        for (Book book : books) {
+            book.addAuthor(author);
+        }
+        return saveAll(books);
+    }
+
+    /**
+     * Enregistre en masse des livres dont les auteurs, déjà enregistrés, sont renseignés côté livre.
+     * Comme pour {@link #saveAll(Author, Collection)}, les livres renvoyés sont détachés.
+     * @param books les nouveaux livres
+     * @return les livres enregistrés, avec leur id
+     */
+    public List<Book> saveAll(Collection<Book> books) {
+        List<Book> saved = new ArrayList<>(books.size());
+        Set<Long> authorIds = new HashSet<>();
+        for (Book book : books) {
+            entityManager.persist(book);
+            saved.add(book);
+            if (book.getAuthors() != null) {
+                book.getAuthors().forEach(author -> authorIds.add(author.getId()));
+            }
+            if (saved.size() % INSERT_CHUNK_SIZE == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        // seul le côté livre a été mis à jour : les collections en cache des livres des auteurs sont périmées
+        var cache = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+        for (Long authorId : authorIds) {
+            cache.evictCollectionData(Author.class.getName() + ".books", authorId);
+        }
+        return saved;
+    }
+
 
     @Override
     public void delete(Book author) {
         entityManager.remove(author);
     }
 
+    /**
+     * Lit la version en base, sans passer par le contexte de persistance ni par le cache
+     *
+     * @return la version, ou null si le livre n'existe pas
+     */
+    public Long findVersion(Long id) {
+        return entityManager.createQuery("SELECT b.version FROM Book b WHERE b.id = :id", Long.class)
+                .setParameter("id", id)
+                .getResultStream()
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Met à jour les champs d'un livre, hors auteurs, à condition que sa version n'ait pas changé : une seule
+     * requête <code>UPDATE ... WHERE id = ? AND version = ?</code>, sans relire le livre. Comme pour
+     * {@link #deleteByAuthor(Long)}, la requête ne passe ni par les listeners ni par le contexte de persistance :
+     * les index en mémoire sont mis à jour ici, Hibernate invalide la région des livres, et seul le livre
+     * modifié est remis à jour dans le contexte de persistance.
+     *
+     * @param book    le livre, identifié par son id
+     * @param version la version attendue
+     * @return true si le livre a été mis à jour, false s'il n'existe pas ou si sa version a changé
+     */
+    public boolean updateIfVersion(Book book, long version) {
+        entityManager.flush();
+        var query = entityManager.createQuery("UPDATE Book b SET b.title = :title, b.isbn = :isbn, "
+                        + "b.publisher = :publisher, b.year = :year, b.language = :language, b.version = b.version + 1 "
+                        + "WHERE b.id = :id AND b.version = :version")
+                .setParameter("title", book.getTitle())
+                .setParameter("isbn", book.getIsbn())
+                .setParameter("publisher", book.getPublisher())
+                .setParameter("year", book.getYear())
+                .setParameter("language", book.getLanguage())
+                .setParameter("id", book.getId())
+                .setParameter("version", version);
+        if (query.executeUpdate() == 0) {
+            return false;
+        }
+        refresh(book.getId());
+        titleIndex.indexed(book.getId(), book.getTitle());
+        isbnIndex.indexed(book.getId(), book.getIsbn());
+        modificationCounters.modified(Book.class);
+        return true;
+    }
+
+    /**
+     * Remet à jour le livre modifié par une requête de masse dans le contexte de persistance, sans toucher au reste
+     * du contexte : relu s'il y est chargé, oublié sinon
+     */
+    private void refresh(Long id) {
+        Book managed = entityManager.getReference(Book.class, id);
+        if (entityManager.getEntityManagerFactory().getPersistenceUnitUtil().isLoaded(managed)) {
+            entityManager.refresh(managed);
+        } else {
+            entityManager.detach(managed);
+        }
+    }
+
+    /**
+     * Supprime en masse tous les livres d'un auteur, liens vers leurs auteurs compris. Les suppressions sont
+     * faites par requêtes ensemblistes, par paquets de {@value #IN_CHUNK_SIZE} livres : le nombre de requêtes
+     * ne dépend pas du nombre de livres tant qu'il reste sous cette taille. Ces requêtes ne passent ni par les
+     * listeners ni par le contexte de persistance : les index en mémoire et la collection en cache des livres
+     * de l'auteur sont mis à jour ici, Hibernate invalide la région des livres, et le contexte de persistance est
+     * vidé : les entités déjà chargées sont donc détachées. Les livres co-écrits sont supprimés eux aussi.
+     *
+     * @param authorId l'id de l'auteur
+     * @return les ids des livres supprimés
+     */
+    public List<Long> deleteByAuthor(Long authorId) {
+        // les écritures en attente doivent passer avant les suppressions en masse
+        entityManager.flush();
+        List<Long> ids = entityManager.createQuery("SELECT b.id FROM Book b JOIN b.authors a WHERE a.id = :authorId", Long.class)
+                .setParameter("authorId", authorId)
+                .getResultList();
+        for (int from = 0; from < ids.size(); from += IN_CHUNK_SIZE) {
+            // Hibernate retire d'abord les lignes de la table de jointure author_books de ces livres
+            entityManager.createQuery("DELETE FROM Book b WHERE b.id IN :ids")
+                    .setParameter("ids", ids.subList(from, Math.min(ids.size(), from + IN_CHUNK_SIZE)))
+                    .executeUpdate();
+        }
+        entityManager.clear();
+        for (Long id : ids) {
+            titleIndex.removed(id);
+            coAuthorGraph.removed(id);
+            isbnIndex.removed(id);
+        }
+        modificationCounters.modified(Book.class);
+        // ne dépend pas des tables synchronisées par Hibernate pour la requête en masse
+        entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache()
+                .evictCollectionData(Author.class.getName() + ".books", authorId);
+        return ids;
+    }
+
     /**
      * Renvoie tous les auteurs par ordre alphabétique
      * @return une liste de livres
      */
     public List<Book> all() {
-        return entityManager.createNamedQuery("all-books", Book.class).getResultList();
+        return entityManager.createNamedQuery("all-books", Book.class)
+                .setHint(FETCH_GRAPH, entityManager.getEntityGraph("book-with-authors"))
+                .getResultList();
+    }
+
+    /**
+     * Parcourt tous les livres par ordre alphabétique sans les charger tous en mémoire : les livres sont lus par
+     * pages de {@value #EXPORT_PAGE_SIZE} avec {@link #page(String, Long, int)}, quel que soit le driver, et le
+     * contexte de persistance est vidé après chaque page. Les livres sont détachés après l'appel de l'action, qui
+     * ne doit donc pas en conserver de référence. Doit être appelé dans une transaction.
+     * @param action action appelée pour chaque livre
+     */
+    public void forEach(Consumer<Book> action) {
+        forEach(action, EXPORT_PAGE_SIZE);
+    }
+
+    void forEach(Consumer<Book> action, int pageSize) {
+        String afterTitle = null;
+        Long afterId = null;
+        List<Book> books;
+        do {
+            books = page(afterTitle, afterId, pageSize);
+            books.forEach(action);
+            if (!books.isEmpty()) {
+                Book last = books.get(books.size() - 1);
+                afterTitle = last.getTitle();
+                afterId = last.getId();
+            }
+            entityManager.clear();
+        } while (books.size() == pageSize);
+    }
+
+    /**
+     * Renvoie une page de livres par ordre alphabétique, située après le livre (titre, id) passé.
+     * La pagination par clé (keyset) s'appuie sur l'index (title, id) : le coût ne dépend pas de la position de la page.
+     * @param afterTitle titre du dernier livre de la page précédente, null pour la première page
+     * @param afterId id du dernier livre de la page précédente, null pour la première page
+     * @param limit nombre maximum de livres
+     * @return une liste de livres triée par titre puis par id
+     */
+    public List<Book> page(String afterTitle, Long afterId, int limit) {
+        // une jointure FETCH ne peut pas être limitée en SQL : on lit d'abord les ids de la page,
+        // puis les livres et leurs auteurs en une seconde requête
+        List<Long> ids;
+        if (afterTitle == null || afterId == null) {
+            ids = entityManager.createNamedQuery("all-book-ids", Long.class)
+                    .setMaxResults(limit)
+                    .getResultList();
+        } else {
+            ids = entityManager.createNamedQuery("book-ids-after", Long.class)
+                    .setParameter("title", afterTitle)
+                    .setParameter("id", afterId)
+                    .setMaxResults(limit)
+                    .getResultList();
+        }
+        Map<Long, Book> books = new HashMap<>();
+        for (Book book : findAllById(ids.stream().mapToLong(Long::longValue).sorted().toArray())) {
+            books.put(book.getId(), book);
+        }
+        return ids.stream().map(books::get).toList();
     }
 
     /**
@@ -48,8 +335,215 @@ public class BookRepository implements CRUDRepository<Long, Book> {
      * @return une liste de livres
      */
     public List<Book> findByContainingTitle(String titlePart) {
-        return entityManager.createNamedQuery("find-books-by-title", Book.class)
-                .setParameter("titlePart", titlePart.toLowerCase())
+        // les listeners ne voient les livres qu'une fois insérés : on pousse les écritures en attente
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            entityManager.flush();
+        }
+        // l'index n'a pas encore les écritures de la transaction courante : elle lit la base
+        long[] ids = titleIndex.hasPendingChanges() ? null : titleIndex.search(titlePart);
+        if (ids == null) {
+            // l'index ne sait pas répondre (chaine trop courte, écritures en attente...) : on parcourt la table
+            return entityManager.createNamedQuery("find-books-by-title", Book.class)
+                    .setParameter("titlePart", titlePart.toLowerCase())
+                    .setHint(FETCH_GRAPH, entityManager.getEntityGraph("book-with-authors"))
+                    .getResultList();
+        }
+        return findAllById(ids);
+    }
+
+    /**
+     * Comme {@link #all()}, mais en projections : les colonnes sont lues directement, sans entité gérée ni
+     * instantané pour le dirty checking. Deux requêtes : les livres, puis tous les liens vers leurs auteurs.
+     * @return les livres par ordre alphabétique
+     */
+    public List<BookView> allViews() {
+        List<Object[]> rows = entityManager.createQuery(BOOK_VIEW_SELECT + " ORDER BY b.title ASC, b.id ASC", Object[].class)
+                .getResultList();
+        return bookViews(rows, authorViewsByBook(entityManager
+                .createQuery(BOOK_AUTHORS_SELECT + " ORDER BY a.id", Object[].class)
+                .getResultList()));
+    }
+
+    /**
+     * Comme {@link #page(String, Long, int)}, mais en projections. Sans jointure FETCH, la limite s'applique
+     * directement en SQL : deux requêtes, la page puis les auteurs de ses livres.
+     * @return une liste de livres triée par titre puis par id
+     */
+    public List<BookView> pageViews(String afterTitle, Long afterId, int limit) {
+        TypedQuery<Object[]> query;
+        if (afterTitle == null || afterId == null) {
+            query = entityManager.createQuery(BOOK_VIEW_SELECT + " ORDER BY b.title ASC, b.id ASC", Object[].class);
+        } else {
+            query = entityManager.createQuery(BOOK_VIEW_SELECT
+                            + " WHERE b.title > :title OR (b.title = :title AND b.id > :id) ORDER BY b.title ASC, b.id ASC",
+                            Object[].class)
+                    .setParameter("title", afterTitle)
+                    .setParameter("id", afterId);
+        }
+        List<Object[]> rows = query.setMaxResults(limit).getResultList();
+        return bookViews(rows, authorViewsOf(rows));
+    }
+
+    /**
+     * Comme {@link #findByContainingTitle(String)}, mais en projections
+     * @param titlePart tout ou partie du titre
+     * @return les livres trouvés
+     */
+    public List<BookView> findViewsByContainingTitle(String titlePart) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            entityManager.flush();
+        }
+        long[] ids = titleIndex.hasPendingChanges() ? null : titleIndex.search(titlePart);
+        List<Object[]> rows;
+        if (ids == null) {
+            rows = entityManager.createQuery(BOOK_VIEW_SELECT
+                            + " WHERE LOWER(b.title) LIKE LOWER(CONCAT('%', :titlePart, '%'))", Object[].class)
+                    .setParameter("titlePart", titlePart.toLowerCase())
+                    .getResultList();
+        } else {
+            rows = new ArrayList<>(ids.length);
+            for (int from = 0; from < ids.length; from += IN_CHUNK_SIZE) {
+                List<Long> chunk = Arrays.stream(ids, from, Math.min(ids.length, from + IN_CHUNK_SIZE)).boxed().toList();
+                rows.addAll(entityManager.createQuery(BOOK_VIEW_SELECT + " WHERE b.id IN :ids ORDER BY b.id", Object[].class)
+                        .setParameter("ids", chunk)
+                        .getResultList());
+            }
+        }
+        return bookViews(rows, authorViewsOf(rows));
+    }
+
+    /**
+     * Lit les auteurs des livres passés, par paquets
+     * @param rows les lignes des livres, l'id en première colonne
+     */
+    private Map<Long, List<AuthorView>> authorViewsOf(List<Object[]> rows) {
+        List<Long> ids = rows.stream().map(row -> (Long) row[0]).toList();
+        List<Object[]> authors = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += IN_CHUNK_SIZE) {
+            authors.addAll(entityManager.createQuery(BOOK_AUTHORS_SELECT + " WHERE b.id IN :ids ORDER BY a.id", Object[].class)
+                    .setParameter("ids", ids.subList(from, Math.min(ids.size(), from + IN_CHUNK_SIZE)))
+                    .getResultList());
+        }
+        return authorViewsByBook(authors);
+    }
+
+    private static Map<Long, List<AuthorView>> authorViewsByBook(List<Object[]> rows) {
+        Map<Long, List<AuthorView>> authors = new HashMap<>();
+        for (Object[] row : rows) {
+            authors.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add(new AuthorView((Long) row[1], (String) row[2]));
+        }
+        return authors;
+    }
+
+    private static List<BookView> bookViews(List<Object[]> rows, Map<Long, List<AuthorView>> authors) {
+        List<BookView> views = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            Long id = (Long) row[0];
+            views.add(new BookView(id, (String) row[1], (Long) row[2], (String) row[3], (Short) row[4],
+                    (Book.Language) row[5], authors.getOrDefault(id, List.of())));
+        }
+        return views;
+    }
+
+    /**
+     * Charge les livres dont les ids sont passés, par paquets
+     * @param ids les ids triés par ordre croissant
+     * @return les livres triés par id
+     */
+    private List<Book> findAllById(long[] ids) {
+        List<Book> books = new ArrayList<>(ids.length);
+        for (int from = 0; from < ids.length; from += IN_CHUNK_SIZE) {
+            List<Long> chunk = Arrays.stream(ids, from, Math.min(ids.length, from + IN_CHUNK_SIZE)).boxed().toList();
+            books.addAll(entityManager.createNamedQuery("find-books-by-ids", Book.class)
+                    .setParameter("ids", chunk)
+                    .setHint(FETCH_GRAPH, entityManager.getEntityGraph("book-with-authors"))
+                    .getResultList());
+        }
+        return books;
+    }
+
+    /**
+     * Parmi les ISBN passés, donne ceux déjà portés par un livre. L'index des ISBN répond sans requête ; tant qu'il
+     * n'est pas construit, ou que la transaction courante a des écritures qu'il n'a pas encore, les ISBN sont
+     * cherchés en base par paquets de {@value #IN_CHUNK_SIZE}.
+     *
+     * @param isbns les ISBN cherchés
+     * @return les ISBN déjà pris
+     */
+    public Set<Long> existingIsbns(Collection<Long> isbns) {
+        Set<Long> existing = new HashSet<>();
+        if (!isbnIndexUpToDate()) {
+            List<Long> distinct = List.copyOf(new HashSet<>(isbns));
+            for (int from = 0; from < distinct.size(); from += IN_CHUNK_SIZE) {
+                existing.addAll(entityManager.createQuery("SELECT b.isbn FROM Book b WHERE b.isbn IN :isbns", Long.class)
+                        .setParameter("isbns", distinct.subList(from, Math.min(distinct.size(), from + IN_CHUNK_SIZE)))
+                        .getResultList());
+            }
+            return existing;
+        }
+        for (Long isbn : isbns) {
+            if (isbnIndex.idOf(isbn) != IsbnIndex.MISSING) {
+                existing.add(isbn);
+            }
+        }
+        return existing;
+    }
+
+    /**
+     * Trouve un livre par son ISBN. L'index des ISBN donne l'id du livre sans requête, le livre est ensuite lu
+     * par id (depuis le cache de second niveau s'il y est) : hors transaction, aucune requête SQL n'est faite
+     * pour un livre en cache.
+     * @param isbn l'ISBN du livre
+     * @return le livre, ou null s'il n'existe pas
+     */
+    public Book findByIsbn(long isbn) {
+        if (!isbnIndexUpToDate()) {
+            return entityManager.createQuery("SELECT b FROM Book b WHERE b.isbn = :isbn", Book.class)
+                    .setParameter("isbn", isbn)
+                    .getResultStream()
+                    .findFirst()
+                    .orElse(null);
+        }
+        long id = isbnIndex.idOf(isbn);
+        return id == IsbnIndex.MISSING ? null : entityManager.find(Book.class, id);
+    }
+
+    /**
+     * @return true si l'index des ISBN est construit et reflète ce que la transaction courante lit en base
+     */
+    private boolean isbnIndexUpToDate() {
+        // les listeners ne voient les livres qu'une fois insérés : on pousse les écritures en attente
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            entityManager.flush();
+        }
+        // l'index n'a pas encore les écritures de la transaction courante : elle lit la base
+        return isbnIndex.isReady() && !isbnIndex.hasPendingChanges();
+    }
+
+    private static Map<Long, Long> isbnsById(Collection<Object[]> rows) {
+        Map<Long, Long> isbns = new HashMap<>();
+        for (Object[] row : rows) {
+            isbns.put((Long) row[0], (Long) row[1]);
+        }
+        return isbns;
+    }
+
+    private static Map<Long, String> titlesById(Collection<Object[]> rows) {
+        Map<Long, String> titles = new HashMap<>();
+        for (Object[] row : rows) {
+            titles.put((Long) row[0], (String) row[1]);
+        }
+        return titles;
+    }
+
+    /**
+     * Trouve tous les livres d'un auteur, avec l'ensemble de leurs auteurs chargé dans la même requête
+     * @param authorId id de l'auteur
+     * @return une liste de livres triée par titre
+     */
+    public List<Book> findByAuthorId(Long authorId) {
+        return entityManager.createNamedQuery("find-books-by-author", Book.class)
+                .setParameter("authorId", authorId)
                 .getResultList();
     }
 
@@ -89,4 +583,23 @@ public class BookRepository implements CRUDRepository<Long, Book> {
                 .getResultList();
     }
 
+    /**
+     * Vérifie le nombre d'auteurs dénormalisé de chaque livre par rapport à la table de jointure et corrige
+     * les livres en écart (écritures SQL directes, mises à jour en masse...)
+     * @return les ids des livres corrigés
+     */
+    public List<Long> fixAuthorCounts() {
+        List<Long> wrong = entityManager.createNamedQuery("find-book-ids-with-wrong-author-count", Long.class)
+                .getResultList();
+        for (int from = 0; from < wrong.size(); from += IN_CHUNK_SIZE) {
+            entityManager.createQuery("UPDATE Book b SET b.authorCount = SIZE(b.authors) WHERE b.id IN :ids")
+                    .setParameter("ids", wrong.subList(from, Math.min(wrong.size(), from + IN_CHUNK_SIZE)))
+                    .executeUpdate();
+        }
+        if (!wrong.isEmpty()) {
+            modificationCounters.modified(Book.class);
+        }
+        return wrong;
+    }
+
 }
@@ -1,24 +1,90 @@
 package fr.uga.l3miage.library.data.repo;
 
 import fr.uga.l3miage.library.data.domain.Borrow;
+import fr.uga.l3miage.library.data.index.BorrowCounters;
+import fr.uga.l3miage.library.data.index.OverdueTracker;
 import jakarta.persistence.EntityManager;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 //import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.Date;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
 public class BorrowRepository implements CRUDRepository<String, Borrow> {
 
+    /**
+     * Comptage des emprunts total et en cours, par emprunteur
+     */
+    private static final String COUNTS_BY_USER = "SELECT b.borrower.id, COUNT(b), SUM(CASE WHEN b.finished = false THEN 1 ELSE 0 END) FROM Borrow b";
+
+    /**
+     * Nombre maximum d'ids passés dans une clause IN
+     */
+    private static final int IN_CHUNK_SIZE = 500;
+
+    /**
+     * Ordre des emprunts en retard : date de retour prévue, puis id
+     */
+    private static final Comparator<Borrow> BY_DUE_DATE = Comparator.comparing(Borrow::getRequestedReturn)
+            .thenComparing(Borrow::getId);
+
     private final EntityManager entityManager;
+    private final BorrowCounters borrowCounters;
+    private final OverdueTracker overdueTracker;
+    private final PrimaryReads primaryReads;
 
     @Autowired
-    public BorrowRepository(EntityManager entityManager) {
+    public BorrowRepository(EntityManager entityManager, BorrowCounters borrowCounters, OverdueTracker overdueTracker,
+                            PrimaryReads primaryReads) {
         this.entityManager = entityManager;
+        this.borrowCounters = borrowCounters;
+        this.overdueTracker = overdueTracker;
+        this.primaryReads = primaryReads;
+    }
+
+    /**
+     * Construit l'échéancier des emprunts au démarrage de l'application
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void buildOverdueTracker() {
+        overdueTracker.rebuild(dueDatesById(entityManager
+                .createQuery("SELECT b.id, b.requestedReturn, b.finished FROM Borrow b WHERE b.finished = false", Object[].class)
+                .getResultList()), lateCutoff());
+    }
+
+    /**
+     * Construit les compteurs d'emprunts au démarrage de l'application
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void buildBorrowCounters() {
+        borrowCounters.rebuild(countsOfAllUsers());
+    }
+
+    /**
+     * Recompte en base les emprunts de tous les utilisateurs et corrige les compteurs en mémoire
+     *
+     * @return les ids des utilisateurs dont les compteurs ont été corrigés
+     */
+    public Set<Long> reconcileBorrowCounters() {
+        Map<Long, BorrowCounters.Counts> before = borrowCounters.snapshot();
+        return borrowCounters.reconcile(before, primaryReads.read(this::countsOfAllUsers));
     }
 
     @Override
@@ -29,7 +95,7 @@ public class BorrowRepository implements CRUDRepository<String, Borrow> {
 
     @Override
     public Borrow get(String id) {
-        return entityManager.find(Borrow.class, id);
+        return entityManager.find(Borrow.class, Long.valueOf(id));
     }
 
     @Override
@@ -65,6 +131,10 @@ public class BorrowRepository implements CRUDRepository<String, Borrow> {
      * @return le nombre de livre
      */
     public int countBorrowedBooksByUser(Long userId) {
+        BorrowCounters.Counts counts = counts(userId);
+        if (counts != null) {
+            return counts.total();
+        }
 
         //Requête qui compte le nombre total de livres emrpuntés par l'utilisateur d'id userId
         String query = "SELECT COUNT(b) FROM Borrow b JOIN b.borrower u WHERE u.id = :userId";
@@ -82,6 +152,10 @@ public class BorrowRepository implements CRUDRepository<String, Borrow> {
      * @return le nombre de livre
      */
     public int countCurrentBorrowedBooksByUser(Long userId) {
+        BorrowCounters.Counts counts = counts(userId);
+        if (counts != null) {
+            return counts.open();
+        }
 
          //Requête qui compte le nombre total de livres non rendus par l'utilisateur d'id userId
          String query = "SELECT COUNT(b) FROM Borrow b JOIN b.borrower u WHERE u.id = :userId AND b.finished = false";
@@ -99,7 +173,24 @@ public class BorrowRepository implements CRUDRepository<String, Borrow> {
      * @return la liste des emprunt en retard
      */
     public List<Borrow> foundAllLateBorrow() {
-        
+        // les listeners ne voient les emprunts qu'une fois écrits : on pousse les écritures en attente
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            entityManager.flush();
+        }
+        // l'échéancier n'a pas encore les écritures de la transaction courante : elle lit la base
+        if (overdueTracker.isReady() && !overdueTracker.hasPendingChanges()) {
+            Instant cutoff = lateCutoff();
+            // l'échéancier ne garde que les emprunts en cours : les emprunts terminés en retard sont lus par l'index
+            // (finished, requestedReturn), comme la requête d'origine les comptait aussi
+            List<Borrow> finished = entityManager.createQuery("SELECT b FROM Borrow b WHERE b.finished = true "
+                            + "AND b.requestedReturn < :cutoff", Borrow.class)
+                    .setParameter("cutoff", Date.from(cutoff))
+                    .getResultList();
+            return Stream.concat(findAllById(overdueTracker.overdue(cutoff)).stream(), finished.stream())
+                    .sorted(BY_DUE_DATE)
+                    .toList();
+        }
+
         //Requête qui recherche tous les emprunts en retard et triés : on compare la date de retour prévue de l'emprunt 
         //à la date courante. Si elle est inférieure, c'est que l'emprunt est en retard.
         String query = "SELECT b FROM Borrow b WHERE b.requestedReturn < CURRENT_DATE ORDER BY b.requestedReturn ASC";
@@ -109,6 +200,45 @@ public class BorrowRepository implements CRUDRepository<String, Borrow> {
         getResultList();
     }
 
+    /**
+     * Page des emprunts en cours dont la date de retour prévue tombe dans une période, triés par emprunteur puis
+     * par id : tous les emprunts d'un même emprunteur se suivent. La page suivante commence après le dernier
+     * emprunt de la page (pagination par clé, sans OFFSET).
+     *
+     * @param from            début de la période (inclus)
+     * @param until           fin de la période (exclue)
+     * @param afterBorrowerId emprunteur du dernier emprunt déjà lu
+     * @param afterId         id du dernier emprunt déjà lu
+     * @param limit           taille de la page
+     * @return au plus {@code limit} emprunts
+     */
+    public List<Borrow> findOpenDueBetween(Date from, Date until, long afterBorrowerId, long afterId, int limit) {
+        String query = "SELECT b FROM Borrow b WHERE b.finished = false AND b.requestedReturn >= :from AND b.requestedReturn < :until"
+                + " AND (b.borrower.id > :afterBorrowerId OR (b.borrower.id = :afterBorrowerId AND b.id > :afterId))"
+                + " ORDER BY b.borrower.id, b.id";
+        return entityManager.createQuery(query, Borrow.class)
+                .setParameter("from", from)
+                .setParameter("until", until)
+                .setParameter("afterBorrowerId", afterBorrowerId)
+                .setParameter("afterId", afterId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * Relève les emprunts passés en retard depuis l'appel précédent (leur date de retour prévue est
+     * antérieure au jour courant), y compris ceux enregistrés entretemps déjà en retard.
+     * Chaque emprunt n'est relevé qu'une fois, et seulement une fois validé.
+     *
+     * @return les emprunts nouvellement en retard
+     */
+    public List<Borrow> pollNewlyOverdue() {
+        if (!overdueTracker.isReady()) {
+            return List.of();
+        }
+        return findAllById(overdueTracker.pollNewlyOverdue(lateCutoff()));
+    }
+
     /**
      * Calcul les emprunts qui seront en retard entre maintenant et x jours.
      *
@@ -127,4 +257,73 @@ public class BorrowRepository implements CRUDRepository<String, Borrow> {
         .getResultList();
     }
 
-}
\ No newline at end of file
+    /**
+     * @return les compteurs en mémoire de l'utilisateur, écritures de la transaction courante comprises, ou null
+     * s'ils ne sont pas encore construits
+     */
+    private BorrowCounters.Counts counts(Long userId) {
+        // les listeners ne voient les emprunts qu'une fois insérés : on pousse les écritures en attente
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            entityManager.flush();
+        }
+        return borrowCounters.get(userId);
+    }
+
+    private Map<Long, BorrowCounters.Counts> countsOfAllUsers() {
+        return countsByUser(entityManager
+                .createQuery(COUNTS_BY_USER + " WHERE b.borrower IS NOT NULL GROUP BY b.borrower.id", Object[].class)
+                .getResultList());
+    }
+
+    private static Map<Long, BorrowCounters.Counts> countsByUser(List<Object[]> rows) {
+        Map<Long, BorrowCounters.Counts> counts = new HashMap<>();
+        for (Object[] row : rows) {
+            counts.put((Long) row[0], new BorrowCounters.Counts(((Number) row[1]).intValue(), ((Number) row[2]).intValue()));
+        }
+        return counts;
+    }
+
+    /**
+     * Charge les emprunts dont les ids sont passés, par paquets
+     * @param ids les ids
+     * @return les emprunts dans l'ordre des ids (les ids introuvables sont ignorés)
+     */
+    private List<Borrow> findAllById(List<Long> ids) {
+        Map<Long, Borrow> borrows = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += IN_CHUNK_SIZE) {
+            entityManager.createQuery("SELECT b FROM Borrow b WHERE b.id IN :ids", Borrow.class)
+                    .setParameter("ids", ids.subList(from, Math.min(ids.size(), from + IN_CHUNK_SIZE)))
+                    .getResultList()
+                    .forEach(b -> borrows.put(b.getId(), b));
+        }
+        List<Borrow> ordered = new ArrayList<>(borrows.size());
+        for (Long id : ids) {
+            Borrow borrow = borrows.get(id);
+            if (borrow != null) {
+                ordered.add(borrow);
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * @return l'instant avant lequel un emprunt est en retard : le début du jour courant
+     */
+    private static Instant lateCutoff() {
+        return LocalDate.now().atStartOfDay(ZoneId.systemDefault()).toInstant();
+    }
+
+    /**
+     * @return l'échéance des emprunts en cours ; les emprunts terminés ou sans échéance n'en ont pas
+     */
+    private static Map<Long, Instant> dueDatesById(Collection<Object[]> rows) {
+        Map<Long, Instant> dueDates = new HashMap<>();
+        for (Object[] row : rows) {
+            if (row[1] != null && !(Boolean) row[2]) {
+                dueDates.put((Long) row[0], Instant.ofEpochMilli(((Date) row[1]).getTime()));
+            }
+        }
+        return dueDates;
+    }
+
+}
@@ -1,8 +1,8 @@
 package fr.uga.l3miage.library.data.repo;
 
-import fr.uga.l3miage.library.data.domain.Borrow;
 import fr.uga.l3miage.library.data.domain.Librarian;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
@@ -44,42 +44,52 @@ public class LibrarianRepository implements CRUDRepository<String, Librarian> {
      * @return les bibliothéquaires les plus actif
      */
     public List<Librarian> top3WorkingLibrarians() {
-        List<Borrow> borrowList = entityManager.createQuery("FROM Borrow", Borrow.class).getResultList();
-        List<Librarian> librarianList = new ArrayList<Librarian>();
-        List<Librarian> top3Librarian = new ArrayList<Librarian>(3);
-        for(int i=0; i<borrowList.size(); i++){
-            Librarian l = borrowList.get(i).getLibrarian();
-            librarianList.add(l);
-        }
-        for (int i=0; i<3; i++){
-            Librarian hardWorkingLibrarian = getMostFrequentNumber(librarianList);
-            top3Librarian.add(hardWorkingLibrarian);
-            if (hardWorkingLibrarian != null){
-                while (librarianList.contains(hardWorkingLibrarian)) {
-                    librarianList.remove(hardWorkingLibrarian);
-                }
-            }
-        }
-        return top3Librarian;
+        return topWorkingLibrarians(3, null, null);
     }
 
-
-    public Librarian getMostFrequentNumber(List<Librarian> librarianList) {
-        Librarian MostFrequentLibrarian = null;
-        int highestFrequency = 0;
-        Map<Librarian, Integer> frequencyMap = new HashMap<>();
-    
-        // Parcours de la liste pour compter les fréquences
-        for (Librarian l : librarianList) {
-            int frequency = frequencyMap.getOrDefault(l, 0) + 1;
-            frequencyMap.put(l, frequency);
-            if (frequency > highestFrequency) {
-                highestFrequency = frequency;
-                MostFrequentLibrarian = l;
-            }
+    /**
+     * Récupère les bibliothécaires ayant enregistré le plus de prêts sur une période.
+     * Le comptage est fait en base (GROUP BY), seuls les {@code n} premiers sont chargés.
+     *
+     * @param n    nombre de bibliothécaires voulus
+     * @param from début de la période (inclus), null pour ne pas borner
+     * @param to   fin de la période (exclue), null pour ne pas borner
+     * @return au plus {@code n} bibliothécaires, du plus actif au moins actif (à égalité, par id)
+     */
+    public List<Librarian> topWorkingLibrarians(int n, Date from, Date to) {
+        if (n <= 0) {
+            return List.of();
+        }
+        StringBuilder query = new StringBuilder("SELECT b.librarian.id FROM Borrow b WHERE b.librarian IS NOT NULL");
+        if (from != null) {
+            query.append(" AND b.start >= :from");
+        }
+        if (to != null) {
+            query.append(" AND b.start < :to");
+        }
+        query.append(" GROUP BY b.librarian.id ORDER BY COUNT(b) DESC, b.librarian.id");
+        TypedQuery<Long> top = entityManager.createQuery(query.toString(), Long.class).setMaxResults(n);
+        if (from != null) {
+            top.setParameter("from", from);
+        }
+        if (to != null) {
+            top.setParameter("to", to);
+        }
+        List<Long> ids = top.getResultList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Librarian> byId = new HashMap<>();
+        entityManager.createQuery("SELECT l FROM Librarian l WHERE l.id IN :ids", Librarian.class)
+                .setParameter("ids", ids)
+                .getResultList()
+                .forEach(l -> byId.put(l.getId(), l));
+        // on conserve l'ordre du classement
+        List<Librarian> librarians = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            librarians.add(byId.get(id));
         }
-    
-        return MostFrequentLibrarian;
+        return librarians;
     }
 
-}
\ No newline at end of file
+}
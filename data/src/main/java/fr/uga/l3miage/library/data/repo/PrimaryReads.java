@@ -0,0 +1,43 @@
+package fr.uga.l3miage.library.data.repo;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+/**
+ * Lectures qui doivent voir la base principale, même depuis une transaction en lecture seule.
+ * <p>
+ * Une transaction en lecture seule peut être servie par un réplica en retard sur la base principale. La
+ * réconciliation des compteurs d'emprunts compare les compteurs en mémoire, à jour des dernières validations, à un
+ * recomptage en base : fait sur un réplica en retard, il ferait "corriger" à tort des compteurs justes. Ces lectures
+ * sont donc faites dans une nouvelle transaction en lecture-écriture, routée vers la base principale. Hors transaction
+ * en lecture seule, elles sont faites dans la transaction courante, qui voit ses propres écritures.
+ */
+@Component
+public class PrimaryReads {
+
+    private final TransactionTemplate primary;
+
+    @Autowired
+    public PrimaryReads(PlatformTransactionManager transactionManager) {
+        this.primary = new TransactionTemplate(transactionManager);
+        this.primary.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.primary.setReadOnly(false);
+    }
+
+    /**
+     * @param query la lecture à faire sur la base principale
+     * @return son résultat
+     */
+    public <T> T read(Supplier<T> query) {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return query.get();
+        }
+        return primary.execute(status -> query.get());
+    }
+}
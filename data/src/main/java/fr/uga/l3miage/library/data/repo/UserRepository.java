@@ -57,4 +57,43 @@ public class UserRepository implements CRUDRepository<String, User> {
         return userMinYears;
     }
 
-}
\ No newline at end of file
+    /**
+     * @return le plus petit et le plus grand id d'utilisateur, ou null s'il n'y a aucun utilisateur
+     */
+    public long[] idRange() {
+        Object[] range = entityManager.createQuery("SELECT MIN(u.id), MAX(u.id) FROM User u", Object[].class)
+                .getSingleResult();
+        if (range[0] == null) {
+            return null;
+        }
+        return new long[]{(Long) range[0], (Long) range[1]};
+    }
+
+    /**
+     * Recalcule depuis les emprunts les compteurs de retours et la part de retours en retard des utilisateurs
+     * d'une tranche d'ids, par deux requêtes de mise à jour en masse (sans charger les utilisateurs).
+     * Les utilisateurs déjà chargés dans le contexte de persistance ne sont pas mis à jour.
+     *
+     * @param fromId début de la tranche (inclus)
+     * @param toId   fin de la tranche (exclue)
+     * @return le nombre d'utilisateurs mis à jour
+     */
+    public int recomputeLateRatios(long fromId, long toId) {
+        int updated = entityManager.createQuery("UPDATE User u SET"
+                        + " u.returnCount = (SELECT COUNT(b) FROM Borrow b WHERE b.borrower = u AND b.finished = true),"
+                        + " u.lateReturnCount = (SELECT COUNT(b) FROM Borrow b WHERE b.borrower = u AND b.finished = true"
+                        + " AND b.returned > b.requestedReturn)"
+                        + " WHERE u.id >= :fromId AND u.id < :toId")
+                .setParameter("fromId", fromId)
+                .setParameter("toId", toId)
+                .executeUpdate();
+        entityManager.createQuery("UPDATE User u SET u.lateRatio ="
+                        + " CASE WHEN u.returnCount = 0 THEN 0.0 ELSE 1.0 * u.lateReturnCount / u.returnCount END"
+                        + " WHERE u.id >= :fromId AND u.id < :toId")
+                .setParameter("fromId", fromId)
+                .setParameter("toId", toId)
+                .executeUpdate();
+        return updated;
+    }
+
+}
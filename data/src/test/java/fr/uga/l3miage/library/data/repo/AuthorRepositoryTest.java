@@ -2,12 +2,16 @@ package fr.uga.l3miage.library.data.repo;
 
 import fr.uga.l3miage.library.data.domain.Author;
 import fr.uga.l3miage.library.data.domain.Book;
+import fr.uga.l3miage.library.data.projection.AuthorView;
+import fr.uga.l3miage.library.data.repo.AuthorRepository.CoAuthorship;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
 
 
 class AuthorRepositoryTest extends Base {
@@ -72,6 +76,70 @@ class AuthorRepositoryTest extends Base {
 
     }
 
+    @Test
+    void suggest() {
+
+        Author a1 = Fixtures.newAuthor();
+        a1.setFullName("Victor Hugo");
+        Author a2 = Fixtures.newAuthor();
+        a2.setFullName("Françoise Sagan");
+        Author a3 = Fixtures.newAuthor();
+        a3.setFullName("Vincent Hugues");
+        entityManager.persist(a1);
+        entityManager.persist(a2);
+        entityManager.persist(a3);
+        entityManager.flush();
+
+        assertThat(authorRepository.suggest("hug", 10))
+                .extracting("fullName")
+                .containsExactly("Victor Hugo", "Vincent Hugues");
+        assertThat(authorRepository.suggest("vi hug", 1))
+                .extracting("fullName")
+                .containsExactly("Victor Hugo");
+        assertThat(authorRepository.suggest("franc", 10))
+                .extracting("id")
+                .containsExactly(a2.getId());
+
+        a3.setFullName("Vincent Van Gogh");
+        entityManager.remove(a1);
+        entityManager.flush();
+        assertThat(authorRepository.suggest("hug", 10)).isEmpty();
+
+    }
+
+    @Test
+    void suggestBeyondTheRankedAuthors() {
+
+        // plus d'auteurs que le trie n'en classe par préfixe
+        List<Author> authors = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Author author = Fixtures.newAuthor();
+            author.setFullName("%s Dumas %02d".formatted(i % 2 == 0 ? "Alexandre" : "Adèle", i));
+            entityManager.persist(author);
+            authors.add(author);
+        }
+        entityManager.flush();
+
+        assertThat(authorRepository.suggest("dum", 3))
+                .extracting("fullName")
+                .containsExactly("Adèle Dumas 01", "Adèle Dumas 03", "Adèle Dumas 05");
+        assertThat(authorRepository.suggest("dum", 100)).hasSize(50);
+        assertThat(authorRepository.suggest("alex dum", 40))
+                .extracting("fullName")
+                .hasSize(25)
+                .startsWith("Alexandre Dumas 00", "Alexandre Dumas 02")
+                .endsWith("Alexandre Dumas 48");
+
+        // le retrait des premiers auteurs fait remonter les suivants
+        entityManager.remove(authors.get(1));
+        authors.get(3).setFullName("Zola");
+        entityManager.flush();
+        assertThat(authorRepository.suggest("dum", 2))
+                .extracting("fullName")
+                .containsExactly("Adèle Dumas 05", "Adèle Dumas 07");
+
+    }
+
     @Test
     void findAuthorByIdHavingCoAuthoredBooks() {
 
@@ -97,4 +165,74 @@ class AuthorRepositoryTest extends Base {
 
     }
 
+    @Test
+    void coAuthors() {
+
+        Author a1 = Fixtures.newAuthor();
+        a1.setFullName("Victor Hugo");
+        Author a2 = Fixtures.newAuthor();
+        a2.setFullName("Alexandre Dumas");
+        Author a3 = Fixtures.newAuthor();
+        a3.setFullName("George Sand");
+        entityManager.persist(a1);
+        entityManager.persist(a2);
+        entityManager.persist(a3);
+        Book b1 = Fixtures.newBook();
+        b1.addAuthor(a1);
+        b1.addAuthor(a2);
+        Book b2 = Fixtures.newBook();
+        b2.addAuthor(a1);
+        b2.addAuthor(a2);
+        b2.addAuthor(a3);
+        entityManager.persist(b1);
+        entityManager.persist(b2);
+
+        assertThat(authorRepository.coAuthors(a1.getId())).containsExactly(new CoAuthorship(a2, 2), new CoAuthorship(a3, 1));
+        assertThat(authorRepository.coAuthors(a3.getId())).containsOnly(new CoAuthorship(a1, 1), new CoAuthorship(a2, 1));
+
+        b2.removeAuthor(a3);
+        assertThat(authorRepository.checkAuthorByIdHavingCoAuthoredBooks(a3.getId())).isFalse();
+        assertThat(authorRepository.coAuthors(a1.getId())).containsExactly(new CoAuthorship(a2, 2));
+
+        entityManager.remove(b1);
+        assertThat(authorRepository.coAuthors(a2.getId())).containsExactly(new CoAuthorship(a1, 1));
+
+    }
+
+    @Test
+    void findByFullNames() {
+
+        Author a1 = Fixtures.newAuthor();
+        a1.setFullName("Victor Hugo");
+        Author a2 = Fixtures.newAuthor();
+        a2.setFullName("Victor Hugo");
+        Author a3 = Fixtures.newAuthor();
+        a3.setFullName("George Sand");
+        entityManager.persist(a1);
+        entityManager.persist(a2);
+        entityManager.persist(a3);
+        entityManager.flush();
+
+        assertThat(authorRepository.findByFullNames(List.of("Victor Hugo", "George Sand", "Emile Zola")))
+                .containsOnly(entry("Victor Hugo", a1), entry("George Sand", a3));
+
+    }
+
+
+    @Test
+    void views() {
+
+        Author a1 = Fixtures.newAuthor();
+        a1.setFullName("Victor Hugo");
+        Author a2 = Fixtures.newAuthor();
+        a2.setFullName("Emile Zola");
+        entityManager.persist(a1);
+        entityManager.persist(a2);
+
+        assertThat(authorRepository.allViews())
+                .containsExactly(AuthorView.of(a2), AuthorView.of(a1));
+        assertThat(authorRepository.pageViews(null, null, 1)).containsExactly(AuthorView.of(a2));
+        assertThat(authorRepository.pageViews("Emile Zola", a2.getId(), 1)).containsExactly(AuthorView.of(a1));
+
+    }
 }
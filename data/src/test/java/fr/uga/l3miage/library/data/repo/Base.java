@@ -7,7 +7,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
 @SpringBootTest(classes = TestApp.class, webEnvironment = SpringBootTest.WebEnvironment.NONE,
-        properties = "spring.jpa.show-sql=true")
+        properties = {"spring.jpa.show-sql=true", "spring.jpa.properties.hibernate.generate_statistics=true",
+                "spring.jpa.properties.hibernate.jdbc.batch_size=50", "spring.jpa.properties.hibernate.order_inserts=true"})
 @Transactional
 abstract class Base {
 
@@ -2,13 +2,20 @@ package fr.uga.l3miage.library.data.repo;
 
 import fr.uga.l3miage.library.data.domain.Author;
 import fr.uga.l3miage.library.data.domain.Book;
+import fr.uga.l3miage.library.data.projection.BookView;
 import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
 
 class BookRepositoryTest extends Base {
 
@@ -44,6 +51,119 @@ class BookRepositoryTest extends Base {
 
     }
 
+    @Test
+    void saveAll() {
+
+        Author author = Fixtures.newAuthor();
+        entityManager.persist(author);
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            books.add(Fixtures.newBook());
+        }
+
+        List<Book> saved = bookRepository.saveAll(author, books);
+
+        assertThat(saved).hasSize(120).allSatisfy(book -> assertThat(book.getId()).isNotNull());
+        assertThat(entityManager.contains(saved.get(0))).isFalse();
+        assertThat(bookRepository.findByAuthorId(author.getId())).hasSize(120);
+
+    }
+
+    @Test
+    void forEach() {
+
+        Book b1 = Fixtures.newBook();
+        b1.setTitle("b");
+        Book b2 = Fixtures.newBook();
+        b2.setTitle("a");
+        entityManager.persist(b1);
+        entityManager.persist(b2);
+        entityManager.flush();
+
+        List<String> titles = new ArrayList<>();
+        bookRepository.forEach(book -> titles.add(book.getTitle()));
+        assertThat(titles).containsExactly("a", "b");
+
+        // une page par livre, y compris entre deux livres de même titre
+        Book b3 = Fixtures.newBook();
+        b3.setTitle("a");
+        entityManager.persist(b3);
+        entityManager.flush();
+        List<Long> ids = new ArrayList<>();
+        bookRepository.forEach(book -> ids.add(book.getId()), 1);
+        assertThat(ids).containsExactly(b2.getId(), b3.getId(), b1.getId());
+
+    }
+
+    @Test
+    void page() {
+
+        Book b1 = Fixtures.newBook();
+        b1.setTitle("b");
+        Book b2 = Fixtures.newBook();
+        b2.setTitle("a");
+        Book b3 = Fixtures.newBook();
+        b3.setTitle("b");
+        entityManager.persist(b1);
+        entityManager.persist(b2);
+        entityManager.persist(b3);
+        entityManager.flush();
+
+        List<Book> first = bookRepository.page(null, null, 2);
+        assertThat(first).extracting("id").containsExactly(b2.getId(), b1.getId());
+
+        Book last = first.get(1);
+        List<Book> second = bookRepository.page(last.getTitle(), last.getId(), 2);
+        assertThat(second).extracting("id").containsExactly(b3.getId());
+
+    }
+
+    @Test
+    void listingsRunAFixedNumberOfStatements() {
+
+        Author a1 = Fixtures.newAuthor();
+        for (int i = 0; i < 6; i++) {
+            Author coAuthor = Fixtures.newAuthor();
+            Book book = Fixtures.newBook();
+            book.setTitle("Hello " + i);
+            a1.addBook(book);
+            coAuthor.addBook(book);
+            book.addAuthor(a1);
+            book.addAuthor(coAuthor);
+            entityManager.persist(coAuthor);
+            entityManager.persist(book);
+        }
+        entityManager.persist(a1);
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        assertThat(bookRepository.all()).allSatisfy(book -> assertThat(book.getAuthors()).hasSize(2));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        entityManager.clear();
+
+        // relit les livres laissés périmés par les transactions annulées des autres tests
+        bookRepository.findByContainingTitle("hello");
+        entityManager.clear();
+        statistics.clear();
+        assertThat(bookRepository.findByContainingTitle("hello")).allSatisfy(book -> assertThat(book.getAuthors()).hasSize(2));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        entityManager.clear();
+
+        statistics.clear();
+        assertThat(bookRepository.findByAuthorId(a1.getId())).hasSize(6).allSatisfy(book -> assertThat(book.getAuthors()).hasSize(2));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        entityManager.clear();
+
+        // la page est limitée en SQL : les livres et leurs auteurs sont chargés par une seconde requête
+        statistics.clear();
+        assertThat(bookRepository.page(null, null, 4)).hasSize(4).allSatisfy(book -> assertThat(book.getAuthors()).hasSize(2));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+
+    }
+
     @Test
     void findByContainingTitle() {
 
@@ -71,6 +191,34 @@ class BookRepositoryTest extends Base {
 
     }
 
+    @Test
+    void findByContainingTitleFollowsUpdatesAndDeletes() {
+
+        Book b1 = Fixtures.newBook();
+        b1.setTitle("Hello world");
+        Book b2 = Fixtures.newBook();
+        b2.setTitle("Goodbye world");
+
+        entityManager.persist(b1);
+        entityManager.persist(b2);
+        entityManager.flush();
+
+        b2.setTitle("Hello again");
+        entityManager.remove(b1);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(bookRepository.findByContainingTitle("HELLO"))
+                .extracting("title")
+                .containsExactly("Hello again");
+        assertThat(bookRepository.findByContainingTitle("world")).isEmpty();
+        // trop court pour l'index : la recherche passe par la base
+        assertThat(bookRepository.findByContainingTitle("ag"))
+                .extracting("title")
+                .containsExactly("Hello again");
+
+    }
+
     @Test
     void findByAuthorIdAndContainingTitle() {
         Book b1 = Fixtures.newBook();
@@ -189,4 +337,255 @@ class BookRepositoryTest extends Base {
 
     }
 
+    @Test
+    void fixAuthorCounts() {
+
+        Author a1 = Fixtures.newAuthor();
+        Author a2 = Fixtures.newAuthor();
+        entityManager.persist(a1);
+        entityManager.persist(a2);
+        Book b1 = Fixtures.newBook();
+        b1.addAuthor(a1);
+        b1.addAuthor(a2);
+        b1.addAuthor(a2);
+        entityManager.persist(b1);
+        Book b2 = Fixtures.newBook();
+        b2.addAuthor(a1);
+        entityManager.persist(b2);
+        entityManager.flush();
+        assertThat(b1.getAuthorCount()).isEqualTo(2);
+        assertThat(bookRepository.fixAuthorCounts()).isEmpty();
+
+        // une écriture qui contourne le domaine
+        entityManager.createQuery("UPDATE Book b SET b.authorCount = 5 WHERE b.id = :id")
+                .setParameter("id", b2.getId())
+                .executeUpdate();
+        entityManager.clear();
+        assertThat(bookRepository.findBooksHavingAuthorCountGreaterThan(1)).extracting("id")
+                .containsExactlyInAnyOrder(b1.getId(), b2.getId());
+
+        assertThat(bookRepository.fixAuthorCounts()).containsExactly(b2.getId());
+        entityManager.clear();
+        assertThat(bookRepository.findBooksHavingAuthorCountGreaterThan(1)).extracting("id")
+                .containsExactly(b1.getId());
+    }
+
+    @Test
+    void deleteByAuthor() {
+
+        Author a1 = Fixtures.newAuthor();
+        Author a2 = Fixtures.newAuthor();
+        entityManager.persist(a1);
+        entityManager.persist(a2);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Book book = Fixtures.newBook();
+            book.setTitle("Deleted " + i);
+            book.addAuthor(a1);
+            entityManager.persist(book);
+            ids.add(book.getId());
+        }
+        Book kept = Fixtures.newBook();
+        kept.setTitle("Kept");
+        kept.addAuthor(a2);
+        entityManager.persist(kept);
+        entityManager.flush();
+
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        assertThat(bookRepository.deleteByAuthor(a1.getId())).containsExactlyInAnyOrderElementsOf(ids);
+        // lecture des ids, liens auteur-livre puis livres : indépendant du nombre de livres
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+
+        assertThat(bookRepository.get(ids.get(0))).isNull();
+        assertThat(bookRepository.findByContainingTitle("deleted")).isEmpty();
+        assertThat(bookRepository.findByAuthorId(a1.getId())).isEmpty();
+        assertThat(bookRepository.findByAuthorId(a2.getId())).extracting("id").containsExactly(kept.getId());
+        assertThat(entityManager.find(Author.class, a1.getId()).getBooks()).isEmpty();
+
+    }
+
+    @Test
+    void findByIsbn() {
+
+        Book b1 = Fixtures.newBook();
+        b1.setIsbn(9782070409228L);
+        Book b2 = Fixtures.newBook();
+        b2.setIsbn(9782253004226L);
+        entityManager.persist(b1);
+        entityManager.persist(b2);
+
+        assertThat(bookRepository.findByIsbn(9782070409228L)).isSameAs(b1);
+        assertThat(bookRepository.findByIsbn(9782253004226L)).isSameAs(b2);
+        assertThat(bookRepository.findByIsbn(1234567890L)).isNull();
+
+        b1.setIsbn(1234567890L);
+        assertThat(bookRepository.findByIsbn(9782070409228L)).isNull();
+        assertThat(bookRepository.findByIsbn(1234567890L)).isSameAs(b1);
+
+        entityManager.remove(b2);
+        assertThat(bookRepository.findByIsbn(9782253004226L)).isNull();
+
+    }
+
+    @Test
+    void existingIsbns() {
+
+        Book b1 = Fixtures.newBook();
+        b1.setIsbn(9782070409228L);
+        entityManager.persist(b1);
+
+        // le livre n'est pas encore inséré : les écritures en attente sont poussées avant de répondre
+        assertThat(bookRepository.existingIsbns(List.of(9782070409228L, 9782253004226L)))
+                .containsExactly(9782070409228L);
+
+        // l'index unique est bien celui que l'API reconnaît pour répondre 409
+        Book duplicate = Fixtures.newBook();
+        duplicate.setIsbn(9782070409228L);
+        Throwable conflict = catchThrowable(() -> bookRepository.saveAll(List.of(duplicate)));
+        assertThat(conflict).isInstanceOf(DataIntegrityViolationException.class);
+        assertThat(constraintName(conflict)).containsIgnoringCase(Book.ISBN_INDEX);
+
+    }
+
+    private static String constraintName(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                return violation.getConstraintName();
+            }
+        }
+        return null;
+    }
+
+    @Test
+    void versions() {
+
+        Author a1 = Fixtures.newAuthor();
+        Author a2 = Fixtures.newAuthor();
+        Book b1 = Fixtures.newBook();
+        entityManager.persist(a1);
+        entityManager.persist(a2);
+        b1.addAuthor(a1);
+        entityManager.persist(b1);
+        entityManager.flush();
+        long modificationCount = bookRepository.modificationCount();
+        assertThat(b1.getVersion()).isZero();
+
+        // ajouter un auteur modifie le livre, pas l'auteur
+        b1.addAuthor(a2);
+        a2.addBook(b1);
+        entityManager.flush();
+        assertThat(b1.getVersion()).isEqualTo(1);
+        assertThat(a2.getVersion()).isZero();
+
+        a2.setFullName("renamed");
+        entityManager.flush();
+        assertThat(a2.getVersion()).isEqualTo(1);
+        assertThat(b1.getVersion()).isEqualTo(1);
+
+        // les compteurs de modifications n'augmentent qu'à la fin de la transaction
+        assertThat(bookRepository.modificationCount()).isEqualTo(modificationCount);
+
+    }
+
+    @Test
+    void updateIfVersion() {
+
+        Book b1 = Fixtures.newBook();
+        b1.setTitle("avant");
+        b1.setIsbn(9782070409228L);
+        entityManager.persist(b1);
+        entityManager.flush();
+        Long id = b1.getId();
+
+        Book changes = Fixtures.newBook();
+        changes.setId(id);
+        changes.setTitle("après");
+        changes.setIsbn(9782253004226L);
+
+        assertThat(bookRepository.updateIfVersion(changes, 1)).isFalse();
+        assertThat(bookRepository.updateIfVersion(changes, 0)).isTrue();
+        assertThat(bookRepository.findVersion(id)).isEqualTo(1);
+        assertThat(bookRepository.updateIfVersion(changes, 0)).isFalse();
+
+        Book updated = bookRepository.get(id);
+        assertThat(updated.getTitle()).isEqualTo("après");
+        assertThat(updated.getVersion()).isEqualTo(1);
+        assertThat(bookRepository.findByIsbn(9782070409228L)).isNull();
+        assertThat(bookRepository.findByIsbn(9782253004226L)).isEqualTo(updated);
+        assertThat(bookRepository.findByContainingTitle("après")).containsExactly(updated);
+        assertThat(bookRepository.findVersion(id + 1000)).isNull();
+
+    }
+
+    @Test
+    void updateOnlyRefreshesTheUpdatedBook() {
+
+        Book b1 = Fixtures.newBook();
+        b1.setTitle("avant");
+        Book b2 = Fixtures.newBook();
+        b2.setTitle("autre");
+        entityManager.persist(b1);
+        entityManager.persist(b2);
+        entityManager.flush();
+
+        Book changes = Fixtures.newBook();
+        changes.setId(b1.getId());
+        changes.setTitle("après");
+        changes.setIsbn(b1.getIsbn());
+        assertThat(bookRepository.updateIfVersion(changes, 0)).isTrue();
+
+        // le livre modifié est relu sur place, les autres restent dans le contexte de persistance
+        assertThat(entityManager.contains(b1)).isTrue();
+        assertThat(b1.getTitle()).isEqualTo("après");
+        assertThat(b1.getVersion()).isEqualTo(1);
+        assertThat(entityManager.contains(b2)).isTrue();
+
+        // un livre absent du contexte n'y est pas ajouté
+        entityManager.detach(b2);
+        changes.setId(b2.getId());
+        changes.setIsbn(b2.getIsbn());
+        assertThat(bookRepository.updateIfVersion(changes, 0)).isTrue();
+        assertThat(bookRepository.get(b2.getId()).getTitle()).isEqualTo("après");
+
+    }
+
+    @Test
+    void views() {
+
+        Author a1 = Fixtures.newAuthor();
+        Author a2 = Fixtures.newAuthor();
+        entityManager.persist(a1);
+        entityManager.persist(a2);
+        Book b1 = Fixtures.newBook();
+        b1.setTitle("c projection");
+        b1.addAuthor(a1);
+        b1.addAuthor(a2);
+        Book b2 = Fixtures.newBook();
+        b2.setTitle("b projection");
+        b2.addAuthor(a2);
+        Book b3 = Fixtures.newBook();
+        b3.setTitle("a projection");
+        entityManager.persist(b1);
+        entityManager.persist(b2);
+        entityManager.persist(b3);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<BookView> expected = bookRepository.all().stream().map(BookView::of).toList();
+        entityManager.clear();
+
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        assertThat(bookRepository.allViews()).isEqualTo(expected);
+        assertThat(bookRepository.pageViews(null, null, 2)).isEqualTo(expected.subList(0, 2));
+        assertThat(bookRepository.pageViews("b projection", b2.getId(), 2)).isEqualTo(expected.subList(2, 3));
+        assertThat(bookRepository.findViewsByContainingTitle("projection"))
+                .containsExactlyInAnyOrderElementsOf(expected);
+        // aucune entité n'a été chargée ni placée dans le contexte de persistance
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getEntityFetchCount()).isZero();
+        assertThat(entityManager.contains(b1)).isFalse();
+
+    }
 }
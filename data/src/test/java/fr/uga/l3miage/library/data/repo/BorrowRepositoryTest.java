@@ -209,4 +209,119 @@ class BorrowRepositoryTest extends Base {
 
     }
 
+    @Test
+    void borrowCountersFollowWrites() {
+
+        Borrow borrow1 = Fixtures.newBorrow(u1, l1, b1);
+        Borrow borrow2 = Fixtures.newBorrow(u1, l1, b2);
+        Borrow borrow3 = Fixtures.newBorrow(u2, l1, b3);
+        entityManager.persist(borrow1);
+        entityManager.persist(borrow2);
+        entityManager.persist(borrow3);
+
+        assertThat(repository.countBorrowedBooksByUser(u1.getId())).isEqualTo(2);
+        assertThat(repository.countCurrentBorrowedBooksByUser(u1.getId())).isEqualTo(2);
+
+        // rendu
+        borrow1.setFinished(true);
+        assertThat(repository.countBorrowedBooksByUser(u1.getId())).isEqualTo(2);
+        assertThat(repository.countCurrentBorrowedBooksByUser(u1.getId())).isEqualTo(1);
+
+        // changement d'emprunteur
+        borrow3.setBorrower(u1);
+        assertThat(repository.countBorrowedBooksByUser(u1.getId())).isEqualTo(3);
+        assertThat(repository.countCurrentBorrowedBooksByUser(u1.getId())).isEqualTo(2);
+        assertThat(repository.countBorrowedBooksByUser(u2.getId())).isZero();
+
+        // suppression
+        entityManager.remove(borrow2);
+        assertThat(repository.countBorrowedBooksByUser(u1.getId())).isEqualTo(2);
+        assertThat(repository.countCurrentBorrowedBooksByUser(u1.getId())).isEqualTo(1);
+    }
+
+    @Test
+    void reconcileBorrowCounters() {
+
+        entityManager.persist(Fixtures.newBorrow(u1, l1, b1));
+        entityManager.persist(Fixtures.newBorrow(u1, l1, b2));
+        entityManager.flush();
+        assertThat(repository.reconcileBorrowCounters()).isEmpty();
+
+        // une mise à jour en masse échappe aux listeners
+        entityManager.createQuery("UPDATE Borrow b SET b.finished = true WHERE b.borrower = :user")
+                .setParameter("user", u1)
+                .executeUpdate();
+        assertThat(repository.countCurrentBorrowedBooksByUser(u1.getId())).isEqualTo(2);
+
+        // l'écart n'est corrigé qu'une fois confirmé
+        assertThat(repository.reconcileBorrowCounters()).isEmpty();
+        assertThat(repository.reconcileBorrowCounters()).containsExactly(u1.getId());
+        assertThat(repository.countBorrowedBooksByUser(u1.getId())).isEqualTo(2);
+        assertThat(repository.countCurrentBorrowedBooksByUser(u1.getId())).isZero();
+    }
+
+    @Test
+    void lateBorrowsFollowWrites() {
+
+        Borrow late = Fixtures.newBorrow(u1, l1, b1);
+        late.setRequestedReturn(Date.from(ZonedDateTime.now().minus(5, ChronoUnit.DAYS).toInstant()));
+        Borrow later = Fixtures.newBorrow(u2, l1, b2);
+        later.setRequestedReturn(Date.from(ZonedDateTime.now().minus(2, ChronoUnit.DAYS).toInstant()));
+        Borrow onTime = Fixtures.newBorrow(u2, l1, b3);
+        onTime.setRequestedReturn(Date.from(ZonedDateTime.now().plus(3, ChronoUnit.DAYS).toInstant()));
+        entityManager.persist(late);
+        entityManager.persist(later);
+        entityManager.persist(onTime);
+
+        assertThat(repository.foundAllLateBorrow()).containsExactly(late, later);
+        // pas encore validés : relevés seulement une fois la transaction validée (voir CommittedWritesTest)
+        assertThat(repository.pollNewlyOverdue()).isEmpty();
+
+        // un emprunt rendu reste compté en retard
+        late.setFinished(true);
+        assertThat(repository.foundAllLateBorrow()).containsExactly(late, later);
+
+        // une échéance avancée dans le passé le met en retard
+        onTime.setRequestedReturn(Date.from(ZonedDateTime.now().minus(1, ChronoUnit.DAYS).toInstant()));
+        assertThat(repository.foundAllLateBorrow()).containsExactly(late, later, onTime);
+
+        late.setFinished(false);
+        assertThat(repository.foundAllLateBorrow()).containsExactly(late, later, onTime);
+
+        entityManager.remove(later);
+        assertThat(repository.foundAllLateBorrow()).containsExactly(late, onTime);
+    }
+
+    @Test
+    void findOpenDueBetween() {
+
+        Date now = new Date();
+        Date inAWeek = Date.from(ZonedDateTime.now().plus(7, ChronoUnit.DAYS).toInstant());
+        Borrow u1Soon = Fixtures.newBorrow(u1, l1, b1);
+        u1Soon.setRequestedReturn(Date.from(ZonedDateTime.now().plus(2, ChronoUnit.DAYS).toInstant()));
+        Borrow u1Later = Fixtures.newBorrow(u1, l1, b2);
+        u1Later.setRequestedReturn(Date.from(ZonedDateTime.now().plus(5, ChronoUnit.DAYS).toInstant()));
+        Borrow u2Soon = Fixtures.newBorrow(u2, l1, b3);
+        u2Soon.setRequestedReturn(Date.from(ZonedDateTime.now().plus(1, ChronoUnit.DAYS).toInstant()));
+        Borrow u2Finished = Fixtures.newBorrow(u2, l1, b1);
+        u2Finished.setRequestedReturn(Date.from(ZonedDateTime.now().plus(1, ChronoUnit.DAYS).toInstant()));
+        u2Finished.setFinished(true);
+        Borrow u2Late = Fixtures.newBorrow(u2, l1, b2);
+        u2Late.setRequestedReturn(Date.from(ZonedDateTime.now().minus(1, ChronoUnit.DAYS).toInstant()));
+        Borrow u2TooFar = Fixtures.newBorrow(u2, l1, b3);
+        u2TooFar.setRequestedReturn(Date.from(ZonedDateTime.now().plus(10, ChronoUnit.DAYS).toInstant()));
+        for (Borrow borrow : List.of(u1Soon, u1Later, u2Soon, u2Finished, u2Late, u2TooFar)) {
+            entityManager.persist(borrow);
+        }
+        entityManager.flush();
+
+        List<Borrow> first = repository.findOpenDueBetween(now, inAWeek, Long.MIN_VALUE, Long.MIN_VALUE, 2);
+        assertThat(first).containsExactly(u1Soon, u1Later);
+        Borrow last = first.get(1);
+        assertThat(repository.findOpenDueBetween(now, inAWeek, last.getBorrower().getId(), last.getId(), 2))
+                .containsExactly(u2Soon);
+        // reprise après un emprunteur entièrement traité
+        assertThat(repository.findOpenDueBetween(now, inAWeek, u1.getId(), Long.MAX_VALUE, 2))
+                .containsExactly(u2Soon);
+    }
 }
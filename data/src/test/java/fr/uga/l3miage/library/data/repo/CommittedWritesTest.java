@@ -0,0 +1,147 @@
+package fr.uga.l3miage.library.data.repo;
+
+import fr.uga.l3miage.library.TestApp;
+import fr.uga.l3miage.library.data.domain.*;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Les index en mémoire ne reçoivent les écritures qu'à la validation : ces tests valident donc leurs transactions
+ * (au lieu de les annuler comme {@link Base}) et suppriment ensuite ce qu'ils ont écrit.
+ */
+@SpringBootTest(classes = TestApp.class, webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@DirtiesContext
+class CommittedWritesTest {
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    BookRepository bookRepository;
+
+    @Autowired
+    AuthorRepository authorRepository;
+
+    @Autowired
+    BorrowRepository borrowRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+    private final List<Object> committed = new ArrayList<>();
+
+    @BeforeEach
+    void setupTransactions() {
+        // chaque appel est une nouvelle transaction, même imbriqué dans un autre
+        transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @AfterEach
+    void deleteCommitted() {
+        // supprimés dans l'ordre d'ajout : ceux qui référencent les autres d'abord
+        transaction.executeWithoutResult(status -> committed.forEach(entity -> entityManager.remove(entityManager.find(
+                entity.getClass(), entityManager.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(entity)))));
+        committed.clear();
+    }
+
+    @Test
+    void otherTransactionsOnlySeeCommittedWrites() {
+
+        Author author = Fixtures.newAuthor();
+        author.setFullName("Zébulon Quatremare");
+        Book book = Fixtures.newBook();
+        author.addBook(book);
+        book.addAuthor(author);
+
+        transaction.executeWithoutResult(status -> {
+            entityManager.persist(author);
+            entityManager.persist(book);
+
+            // la transaction qui écrit voit ses écritures
+            assertThat(bookRepository.existingIsbns(List.of(book.getIsbn()))).containsExactly(book.getIsbn());
+            assertThat(bookRepository.findByIsbn(book.getIsbn())).isEqualTo(book);
+            assertThat(authorRepository.suggest("zebulon", 10)).extracting(Author::getId).containsExactly(author.getId());
+
+            // les autres non, tant qu'elles ne sont pas validées
+            transaction.executeWithoutResult(other -> {
+                assertThat(bookRepository.existingIsbns(List.of(book.getIsbn()))).isEmpty();
+                assertThat(authorRepository.suggest("zebulon", 10)).isEmpty();
+            });
+        });
+        committed.add(book);
+        committed.add(author);
+
+        transaction.executeWithoutResult(status -> {
+            assertThat(bookRepository.existingIsbns(List.of(book.getIsbn()))).containsExactly(book.getIsbn());
+            assertThat(authorRepository.suggest("zebulon", 10)).extracting(Author::getId).containsExactly(author.getId());
+        });
+    }
+
+    @Test
+    void rolledBackWritesAreNeverIndexed() {
+
+        Author author = Fixtures.newAuthor();
+        author.setFullName("Zéphyrin Boisrond");
+
+        transaction.executeWithoutResult(status -> {
+            entityManager.persist(author);
+            assertThat(authorRepository.suggest("zephyrin", 10)).extracting(Author::getId).containsExactly(author.getId());
+            status.setRollbackOnly();
+        });
+
+        transaction.executeWithoutResult(status -> assertThat(authorRepository.suggest("zephyrin", 10)).isEmpty());
+    }
+
+    @Test
+    void lateBorrowsArePolledOnceCommitted() {
+
+        Book book = Fixtures.newBook();
+        User user = Fixtures.newUser();
+        Librarian librarian = Fixtures.newLibrarian();
+        Borrow late = Fixtures.newBorrow(user, librarian, book);
+        late.setRequestedReturn(Date.from(ZonedDateTime.now().minus(5, ChronoUnit.DAYS).toInstant()));
+
+        transaction.executeWithoutResult(status -> {
+            entityManager.persist(book);
+            entityManager.persist(user);
+            entityManager.persist(librarian);
+            entityManager.persist(late);
+
+            assertThat(borrowRepository.foundAllLateBorrow()).containsExactly(late);
+            assertThat(borrowRepository.countCurrentBorrowedBooksByUser(user.getId())).isEqualTo(1);
+            // pas encore validé : pas relevé
+            assertThat(borrowRepository.pollNewlyOverdue()).isEmpty();
+
+            transaction.executeWithoutResult(other -> {
+                assertThat(borrowRepository.foundAllLateBorrow()).isEmpty();
+                assertThat(borrowRepository.countCurrentBorrowedBooksByUser(user.getId())).isZero();
+            });
+        });
+        committed.addAll(List.of(late, book, user, librarian));
+
+        transaction.executeWithoutResult(status -> {
+            assertThat(borrowRepository.foundAllLateBorrow()).containsExactly(late);
+            assertThat(borrowRepository.countCurrentBorrowedBooksByUser(user.getId())).isEqualTo(1);
+            assertThat(borrowRepository.pollNewlyOverdue()).containsExactly(late);
+            assertThat(borrowRepository.pollNewlyOverdue()).isEmpty();
+        });
+    }
+}
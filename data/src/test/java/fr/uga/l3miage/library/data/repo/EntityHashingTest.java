@@ -0,0 +1,117 @@
+package fr.uga.l3miage.library.data.repo;
+
+import fr.uga.l3miage.library.data.domain.*;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie ce que coûte le hachage des entités : ni requête SQL, ni parcours du graphe d'objets.
+ */
+class EntityHashingTest extends Base {
+
+    private static final int ROUNDS = 1_000;
+
+    @Test
+    void hashingLoadedEntitiesRunsNoStatement() {
+
+        User u1 = Fixtures.newUser();
+        Librarian l1 = Fixtures.newLibrarian();
+        entityManager.persist(u1);
+        entityManager.persist(l1);
+        for (int i = 0; i < 20; i++) {
+            Author author = Fixtures.newAuthor();
+            Book book = Fixtures.newBook();
+            author.addBook(book);
+            book.addAuthor(author);
+            entityManager.persist(author);
+            entityManager.persist(book);
+            entityManager.persist(Fixtures.newBorrow(u1, l1, book));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Book> books = entityManager.createQuery("SELECT b FROM Book b", Book.class).getResultList();
+        List<Borrow> borrows = entityManager.createQuery("SELECT b FROM Borrow b", Borrow.class).getResultList();
+
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        for (int round = 0; round < ROUNDS; round++) {
+            Set<Object> set = new HashSet<>(books);
+            set.addAll(borrows);
+            assertThat(set).hasSize(books.size() + borrows.size());
+            assertThat(set.contains(books.get(0))).isTrue();
+        }
+
+        // chaque entité a son hash : un ensemble d'entités ne dégénère pas en liste
+        assertThat(books.stream().mapToInt(Book::hashCode).distinct().count()).isEqualTo(books.size());
+        assertThat(borrows.stream().mapToInt(Borrow::hashCode).distinct().count()).isEqualTo(borrows.size());
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(books).allSatisfy(book -> assertThat(Hibernate.isInitialized(book.getAuthors())).isFalse());
+        assertThat(borrows).allSatisfy(borrow -> assertThat(Hibernate.isInitialized(borrow.getBooks())).isFalse());
+    }
+
+    @Test
+    void hashingDoesNotWalkTheManagerChain() {
+
+        // une longue chaîne hiérarchique : l'ancien hashCode la parcourait récursivement
+        // jusqu'à dépasser la pile
+        Librarian manager = null;
+        for (int i = 0; i < 100_000; i++) {
+            Librarian librarian = new Librarian();
+            librarian.setManager(manager);
+            manager = librarian;
+        }
+        Librarian deepest = manager;
+
+        Set<Librarian> set = new HashSet<>();
+        for (int round = 0; round < ROUNDS; round++) {
+            set.add(deepest);
+        }
+        assertThat(set).containsExactly(deepest);
+        assertThat(deepest.hashCode()).isNotEqualTo(deepest.getManager().hashCode());
+        assertThat(deepest).isNotEqualTo(deepest.getManager());
+    }
+
+    @Test
+    void equalityFollowsTheIdentityKey() {
+
+        Author author = Fixtures.newAuthor();
+        Book book = Fixtures.newBook();
+        author.addBook(book);
+        book.addAuthor(author);
+        Set<Book> books = new HashSet<>(Set.of(book));
+        Set<Author> authors = new HashSet<>(Set.of(author));
+        entityManager.persist(author);
+        entityManager.persist(book);
+        entityManager.flush();
+
+        // le hash ne change ni quand l'id est attribué, ni quand les champs changent
+        book.setIsbn(book.getIsbn() + 1);
+        author.setFullName(author.getFullName() + " fils");
+        assertThat(books).contains(book);
+        assertThat(authors).contains(author);
+        entityManager.flush();
+        entityManager.clear();
+
+        Book reloaded = entityManager.find(Book.class, book.getId());
+        assertThat(reloaded).isEqualTo(book).hasSameHashCodeAs(book).isNotSameAs(book);
+        assertThat(books).contains(reloaded);
+        assertThat(entityManager.getReference(Author.class, author.getId())).isEqualTo(author);
+        assertThat(Fixtures.newBook()).isNotEqualTo(Fixtures.newBook());
+
+        // deux livres distincts ne sont pas égaux, même avec le même ISBN
+        Book sameIsbn = Fixtures.newBook();
+        sameIsbn.setIsbn(book.getIsbn());
+        assertThat(sameIsbn).isNotEqualTo(book);
+    }
+}
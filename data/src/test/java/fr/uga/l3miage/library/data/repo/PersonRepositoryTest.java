@@ -98,6 +98,53 @@ class PersonRepositoryTest extends Base {
 
     }
 
+    @Test
+    void topWorkingLibrariansOverAPeriod() {
+
+        Librarian l1 = Fixtures.newLibrarian();
+        Librarian l2 = Fixtures.newLibrarian();
+        Librarian l3 = Fixtures.newLibrarian();
+        entityManager.persist(l1);
+        entityManager.persist(l2);
+        entityManager.persist(l3);
+
+        User u1 = Fixtures.newUser();
+        entityManager.persist(u1);
+        Book b1 = Fixtures.newBook();
+        entityManager.persist(b1);
+
+        java.util.Date lastYear = Date.from(ZonedDateTime.now().minus(365, ChronoUnit.DAYS).toInstant());
+        java.util.Date lastWeek = Date.from(ZonedDateTime.now().minus(7, ChronoUnit.DAYS).toInstant());
+        java.util.Date monthAgo = Date.from(ZonedDateTime.now().minus(30, ChronoUnit.DAYS).toInstant());
+
+        // l1 a beaucoup travaillé l'an dernier, l2 et l3 récemment
+        for (int i = 0; i < 5; i++) {
+            Borrow borrow = Fixtures.newBorrow(u1, l1, b1);
+            borrow.setStart(lastYear);
+            entityManager.persist(borrow);
+        }
+        for (int i = 0; i < 3; i++) {
+            Borrow borrow = Fixtures.newBorrow(u1, l2, b1);
+            borrow.setStart(lastWeek);
+            entityManager.persist(borrow);
+        }
+        for (int i = 0; i < 2; i++) {
+            Borrow borrow = Fixtures.newBorrow(u1, l3, b1);
+            borrow.setStart(lastWeek);
+            entityManager.persist(borrow);
+        }
+        entityManager.flush();
+
+        assertThat(librarianRepository.topWorkingLibrarians(2, null, null))
+                .containsExactly(l1, l2);
+        assertThat(librarianRepository.topWorkingLibrarians(5, monthAgo, null))
+                .containsExactly(l2, l3);
+        assertThat(librarianRepository.topWorkingLibrarians(5, null, monthAgo))
+                .containsExactly(l1);
+        assertThat(librarianRepository.topWorkingLibrarians(0, null, null)).isEmpty();
+
+    }
+
     @Test
     void findAllOlderThan() {
 
@@ -118,4 +165,73 @@ class PersonRepositoryTest extends Base {
         assertThat(allOlderThan).containsExactlyInAnyOrder(u2, u3);
 
     }
+
+    @Test
+    void lateRatioFollowsReturns() {
+
+        User u1 = Fixtures.newUser();
+        Librarian l1 = Fixtures.newLibrarian();
+        Book b1 = Fixtures.newBook();
+        entityManager.persist(u1);
+        entityManager.persist(l1);
+        entityManager.persist(b1);
+
+        Borrow late = Fixtures.newBorrow(u1, l1, b1);
+        late.setRequestedReturn(Date.from(ZonedDateTime.now().minus(2, ChronoUnit.DAYS).toInstant()));
+        Borrow onTime = Fixtures.newBorrow(u1, l1, b1);
+        onTime.setRequestedReturn(Date.from(ZonedDateTime.now().plus(2, ChronoUnit.DAYS).toInstant()));
+        entityManager.persist(late);
+        entityManager.persist(onTime);
+
+        late.finish(new Date(System.currentTimeMillis()));
+        onTime.finish(new Date(System.currentTimeMillis()));
+        assertThat(u1.getReturnCount()).isEqualTo(2);
+        assertThat(u1.getLateReturnCount()).isEqualTo(1);
+        assertThat(u1.getLateRatio()).isEqualTo(0.5f);
+
+        // un emprunt rouvert n'est plus compté
+        late.reopen();
+        assertThat(u1.getReturnCount()).isEqualTo(1);
+        assertThat(u1.getLateRatio()).isZero();
+    }
+
+    @Test
+    void recomputeLateRatios() {
+
+        User u1 = Fixtures.newUser();
+        User u2 = Fixtures.newUser();
+        Librarian l1 = Fixtures.newLibrarian();
+        Book b1 = Fixtures.newBook();
+        entityManager.persist(u1);
+        entityManager.persist(u2);
+        entityManager.persist(l1);
+        entityManager.persist(b1);
+
+        for (int i = 0; i < 4; i++) {
+            Borrow borrow = Fixtures.newBorrow(u1, l1, b1);
+            // un emprunt sur quatre est rendu en retard
+            borrow.setRequestedReturn(Date.from(ZonedDateTime.now().plus(i == 0 ? -2 : 2, ChronoUnit.DAYS).toInstant()));
+            entityManager.persist(borrow);
+            borrow.finish(new Date(System.currentTimeMillis()));
+        }
+        entityManager.persist(Fixtures.newBorrow(u2, l1, b1));
+        entityManager.flush();
+
+        // les compteurs dérivent, par exemple après une mise à jour en masse
+        entityManager.createQuery("UPDATE User u SET u.returnCount = 10, u.lateReturnCount = 10, u.lateRatio = 1.0")
+                .executeUpdate();
+        entityManager.clear();
+
+        long[] range = userRepository.idRange();
+        assertThat(userRepository.recomputeLateRatios(range[0], range[1] + 1)).isEqualTo(2);
+        entityManager.clear();
+
+        User reloaded1 = entityManager.find(User.class, u1.getId());
+        assertThat(reloaded1.getReturnCount()).isEqualTo(4);
+        assertThat(reloaded1.getLateReturnCount()).isEqualTo(1);
+        assertThat(reloaded1.getLateRatio()).isEqualTo(0.25f);
+        User reloaded2 = entityManager.find(User.class, u2.getId());
+        assertThat(reloaded2.getReturnCount()).isZero();
+        assertThat(reloaded2.getLateRatio()).isZero();
+    }
 }
@@ -0,0 +1,39 @@
+package fr.uga.l3miage.library.service;
+
+import fr.uga.l3miage.library.data.repo.BookRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Checks the denormalized author count of every book against the author/book join table and fixes the
+ * books that drifted. Runs daily at <code>library.author-count.verify-cron</code> (3:30 am by default).
+ */
+@Component
+public class AuthorCountVerification {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AuthorCountVerification.class);
+
+    private final BookRepository bookRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public AuthorCountVerification(BookRepository bookRepository, PlatformTransactionManager transactionManager) {
+        this.bookRepository = bookRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(cron = "${library.author-count.verify-cron:0 30 3 * * *}")
+    public void verify() {
+        List<Long> fixed = transactionTemplate.execute(status -> bookRepository.fixAuthorCounts());
+        if (fixed != null && !fixed.isEmpty()) {
+            LOGGER.warn("author count of {} book(s) was out of sync and has been fixed: {}", fixed.size(), fixed);
+        }
+    }
+}
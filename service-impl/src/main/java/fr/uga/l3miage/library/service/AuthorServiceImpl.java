@@ -1,35 +1,61 @@
 package fr.uga.l3miage.library.service;
 
 import fr.uga.l3miage.library.data.domain.Author;
-import fr.uga.l3miage.library.data.domain.Book;
+import fr.uga.l3miage.library.data.projection.AuthorView;
 import fr.uga.l3miage.library.data.repo.AuthorRepository;
+import fr.uga.l3miage.library.data.repo.BookRepository;
+import jakarta.persistence.OptimisticLockException;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.Collection;
-import java.util.Objects;
-import java.util.Optional;
-import java.util.Set;
+import java.util.List;
 
 @Service
 @Transactional
 public class AuthorServiceImpl implements AuthorService {
 
     private final AuthorRepository authorRepository;
-    private final BookService bookService;
+    private final BookRepository bookRepository;
 
     @Autowired
-    public AuthorServiceImpl(AuthorRepository authorRepository, BookService bookService) {
+    public AuthorServiceImpl(AuthorRepository authorRepository, BookRepository bookRepository) {
         this.authorRepository = authorRepository;
-        this.bookService = bookService;
+        this.bookRepository = bookRepository;
     }
 
     @Override
+    @ReadOnlyTransactional
     public Collection<Author> searchByName(String name) {
         return authorRepository.searchByName(name);
     }
 
+    @Override
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public Collection<Author> suggest(String prefix, int limit) {
+        // served from the in-memory name index, no need for a transaction
+        return authorRepository.suggest(prefix, limit);
+    }
+
+
+    @Override
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public List<CoAuthor> coAuthors(Long id) throws EntityNotFoundException {
+        if (authorRepository.get(id) == null) {
+            throw new EntityNotFoundException("author with id=%d not found".formatted(id));
+        }
+        // co-authors come from the in-memory co-authorship graph, only the authors themselves are loaded
+        return authorRepository.coAuthors(id).stream()
+                .map(coAuthor -> new CoAuthor(coAuthor.author(), coAuthor.sharedBooks()))
+                .toList();
+    }
+
+    @Override
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public long modificationCount() {
+        return authorRepository.modificationCount();
+    }
 
     @Override
     public Author save(Author author) {
@@ -37,51 +63,69 @@ public class AuthorServiceImpl implements AuthorService {
     }
 
     @Override
+    @ReadOnlyTransactional
     public Author get(Long id) throws EntityNotFoundException {
         return authorRepository.get(id);
     }
 
 
     @Override
+    @ReadOnlyTransactional
     public Collection<Author> list() {
         return authorRepository.all();
     }
 
     @Override
-    public Author update(Author author) throws EntityNotFoundException {
-        return authorRepository.save(author);
+    @ReadOnlyTransactional
+    public Collection<Author> list(String afterFullName, Long afterId, int limit) {
+        return authorRepository.page(afterFullName, afterId, limit);
     }
 
     @Override
-    public void delete(Long id) throws EntityNotFoundException, DeleteAuthorException {
-        Author author = get(id);
-        if (author == null) {
-            throw new EntityNotFoundException("author with id=%d not found".formatted(id));
-        }
-        Set<Book> books = author
-                .getBooks();
-        if (books != null) {
-
-            Optional<Integer> bookWithManyAuthor = books.stream()
-                    .map(Book::getAuthors)
-                    .filter(Objects::nonNull)
-                    .map(Collection::size)
-                    .filter(s -> s > 1)
-                    .findFirst();
-
-            if (bookWithManyAuthor.isPresent()) {
-                throw new DeleteAuthorException("cannot delete author, one or several books are co-authored");
-            }
+    @ReadOnlyTransactional
+    public Collection<AuthorView> listViews() {
+        return authorRepository.allViews();
+    }
 
-            for (Book book : books) {
-                bookService.delete(book.getId());
-            }
+    @Override
+    @ReadOnlyTransactional
+    public Collection<AuthorView> listViews(String afterFullName, Long afterId, int limit) {
+        return authorRepository.pageViews(afterFullName, afterId, limit);
+    }
 
+    @Override
+    public Author update(Author author) throws EntityNotFoundException {
+        // no last-writer-wins path: the update is based on the version the author was read at, and fails as a merge
+        // of a stale versioned entity would
+        try {
+            return update(author, author.getVersion());
+        } catch (StaleVersionException e) {
+            throw new OptimisticLockException(e.getMessage(), e, author);
         }
+    }
 
-        authorRepository.delete(author);
-
+    @Override
+    public Author update(Author author, long version) throws EntityNotFoundException, StaleVersionException {
+        if (!authorRepository.updateIfVersion(author, version)) {
+            if (authorRepository.findVersion(author.getId()) == null) {
+                throw new EntityNotFoundException("author with id=%d not found".formatted(author.getId()));
+            }
+            throw new StaleVersionException("author with id=%d was modified since version %d".formatted(author.getId(), version));
+        }
+        return get(author.getId());
+    }
 
+    @Override
+    public void delete(Long id) throws EntityNotFoundException, DeleteAuthorException {
+        if (authorRepository.get(id) == null) {
+            throw new EntityNotFoundException("author with id=%d not found".formatted(id));
+        }
+        if (authorRepository.checkAuthorByIdHavingCoAuthoredBooks(id)) {
+            throw new DeleteAuthorException("cannot delete author, one or several books are co-authored");
+        }
+        // a few set-based statements whatever the number of books; the persistence context is cleared
+        bookRepository.deleteByAuthor(id);
+        authorRepository.delete(authorRepository.get(id));
     }
 
 }
@@ -2,13 +2,16 @@ package fr.uga.l3miage.library.service;
 
 import fr.uga.l3miage.library.data.domain.Author;
 import fr.uga.l3miage.library.data.domain.Book;
+import fr.uga.l3miage.library.data.projection.BookView;
 import fr.uga.l3miage.library.data.repo.BookRepository;
+import jakarta.persistence.OptimisticLockException;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.Collection;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @Service
 @Transactional
@@ -32,19 +35,73 @@ public class BookServiceImpl implements BookService {
 
 
     @Override
+    public Collection<Book> saveAll(Long authorId, Collection<Book> books) throws EntityNotFoundException {
+        Author author = authorService.get(authorId);
+        if (author == null) {
+            throw new EntityNotFoundException("author with id=%d not found".formatted(authorId));
+        }
+        return bookRepository.saveAll(author, books);
+    }
+
+    @Override
+    @ReadOnlyTransactional
     public Book get(Long id) throws EntityNotFoundException {
         return Optional.ofNullable(bookRepository.get(id))
                 .orElseThrow(() -> new EntityNotFoundException("Cannot find book with id: " + id));
     }
 
     @Override
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public Book getByIsbn(long isbn) throws EntityNotFoundException {
+        // served from the in-memory ISBN index and the second-level cache, no need for a transaction
+        return Optional.ofNullable(bookRepository.findByIsbn(isbn))
+                .orElseThrow(() -> new EntityNotFoundException("Cannot find book with isbn: " + isbn));
+    }
+
+    @Override
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public long modificationCount() {
+        return bookRepository.modificationCount();
+    }
+
+    @Override
+    @ReadOnlyTransactional
     public Collection<Book> list() {
         return bookRepository.all();
     }
 
+    @Override
+    @ReadOnlyTransactional
+    public Collection<Book> list(String afterTitle, Long afterId, int limit) {
+        return bookRepository.page(afterTitle, afterId, limit);
+    }
+
+    @Override
+    @ReadOnlyTransactional
+    public void export(Consumer<Book> consumer) {
+        bookRepository.forEach(consumer);
+    }
+
     @Override
     public Book update(Book book) throws EntityNotFoundException {
-        return bookRepository.save(book);
+        // no last-writer-wins path: the update is based on the version the book was read at, and fails as a merge
+        // of a stale versioned entity would
+        try {
+            return update(book, book.getVersion());
+        } catch (StaleVersionException e) {
+            throw new OptimisticLockException(e.getMessage(), e, book);
+        }
+    }
+
+    @Override
+    public Book update(Book book, long version) throws EntityNotFoundException, StaleVersionException {
+        if (!bookRepository.updateIfVersion(book, version)) {
+            if (bookRepository.findVersion(book.getId()) == null) {
+                throw new EntityNotFoundException("book with id=%d not found".formatted(book.getId()));
+            }
+            throw new StaleVersionException("book with id=%d was modified since version %d".formatted(book.getId(), version));
+        }
+        return get(book.getId());
     }
 
     public Book addAuthor(Long bookId, Long authorId) throws EntityNotFoundException {
@@ -60,16 +117,41 @@ public class BookServiceImpl implements BookService {
     }
 
     @Override
+    @ReadOnlyTransactional
     public Collection<Book> findByTitle(String title) {
         return bookRepository.findByContainingTitle(title);
     }
 
     @Override
+    @ReadOnlyTransactional
+    public Collection<BookView> listViews() {
+        return bookRepository.allViews();
+    }
+
+    @Override
+    @ReadOnlyTransactional
+    public Collection<BookView> listViews(String afterTitle, Long afterId, int limit) {
+        return bookRepository.pageViews(afterTitle, afterId, limit);
+    }
+
+    @Override
+    @ReadOnlyTransactional
+    public Collection<BookView> findViewsByTitle(String title) {
+        return bookRepository.findViewsByContainingTitle(title);
+    }
+
+    @Override
+    @ReadOnlyTransactional
     public Collection<Book> getByAuthor(Long authorId) throws EntityNotFoundException {
-        return authorService.get(authorId).getBooks();
+        if (authorService.get(authorId) == null) {
+            throw new EntityNotFoundException("author with id=%d not found".formatted(authorId));
+        }
+        // books and all their authors in a single statement, instead of one per book when mapped
+        return bookRepository.findByAuthorId(authorId);
     }
 
     @Override
+    @ReadOnlyTransactional
     public Collection<Book> findByAuthor(Long authorId, String title) throws EntityNotFoundException {
         return bookRepository.findByAuthorIdAndContainingTitle(authorId, title);
     }
@@ -0,0 +1,36 @@
+package fr.uga.l3miage.library.service;
+
+import fr.uga.l3miage.library.data.repo.BorrowRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Periodically checks the in-memory per-user borrow counters against the borrow rows and fixes them.
+ * The period is set by <code>library.borrow-counters.reconcile-interval</code> (10 minutes by default).
+ */
+@Component
+public class BorrowCountersReconciliation {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BorrowCountersReconciliation.class);
+
+    private final BorrowRepository borrowRepository;
+
+    @Autowired
+    public BorrowCountersReconciliation(BorrowRepository borrowRepository) {
+        this.borrowRepository = borrowRepository;
+    }
+
+    @Scheduled(fixedDelayString = "${library.borrow-counters.reconcile-interval:PT10M}",
+            initialDelayString = "${library.borrow-counters.reconcile-interval:PT10M}")
+    public void reconcile() {
+        Set<Long> fixed = borrowRepository.reconcileBorrowCounters();
+        if (!fixed.isEmpty()) {
+            LOGGER.warn("borrow counters of {} user(s) were out of sync and have been fixed: {}", fixed.size(), fixed);
+        }
+    }
+}
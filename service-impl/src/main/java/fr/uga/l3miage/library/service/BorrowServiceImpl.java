@@ -0,0 +1,43 @@
+package fr.uga.l3miage.library.service;
+
+import fr.uga.l3miage.library.data.domain.Borrow;
+import fr.uga.l3miage.library.data.repo.BorrowRepository;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+
+@Service
+@Transactional
+public class BorrowServiceImpl implements BorrowService {
+
+    private final BorrowRepository borrowRepository;
+
+    @Autowired
+    public BorrowServiceImpl(BorrowRepository borrowRepository) {
+        this.borrowRepository = borrowRepository;
+    }
+
+    @Override
+    public Borrow finish(Long id) throws EntityNotFoundException {
+        Borrow borrow = get(id);
+        borrow.finish(new Date());
+        return borrow;
+    }
+
+    @Override
+    public Borrow reopen(Long id) throws EntityNotFoundException {
+        Borrow borrow = get(id);
+        borrow.reopen();
+        return borrow;
+    }
+
+    private Borrow get(Long id) throws EntityNotFoundException {
+        Borrow borrow = borrowRepository.get(String.valueOf(id));
+        if (borrow == null) {
+            throw new EntityNotFoundException("borrow with id=%d not found".formatted(id));
+        }
+        return borrow;
+    }
+}
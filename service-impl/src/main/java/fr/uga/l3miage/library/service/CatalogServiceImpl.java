@@ -0,0 +1,63 @@
+package fr.uga.l3miage.library.service;
+
+import fr.uga.l3miage.library.data.domain.Author;
+import fr.uga.l3miage.library.data.domain.Book;
+import fr.uga.l3miage.library.data.repo.AuthorRepository;
+import fr.uga.l3miage.library.data.repo.BookRepository;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+@Transactional
+public class CatalogServiceImpl implements CatalogService {
+
+    private final AuthorRepository authorRepository;
+    private final BookRepository bookRepository;
+
+    @Autowired
+    public CatalogServiceImpl(AuthorRepository authorRepository, BookRepository bookRepository) {
+        this.authorRepository = authorRepository;
+        this.bookRepository = bookRepository;
+    }
+
+    @Override
+    public CatalogBatchResult importBatch(List<CatalogEntry> entries) {
+        // ISBNs are unique: duplicates are skipped one by one instead of failing the whole batch on insert
+        Set<Long> taken = bookRepository.existingIsbns(entries.stream().map(entry -> entry.book().getIsbn()).toList());
+        List<CatalogEntry> accepted = new ArrayList<>(entries.size());
+        for (CatalogEntry entry : entries) {
+            if (taken.add(entry.book().getIsbn())) {
+                accepted.add(entry);
+            }
+        }
+        Set<String> names = new LinkedHashSet<>();
+        accepted.forEach(entry -> names.addAll(entry.authorNames()));
+        // one lookup for the whole batch, then only the missing authors are inserted
+        Map<String, Author> authors = authorRepository.findByFullNames(names);
+        int created = 0;
+        for (String name : names) {
+            if (!authors.containsKey(name)) {
+                Author author = new Author();
+                author.setFullName(name);
+                authors.put(name, authorRepository.save(author));
+                created++;
+            }
+        }
+        List<Book> books = accepted.stream()
+                .map(entry -> {
+                    entry.authorNames().forEach(name -> entry.book().addAuthor(authors.get(name)));
+                    return entry.book();
+                })
+                .toList();
+        bookRepository.saveAll(books);
+        return new CatalogBatchResult(books.size(), entries.size() - books.size(), created);
+    }
+
+}
@@ -0,0 +1,124 @@
+package fr.uga.l3miage.library.service;
+
+import fr.uga.l3miage.library.data.domain.Borrow;
+import fr.uga.l3miage.library.data.repo.BorrowRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Reminds borrowers of their open borrows due within the next {@link ReminderProperties#days()} days.
+ * <p>
+ * Borrows are streamed from the database in chunks ordered by borrower, each read in its own read-only
+ * transaction, so memory does not depend on the number of borrows, and each borrower gets a single reminder
+ * through the {@link ReminderSink}. Progress is
+ * checkpointed after each chunk: a run interrupted by a restart resumes after the last borrower reminded,
+ * and a run that is complete for the day is not repeated.
+ * Runs daily at <code>library.reminders.cron</code> (7 am by default).
+ */
+@Component
+@EnableConfigurationProperties(ReminderProperties.class)
+public class DueSoonReminders {
+
+    private final BorrowRepository borrowRepository;
+    private final ReminderSink sink;
+    private final ReminderProperties properties;
+    private final Path checkpointFile;
+    private final TransactionTemplate readOnly;
+
+    @Autowired
+    public DueSoonReminders(BorrowRepository borrowRepository, ReminderSink sink, ReminderProperties properties,
+                            PlatformTransactionManager transactionManager) {
+        this.borrowRepository = borrowRepository;
+        this.sink = sink;
+        this.properties = properties;
+        this.checkpointFile = properties.directory().resolve("checkpoint");
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+    }
+
+    @Scheduled(cron = "${library.reminders.cron:0 0 7 * * *}")
+    public void remindToday() {
+        remind(LocalDate.now());
+    }
+
+    /**
+     * Reminds the borrowers of the borrows due between the start of the given day and the end of the
+     * reminder window, resuming a previous interrupted run of the same day
+     *
+     * @param day the run day
+     * @return the number of borrowers reminded by this call
+     */
+    public synchronized int remind(LocalDate day) {
+        ReminderCheckpoint checkpoint = ReminderCheckpoint.load(checkpointFile);
+        if (checkpoint == null || !checkpoint.day().equals(day)) {
+            checkpoint = ReminderCheckpoint.start(day);
+        } else if (checkpoint.done()) {
+            return 0;
+        }
+        try {
+            Files.createDirectories(properties.directory());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        ZoneId zone = ZoneId.systemDefault();
+        Date from = Date.from(day.atStartOfDay(zone).toInstant());
+        Date until = Date.from(day.plusDays(properties.days() + 1L).atStartOfDay(zone).toInstant());
+
+        int reminded = 0;
+        long lastReminded = checkpoint.lastBorrowerId();
+        // resume after the last borrower fully reminded
+        long afterBorrowerId = lastReminded;
+        long afterId = Long.MAX_VALUE;
+        List<Borrow> group = new ArrayList<>();
+        List<Borrow> chunk;
+        do {
+            chunk = readChunk(from, until, afterBorrowerId, afterId);
+            for (Borrow borrow : chunk) {
+                // borrows are ordered by borrower: a new borrower closes the current group
+                if (!group.isEmpty() && !borrowerId(group.get(0)).equals(borrowerId(borrow))) {
+                    sink.remind(group.get(0).getBorrower(), group);
+                    reminded++;
+                    lastReminded = borrowerId(group.get(0));
+                    group = new ArrayList<>();
+                }
+                group.add(borrow);
+            }
+            if (!chunk.isEmpty()) {
+                Borrow last = chunk.get(chunk.size() - 1);
+                afterBorrowerId = borrowerId(last);
+                afterId = last.getId();
+                new ReminderCheckpoint(day, lastReminded, false).save(checkpointFile);
+            }
+        } while (chunk.size() == properties.chunkSize());
+        if (!group.isEmpty()) {
+            sink.remind(group.get(0).getBorrower(), group);
+            reminded++;
+            lastReminded = borrowerId(group.get(0));
+        }
+        new ReminderCheckpoint(day, lastReminded, true).save(checkpointFile);
+        return reminded;
+    }
+
+    private List<Borrow> readChunk(Date from, Date until, long afterBorrowerId, long afterId) {
+        return readOnly.execute(status ->
+                borrowRepository.findOpenDueBetween(from, until, afterBorrowerId, afterId, properties.chunkSize()));
+    }
+
+    private static Long borrowerId(Borrow borrow) {
+        return borrow.getBorrower().getId();
+    }
+}
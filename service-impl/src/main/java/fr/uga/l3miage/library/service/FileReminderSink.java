@@ -0,0 +1,45 @@
+package fr.uga.l3miage.library.service;
+
+import fr.uga.l3miage.library.data.domain.Borrow;
+import fr.uga.l3miage.library.data.domain.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Default {@link ReminderSink}, appending one line per reminded borrower to <code>reminders.txt</code> in the
+ * reminder directory: <code>&lt;borrower id&gt;\t&lt;first name&gt; &lt;last name&gt;\t&lt;borrow id&gt;@&lt;due date&gt;,...</code>.
+ * Declare another {@link ReminderSink} bean as <code>@Primary</code> to send the reminders elsewhere.
+ */
+@Component
+public class FileReminderSink implements ReminderSink {
+
+    private final Path file;
+
+    @Autowired
+    public FileReminderSink(ReminderProperties properties) {
+        this.file = properties.directory().resolve("reminders.txt");
+    }
+
+    @Override
+    public synchronized void remind(User borrower, List<Borrow> dueSoon) {
+        String borrows = dueSoon.stream()
+                .map(b -> b.getId() + "@" + Instant.ofEpochMilli(b.getRequestedReturn().getTime()))
+                .collect(Collectors.joining(","));
+        String line = borrower.getId() + "\t" + borrower.getFirstName() + " " + borrower.getLastName() + "\t" + borrows + "\n";
+        try {
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, line, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package fr.uga.l3miage.library.service;
+
+import fr.uga.l3miage.library.data.repo.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Rebuilds the return counters and late ratio of every user from the borrows, e.g. after the definition
+ * of a late return changed. Day to day, the ratio is maintained incrementally by {@link BorrowService#finish(Long)}
+ * and {@link BorrowService#reopen(Long)}.
+ * <p>
+ * The user id range is split in a fork-join pool until ranges hold at most
+ * <code>library.late-ratio.backfill.chunk-size</code> ids. Each range is recomputed by bulk updates in its
+ * own transaction, so a failure only rolls back one range. Parallelism is bounded by
+ * <code>library.late-ratio.backfill.parallelism</code>, since each worker holds a database connection.
+ * Set <code>library.late-ratio.backfill.on-startup</code> to run it once the application is ready.
+ */
+@Component
+public class LateRatioBackfill {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LateRatioBackfill.class);
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int parallelism;
+    private final boolean onStartup;
+
+    @Autowired
+    public LateRatioBackfill(UserRepository userRepository, PlatformTransactionManager transactionManager,
+                             @Value("${library.late-ratio.backfill.chunk-size:1000}") int chunkSize,
+                             @Value("${library.late-ratio.backfill.parallelism:4}") int parallelism,
+                             @Value("${library.late-ratio.backfill.on-startup:false}") boolean onStartup) {
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.onStartup = onStartup;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (onStartup) {
+            int updated = backfill();
+            LOGGER.info("late ratio of {} user(s) rebuilt", updated);
+        }
+    }
+
+    /**
+     * Rebuilds the late ratio of all users
+     *
+     * @return the number of users updated
+     */
+    public int backfill() {
+        long[] range = userRepository.idRange();
+        if (range == null) {
+            return 0;
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.invoke(new RangeTask(range[0], range[1] + 1));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private final class RangeTask extends RecursiveTask<Integer> {
+
+        private final long fromId;
+        private final long toId;
+
+        RangeTask(long fromId, long toId) {
+            this.fromId = fromId;
+            this.toId = toId;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (toId - fromId <= chunkSize) {
+                Integer updated = transactionTemplate.execute(status -> userRepository.recomputeLateRatios(fromId, toId));
+                return updated == null ? 0 : updated;
+            }
+            long middle = fromId + (toId - fromId) / 2;
+            RangeTask low = new RangeTask(fromId, middle);
+            RangeTask high = new RangeTask(middle, toId);
+            high.fork();
+            return low.compute() + high.join();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package fr.uga.l3miage.library.service;
+
+import fr.uga.l3miage.library.data.domain.Borrow;
+import fr.uga.l3miage.library.data.repo.BorrowRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Periodically collects the borrows that became overdue and publishes them in an {@link OverdueBorrowsEvent}.
+ * The period is set by <code>library.overdue.poll-interval</code> (1 minute by default).
+ */
+@Component
+public class OverdueBorrowsNotifier {
+
+    private final BorrowRepository borrowRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    public OverdueBorrowsNotifier(BorrowRepository borrowRepository, ApplicationEventPublisher eventPublisher) {
+        this.borrowRepository = borrowRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Scheduled(fixedDelayString = "${library.overdue.poll-interval:PT1M}")
+    public void poll() {
+        List<Borrow> borrows = borrowRepository.pollNewlyOverdue();
+        if (!borrows.isEmpty()) {
+            eventPublisher.publishEvent(new OverdueBorrowsEvent(borrows));
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package fr.uga.l3miage.library.service;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs a service method in a read-only transaction, which a routing data source may send to a read replica.
+ * Overrides the class-level <code>jakarta.transaction.Transactional</code>, which has no read-only flag.
+ * Joining a read-write transaction already in progress, the method stays on its connection.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Transactional(readOnly = true)
+public @interface ReadOnlyTransactional {
+}
@@ -0,0 +1,51 @@
+package fr.uga.l3miage.library.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+
+/**
+ * Progress of a reminder run, saved to a file so that a restarted run resumes after the last
+ * borrower already reminded instead of rescanning the borrows.
+ *
+ * @param day             the run day
+ * @param lastBorrowerId  id of the last borrower reminded, borrowers are processed by increasing id
+ * @param done            true once the run is complete
+ */
+record ReminderCheckpoint(LocalDate day, long lastBorrowerId, boolean done) {
+
+    static ReminderCheckpoint start(LocalDate day) {
+        return new ReminderCheckpoint(day, Long.MIN_VALUE, false);
+    }
+
+    /**
+     * @return the checkpoint saved in the file, or null if there is none
+     */
+    static ReminderCheckpoint load(Path file) {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            String[] fields = Files.readString(file).trim().split(" ");
+            return new ReminderCheckpoint(LocalDate.parse(fields[0]), Long.parseLong(fields[1]), Boolean.parseBoolean(fields[2]));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Saves the checkpoint, replacing the file atomically so that a crash never leaves a partial checkpoint
+     */
+    void save(Path file) {
+        try {
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.writeString(tmp, day + " " + lastBorrowerId + " " + done);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
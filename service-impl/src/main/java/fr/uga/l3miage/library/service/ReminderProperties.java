@@ -0,0 +1,28 @@
+package fr.uga.l3miage.library.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+
+/**
+ * Settings of the due-soon reminders, read from <code>library.reminders.*</code>.
+ *
+ * @param days      borrows due within this many days after the run day are reminded
+ * @param chunkSize number of borrows read per query
+ * @param directory directory of the reminder file and of the pipeline checkpoint; a relative directory is taken
+ *                  from the user's home directory, not from the directory the application was started in
+ */
+@ConfigurationProperties("library.reminders")
+public record ReminderProperties(
+        @DefaultValue("3") int days,
+        @DefaultValue("500") int chunkSize,
+        @DefaultValue("library/reminders") Path directory
+) {
+
+    public ReminderProperties {
+        if (!directory.isAbsolute()) {
+            directory = Path.of(System.getProperty("user.home")).resolve(directory);
+        }
+    }
+}
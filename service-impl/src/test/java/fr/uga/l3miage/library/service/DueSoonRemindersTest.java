@@ -0,0 +1,135 @@
+package fr.uga.l3miage.library.service;
+
+import fr.uga.l3miage.library.data.domain.Borrow;
+import fr.uga.l3miage.library.data.domain.User;
+import fr.uga.l3miage.library.data.repo.BorrowRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DueSoonRemindersTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2023, 3, 6);
+
+    @TempDir
+    Path directory;
+
+    private final BorrowRepository borrowRepository = mock(BorrowRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    /**
+     * Open borrows due soon, ordered by borrower then id as the repository returns them
+     */
+    private final List<Borrow> borrows = new ArrayList<>();
+    private ReminderProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ReminderProperties(3, 2, directory);
+        User u1 = user(1);
+        User u2 = user(2);
+        User u3 = user(3);
+        borrows.addAll(List.of(borrow(11, u1), borrow(12, u1), borrow(13, u1), borrow(21, u2), borrow(31, u3), borrow(32, u3)));
+        when(borrowRepository.findOpenDueBetween(any(), any(), anyLong(), anyLong(), anyInt())).thenAnswer(invocation -> {
+            long afterBorrowerId = invocation.getArgument(2);
+            long afterId = invocation.getArgument(3);
+            int limit = invocation.getArgument(4);
+            return borrows.stream()
+                    .filter(b -> b.getBorrower().getId() > afterBorrowerId
+                            || (b.getBorrower().getId() == afterBorrowerId && b.getId() > afterId))
+                    .limit(limit)
+                    .toList();
+        });
+    }
+
+    @Test
+    void borrowersAreRemindedOnceAcrossChunks() throws IOException {
+        var reminders = new DueSoonReminders(borrowRepository, new FileReminderSink(properties), properties, transactionManager);
+
+        assertThat(reminders.remind(TODAY)).isEqualTo(3);
+
+        // the three borrows of the first borrower span two chunks of two
+        assertThat(Files.readAllLines(directory.resolve("reminders.txt")))
+                .extracting(line -> line.split("\t")[2].replaceAll("@[^,]*", ""))
+                .containsExactly("11,12,13", "21", "31,32");
+        // one read-only transaction per chunk, the last one empty
+        verify(transactionManager, times(4)).getTransaction(argThat(TransactionDefinition::isReadOnly));
+    }
+
+    @Test
+    void interruptedRunResumesAfterTheLastCheckpoint() throws IOException {
+        var sink = new FileReminderSink(properties);
+        ReminderSink failing = (borrower, dueSoon) -> {
+            if (borrower.getId() == 3) {
+                throw new IllegalStateException("mail gateway down");
+            }
+            sink.remind(borrower, dueSoon);
+        };
+        assertThatThrownBy(() -> new DueSoonReminders(borrowRepository, failing, properties, transactionManager).remind(TODAY))
+                .isInstanceOf(IllegalStateException.class);
+
+        // restarted: only the borrower not reminded yet is
+        var reminders = new DueSoonReminders(borrowRepository, sink, properties, transactionManager);
+        assertThat(reminders.remind(TODAY)).isEqualTo(1);
+        assertThat(Files.readAllLines(directory.resolve("reminders.txt")))
+                .extracting(line -> line.split("\t")[0])
+                .containsExactly("1", "2", "3");
+    }
+
+    @Test
+    void runIsDoneForTheDay() throws IOException {
+        var reminders = new DueSoonReminders(borrowRepository, new FileReminderSink(properties), properties, transactionManager);
+        assertThat(reminders.remind(TODAY)).isEqualTo(3);
+
+        assertThat(reminders.remind(TODAY)).isZero();
+        assertThat(Files.readAllLines(directory.resolve("reminders.txt"))).hasSize(3);
+
+        // a new day starts over
+        assertThat(reminders.remind(TODAY.plusDays(1))).isEqualTo(3);
+        assertThat(Files.readAllLines(directory.resolve("reminders.txt"))).hasSize(6);
+    }
+
+    @Test
+    void relativeDirectoryIsTakenFromTheHomeDirectory() {
+        assertThat(new ReminderProperties(3, 500, Path.of("library/reminders")).directory())
+                .isEqualTo(Path.of(System.getProperty("user.home"), "library", "reminders"));
+        assertThat(properties.directory()).isEqualTo(directory);
+    }
+
+    private static User user(long id) {
+        User user = mock(User.class);
+        when(user.getId()).thenReturn(id);
+        when(user.getFirstName()).thenReturn("first" + id);
+        when(user.getLastName()).thenReturn("last" + id);
+        return user;
+    }
+
+    private static Borrow borrow(long id, User borrower) {
+        Borrow borrow = mock(Borrow.class);
+        when(borrow.getId()).thenReturn(id);
+        when(borrow.getBorrower()).thenReturn(borrower);
+        when(borrow.getRequestedReturn()).thenReturn(Date.from(TODAY.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant()));
+        return borrow;
+    }
+}
@@ -0,0 +1,73 @@
+package fr.uga.l3miage.library.service;
+
+import fr.uga.l3miage.library.data.repo.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LateRatioBackfillTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    /**
+     * Ranges recomputed, as [fromId, toId)
+     */
+    private final ConcurrentLinkedQueue<List<Long>> ranges = new ConcurrentLinkedQueue<>();
+
+    @Test
+    void rangeIsSplitDownToTheChunkSize() {
+        when(userRepository.idRange()).thenReturn(new long[]{3, 9});
+        when(userRepository.recomputeLateRatios(anyLong(), anyLong())).thenAnswer(invocation -> {
+            long fromId = invocation.getArgument(0);
+            long toId = invocation.getArgument(1);
+            ranges.add(List.of(fromId, toId));
+            return (int) (toId - fromId);
+        });
+
+        assertThat(new LateRatioBackfill(userRepository, transactionManager, 1, 2, false).backfill()).isEqualTo(7);
+
+        // every id once, one id per range, each range in its own transaction
+        assertThat(ranges).containsExactlyInAnyOrderElementsOf(LongStream.rangeClosed(3, 9)
+                .mapToObj(id -> List.of(id, id + 1))
+                .toList());
+        verify(transactionManager, times(7)).getTransaction(any());
+        verify(transactionManager, times(7)).commit(any());
+    }
+
+    @Test
+    void failedRangeIsRolledBackAlone() {
+        when(userRepository.idRange()).thenReturn(new long[]{1, 4});
+        when(userRepository.recomputeLateRatios(anyLong(), anyLong())).thenAnswer(invocation -> {
+            long fromId = invocation.getArgument(0);
+            if (fromId == 2) {
+                throw new IllegalStateException("deadlock");
+            }
+            return 1;
+        });
+
+        assertThatThrownBy(() -> new LateRatioBackfill(userRepository, transactionManager, 1, 1, false).backfill())
+                .isInstanceOf(IllegalStateException.class);
+        verify(transactionManager, times(1)).rollback(any());
+    }
+
+    @Test
+    void noUserNoRange() {
+        when(userRepository.idRange()).thenReturn(null);
+
+        assertThat(new LateRatioBackfill(userRepository, transactionManager, 1, 2, false).backfill()).isZero();
+        verify(userRepository, never()).recomputeLateRatios(anyLong(), anyLong());
+    }
+}
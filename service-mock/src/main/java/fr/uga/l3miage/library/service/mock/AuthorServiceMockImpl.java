@@ -2,12 +2,20 @@ package fr.uga.l3miage.library.service.mock;
 
 import fr.uga.l3miage.library.data.domain.Author;
 import fr.uga.l3miage.library.data.domain.Book;
+import fr.uga.l3miage.library.data.projection.AuthorView;
 import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.CoAuthor;
 import fr.uga.l3miage.library.service.DeleteAuthorException;
 import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.StaleVersionException;
 import org.springframework.stereotype.Component;
 
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
@@ -23,6 +31,44 @@ public class AuthorServiceMockImpl implements AuthorService {
                 .toList();
     }
 
+    @Override
+    public Collection<Author> suggest(String prefix, int limit) {
+        String lowerPrefix = prefix.toLowerCase();
+        return MockData.authors.values()
+                .stream()
+                .filter(author -> Arrays.stream(author.getFullName().toLowerCase().split("\\s+"))
+                        .anyMatch(word -> word.startsWith(lowerPrefix)))
+                .sorted(Comparator.comparing(Author::getFullName))
+                .limit(limit)
+                .toList();
+    }
+
+
+    @Override
+    public List<CoAuthor> coAuthors(Long id) throws EntityNotFoundException {
+        Author author = get(id);
+        if (author.getBooks() == null) {
+            return List.of();
+        }
+        Map<Author, Integer> sharedBooks = new HashMap<>();
+        author.getBooks().stream()
+                .map(Book::getAuthors)
+                .filter(Objects::nonNull)
+                .flatMap(Collection::stream)
+                .filter(coAuthor -> !coAuthor.getId().equals(id))
+                .forEach(coAuthor -> sharedBooks.merge(coAuthor, 1, Integer::sum));
+        return sharedBooks.entrySet().stream()
+                .map(entry -> new CoAuthor(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparingInt(CoAuthor::sharedBooks).reversed()
+                        .thenComparing(coAuthor -> coAuthor.author().getFullName()))
+                .toList();
+    }
+
+    @Override
+    public long modificationCount() {
+        // mock data are modified in place without tracking: listings are never considered unchanged
+        return System.nanoTime();
+    }
 
     @Override
     public Author save(Author author) {
@@ -46,11 +92,44 @@ public class AuthorServiceMockImpl implements AuthorService {
         return MockData.authors.values().stream().toList();
     }
 
+    @Override
+    public Collection<Author> list(String afterFullName, Long afterId, int limit) {
+        Comparator<Author> order = Comparator.comparing(Author::getFullName).thenComparing(Author::getId);
+        Author key = new Author();
+        key.setFullName(afterFullName);
+        key.setId(afterId);
+        return MockData.authors.values()
+                .stream()
+                .sorted(order)
+                .filter(author -> afterFullName == null || afterId == null || order.compare(author, key) > 0)
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public Collection<AuthorView> listViews() {
+        return list().stream().map(AuthorView::of).toList();
+    }
+
+    @Override
+    public Collection<AuthorView> listViews(String afterFullName, Long afterId, int limit) {
+        return list(afterFullName, afterId, limit).stream().map(AuthorView::of).toList();
+    }
+
     @Override
     public Author update(Author author) throws EntityNotFoundException {
-        get(author.getId());
-        doUpdate(author);
-        return MockData.authors.get(author.getId());
+        Author stored = get(author.getId());
+        stored.setFullName(author.getFullName());
+        stored.setVersion(stored.getVersion() + 1);
+        return stored;
+    }
+
+    @Override
+    public Author update(Author author, long version) throws EntityNotFoundException, StaleVersionException {
+        if (get(author.getId()).getVersion() != version) {
+            throw new StaleVersionException("author with id=%d was modified since version %d".formatted(author.getId(), version));
+        }
+        return update(author);
     }
 
     @Override
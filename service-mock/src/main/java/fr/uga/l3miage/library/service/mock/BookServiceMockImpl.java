@@ -2,14 +2,20 @@ package fr.uga.l3miage.library.service.mock;
 
 import fr.uga.l3miage.library.data.domain.Author;
 import fr.uga.l3miage.library.data.domain.Book;
+import fr.uga.l3miage.library.data.projection.BookView;
 import fr.uga.l3miage.library.service.AuthorService;
 import fr.uga.l3miage.library.service.BookService;
 import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.StaleVersionException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @Component
 public class BookServiceMockImpl implements BookService {
@@ -33,22 +39,78 @@ public class BookServiceMockImpl implements BookService {
     }
 
 
+    @Override
+    public Collection<Book> saveAll(Long authorId, Collection<Book> books) throws EntityNotFoundException {
+        List<Book> saved = new ArrayList<>(books.size());
+        for (Book book : books) {
+            saved.add(save(authorId, book));
+        }
+        return saved;
+    }
+
     @Override
     public Book get(Long id) throws EntityNotFoundException {
         return Optional.ofNullable(MockData.books.get(id))
                 .orElseThrow(() -> new EntityNotFoundException("Cannot find book with id: " + id));
     }
 
+    @Override
+    public Book getByIsbn(long isbn) throws EntityNotFoundException {
+        return MockData.books.values()
+                .stream()
+                .filter(book -> book.getIsbn() == isbn)
+                .findFirst()
+                .orElseThrow(() -> new EntityNotFoundException("Cannot find book with isbn: " + isbn));
+    }
+
+    @Override
+    public long modificationCount() {
+        // mock data are modified in place without tracking: listings are never considered unchanged
+        return System.nanoTime();
+    }
+
     @Override
     public Collection<Book> list() {
         return MockData.books.values().stream().toList();
     }
 
+    @Override
+    public Collection<Book> list(String afterTitle, Long afterId, int limit) {
+        Comparator<Book> order = Comparator.comparing(Book::getTitle).thenComparing(Book::getId);
+        Book key = new Book();
+        key.setTitle(afterTitle);
+        key.setId(afterId);
+        return MockData.books.values()
+                .stream()
+                .sorted(order)
+                .filter(book -> afterTitle == null || afterId == null || order.compare(book, key) > 0)
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public void export(Consumer<Book> consumer) {
+        MockData.books.values().forEach(consumer);
+    }
+
     @Override
     public Book update(Book book) throws EntityNotFoundException {
-        get(book.getId());
-        doSave(book);
-        return MockData.books.get(book.getId());
+        Book stored = get(book.getId());
+        stored.setTitle(book.getTitle());
+        stored.setIsbn(book.getIsbn());
+        stored.setPublisher(book.getPublisher());
+        stored.setYear(book.getYear());
+        stored.setLanguage(book.getLanguage());
+        stored.setVersion(stored.getVersion() + 1);
+        return stored;
+    }
+
+    @Override
+    public Book update(Book book, long version) throws EntityNotFoundException, StaleVersionException {
+        if (get(book.getId()).getVersion() != version) {
+            throw new StaleVersionException("book with id=%d was modified since version %d".formatted(book.getId(), version));
+        }
+        return update(book);
     }
 
     public Book addAuthor(Long bookId, Long authorId) throws EntityNotFoundException {
@@ -68,6 +130,21 @@ public class BookServiceMockImpl implements BookService {
         return filterBooks(MockData.books.values(), title);
     }
 
+    @Override
+    public Collection<BookView> listViews() {
+        return list().stream().map(BookView::of).toList();
+    }
+
+    @Override
+    public Collection<BookView> listViews(String afterTitle, Long afterId, int limit) {
+        return list(afterTitle, afterId, limit).stream().map(BookView::of).toList();
+    }
+
+    @Override
+    public Collection<BookView> findViewsByTitle(String title) {
+        return findByTitle(title).stream().map(BookView::of).toList();
+    }
+
     @Override
     public Collection<Book> getByAuthor(Long authorId) throws EntityNotFoundException {
         return AuthorServiceMockImpl.doGet(authorId).getBooks();
@@ -96,5 +173,4 @@ public class BookServiceMockImpl implements BookService {
                 .filter(book -> book.getTitle().toLowerCase().contains(title.toLowerCase()))
                 .toList();
     }
-
 }
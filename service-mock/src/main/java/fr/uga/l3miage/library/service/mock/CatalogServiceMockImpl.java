@@ -0,0 +1,46 @@
+package fr.uga.l3miage.library.service.mock;
+
+import fr.uga.l3miage.library.data.domain.Author;
+import fr.uga.l3miage.library.data.domain.Book;
+import fr.uga.l3miage.library.service.CatalogBatchResult;
+import fr.uga.l3miage.library.service.CatalogEntry;
+import fr.uga.l3miage.library.service.CatalogService;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+public class CatalogServiceMockImpl implements CatalogService {
+
+    @Override
+    public CatalogBatchResult importBatch(List<CatalogEntry> entries) {
+        int imported = 0;
+        int created = 0;
+        for (CatalogEntry entry : entries) {
+            Book book = entry.book();
+            if (MockData.books.values().stream().anyMatch(stored -> stored.getIsbn() == book.getIsbn())) {
+                continue;
+            }
+            book.setId(MockData.getNextId(Book.class));
+            for (String name : entry.authorNames()) {
+                Author author = MockData.authors.values().stream()
+                        .filter(candidate -> name.equals(candidate.getFullName()))
+                        .findFirst()
+                        .orElse(null);
+                if (author == null) {
+                    author = new Author();
+                    author.setId(MockData.getNextId(Author.class));
+                    author.setFullName(name);
+                    MockData.authors.put(author.getId(), author);
+                    created++;
+                }
+                author.addBook(book);
+                book.addAuthor(author);
+            }
+            MockData.books.put(book.getId(), book);
+            imported++;
+        }
+        return new CatalogBatchResult(imported, entries.size() - imported, created);
+    }
+
+}
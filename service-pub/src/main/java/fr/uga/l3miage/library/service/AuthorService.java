@@ -1,9 +1,11 @@
 package fr.uga.l3miage.library.service;
 
 import fr.uga.l3miage.library.data.domain.Author;
+import fr.uga.l3miage.library.data.projection.AuthorView;
 import fr.uga.l3miage.library.service.base.BaseService;
 
 import java.util.Collection;
+import java.util.List;
 
 public interface AuthorService extends BaseService<Author, Long> {
 
@@ -23,6 +25,51 @@ public interface AuthorService extends BaseService<Author, Long> {
      */
     Collection<Author> searchByName(String name);
 
+    /**
+     * Lists all authors as read-only projections, in listing order. No managed entity is created.
+     *
+     * @return all authors, sorted by name then id
+     */
+    Collection<AuthorView> listViews();
+
+    /**
+     * Same as {@link #list(String, Long, int)}, as read-only projections
+     *
+     * @param afterFullName name of the last author of the previous page, <code>null</code> for the first page
+     * @param afterId       id of the last author of the previous page, <code>null</code> for the first page
+     * @param limit         maximum number of authors to return
+     * @return at most <code>limit</code> authors, sorted by name then id
+     */
+    Collection<AuthorView> listViews(String afterFullName, Long afterId, int limit);
+
+    /**
+     * Suggests authors whose name words start with the given prefix, for autocompletion.
+     * Implementations should answer from memory: returned authors may only carry their id and full name.
+     *
+     * @param prefix beginning of one or several words of the name, ignoring case and accents
+     * @param limit  maximum number of authors to return
+     * @return at most <code>limit</code> authors sorted by name
+     */
+    Collection<Author> suggest(String prefix, int limit);
+
+    /**
+     * Lists the co-authors of an author, i.e. the authors who wrote at least one book with them.
+     * The size of the list is the collaboration degree of the author.
+     *
+     * @param id id of the author
+     * @return the co-authors, the ones sharing the most books first, then by name
+     * @throws EntityNotFoundException when the author does not exist
+     */
+    List<CoAuthor> coAuthors(Long id) throws EntityNotFoundException;
+
+    /**
+     * Counter increasing with every committed change to the authors. While it does not change, a listing of
+     * authors already served is unchanged, so it can be answered with 304 Not Modified.
+     *
+     * @return the modification counter
+     */
+    long modificationCount();
+
     /**
      * Deletes an author
      *
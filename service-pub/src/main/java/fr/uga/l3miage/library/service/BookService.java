@@ -1,9 +1,11 @@
 package fr.uga.l3miage.library.service;
 
 import fr.uga.l3miage.library.data.domain.Book;
+import fr.uga.l3miage.library.data.projection.BookView;
 import fr.uga.l3miage.library.service.base.BaseService;
 
 import java.util.Collection;
+import java.util.function.Consumer;
 
 public interface BookService extends BaseService<Book, Long> {
 
@@ -18,6 +20,25 @@ public interface BookService extends BaseService<Book, Long> {
      */
     Book save(Long authorId, Book book) throws EntityNotFoundException;
 
+    /**
+     * Saves many books of the same author at once, e.g. to load a publisher feed.
+     * Books are inserted in chunks using JDBC batching, the returned books are detached.
+     *
+     * @param authorId the author id
+     * @param books    the books to add
+     * @return the books with an id set
+     * @throws EntityNotFoundException if the author do not exist
+     */
+    Collection<Book> saveAll(Long authorId, Collection<Book> books) throws EntityNotFoundException;
+
+    /**
+     * Walks through all books in listing order with a constant memory footprint, e.g. to export the catalog.
+     * Books are detached once the consumer returns, so the consumer must not keep references to them.
+     *
+     * @param consumer called once per book
+     */
+    void export(Consumer<Book> consumer);
+
     /**
      * Find books by title. Title can partial, will be matched in case-insensitive fashion
      *
@@ -26,6 +47,49 @@ public interface BookService extends BaseService<Book, Long> {
      */
     Collection<Book> findByTitle(String title);
 
+    /**
+     * Lists all books as read-only projections, in listing order. No managed entity is created, which makes
+     * read-only listings cheaper than {@link #list()}.
+     *
+     * @return all books, sorted by title then id
+     */
+    Collection<BookView> listViews();
+
+    /**
+     * Same as {@link #list(String, Long, int)}, as read-only projections
+     *
+     * @param afterTitle title of the last book of the previous page, <code>null</code> for the first page
+     * @param afterId    id of the last book of the previous page, <code>null</code> for the first page
+     * @param limit      maximum number of books to return
+     * @return at most <code>limit</code> books, sorted by title then id
+     */
+    Collection<BookView> listViews(String afterTitle, Long afterId, int limit);
+
+    /**
+     * Same as {@link #findByTitle(String)}, as read-only projections
+     *
+     * @param title the title of the book or a part of it (case-insensitive)
+     * @return books with a matching title
+     */
+    Collection<BookView> findViewsByTitle(String title);
+
+    /**
+     * Finds a book by its ISBN. Implementations should not query the database for books already in cache.
+     *
+     * @param isbn the ISBN of the book
+     * @return the book
+     * @throws EntityNotFoundException if no book has this ISBN
+     */
+    Book getByIsbn(long isbn) throws EntityNotFoundException;
+
+    /**
+     * Counter increasing with every committed change to the books or to their authors. While it does not change,
+     * a listing of books already served is unchanged, so it can be answered with 304 Not Modified.
+     *
+     * @return the modification counter
+     */
+    long modificationCount();
+
     /**
      * Get all books for a given author
      *
@@ -0,0 +1,27 @@
+package fr.uga.l3miage.library.service;
+
+import fr.uga.l3miage.library.data.domain.Borrow;
+
+public interface BorrowService {
+
+    /**
+     * Finishes a borrow today, and counts the return (late or not) in the statistics of the borrower.
+     * Finishing a finished borrow changes nothing.
+     *
+     * @param id id of the borrow
+     * @return the finished borrow
+     * @throws EntityNotFoundException when the borrow does not exist
+     */
+    Borrow finish(Long id) throws EntityNotFoundException;
+
+    /**
+     * Reopens a finished borrow, and removes its return from the statistics of the borrower.
+     * Reopening a borrow in progress changes nothing.
+     *
+     * @param id id of the borrow
+     * @return the reopened borrow
+     * @throws EntityNotFoundException when the borrow does not exist
+     */
+    Borrow reopen(Long id) throws EntityNotFoundException;
+
+}
@@ -0,0 +1,11 @@
+package fr.uga.l3miage.library.service;
+
+/**
+ * What a batch import did.
+ *
+ * @param imported       books inserted
+ * @param duplicates     books skipped because their ISBN already exists or appears earlier in the batch
+ * @param authorsCreated authors that did not exist and were created
+ */
+public record CatalogBatchResult(int imported, int duplicates, int authorsCreated) {
+}
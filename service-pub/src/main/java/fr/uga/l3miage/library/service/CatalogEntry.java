@@ -0,0 +1,14 @@
+package fr.uga.l3miage.library.service;
+
+import fr.uga.l3miage.library.data.domain.Book;
+
+import java.util.List;
+
+/**
+ * A book to import with the full names of its authors.
+ *
+ * @param book        the new book, without authors
+ * @param authorNames full names of its authors, existing or not
+ */
+public record CatalogEntry(Book book, List<String> authorNames) {
+}
@@ -0,0 +1,17 @@
+package fr.uga.l3miage.library.service;
+
+import java.util.List;
+
+public interface CatalogService {
+
+    /**
+     * Imports a batch of books in a single transaction. Authors are resolved by exact full name,
+     * the missing ones are created. ISBNs are unique: a book whose ISBN is already stored, or appears
+     * earlier in the batch, is skipped and counted as a duplicate instead of failing the batch.
+     *
+     * @param entries the books to import, with their authors' names
+     * @return the numbers of books imported and skipped, and of authors created
+     */
+    CatalogBatchResult importBatch(List<CatalogEntry> entries);
+
+}
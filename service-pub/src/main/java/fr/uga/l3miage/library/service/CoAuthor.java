@@ -0,0 +1,12 @@
+package fr.uga.l3miage.library.service;
+
+import fr.uga.l3miage.library.data.domain.Author;
+
+/**
+ * An author who wrote at least one book with another author.
+ *
+ * @param author      the co-author
+ * @param sharedBooks number of books the two authors wrote together
+ */
+public record CoAuthor(Author author, int sharedBooks) {
+}
@@ -0,0 +1,14 @@
+package fr.uga.l3miage.library.service;
+
+import fr.uga.l3miage.library.data.domain.Borrow;
+
+import java.util.List;
+
+/**
+ * Published when open borrows become overdue, each borrow being published once.
+ * Subscribe with an <code>@EventListener</code> method taking this event.
+ *
+ * @param borrows the newly overdue borrows, detached
+ */
+public record OverdueBorrowsEvent(List<Borrow> borrows) {
+}
@@ -0,0 +1,22 @@
+package fr.uga.l3miage.library.service;
+
+import fr.uga.l3miage.library.data.domain.Borrow;
+import fr.uga.l3miage.library.data.domain.User;
+
+import java.util.List;
+
+/**
+ * Destination of the due-soon reminders (mail gateway, message queue, file...).
+ * Reminders are delivered at least once: a borrower may be reminded again if the pipeline restarts
+ * before recording its progress, so sinks should tolerate duplicates.
+ */
+public interface ReminderSink {
+
+    /**
+     * Reminds a borrower of the borrows to return soon
+     *
+     * @param borrower the borrower
+     * @param dueSoon  all the borrower's open borrows due in the reminder window, detached (books are not loaded)
+     */
+    void remind(User borrower, List<Borrow> dueSoon);
+}
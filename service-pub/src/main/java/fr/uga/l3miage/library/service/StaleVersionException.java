@@ -0,0 +1,12 @@
+package fr.uga.l3miage.library.service;
+
+/**
+ * Thrown when an object was modified since the version an update was based on
+ */
+public class StaleVersionException extends Exception {
+
+    public StaleVersionException(String message) {
+        super(message);
+    }
+
+}
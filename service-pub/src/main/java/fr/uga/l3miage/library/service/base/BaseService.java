@@ -1,6 +1,7 @@
 package fr.uga.l3miage.library.service.base;
 
 import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.StaleVersionException;
 
 import java.util.Collection;
 
@@ -29,6 +30,17 @@ public interface BaseService<O, I> {
      */
     Collection<O> list();
 
+    /**
+     * Returns a page of objects in listing order, starting right after the given position (keyset pagination).
+     * The position is the sort key and the id of the last object of the previous page.
+     *
+     * @param afterKey sort key of the last object of the previous page, <code>null</code> for the first page
+     * @param afterId  identifier of the last object of the previous page, <code>null</code> for the first page
+     * @param limit    maximum number of objects to return
+     * @return at most <code>limit</code> objects as an {@link Collection}
+     */
+    Collection<O> list(String afterKey, I afterId, int limit);
+
     /**
      * updates the object and return it (in case the object was updated internally)
      *
@@ -38,4 +50,16 @@ public interface BaseService<O, I> {
      */
     O update(O object) throws EntityNotFoundException;
 
+    /**
+     * updates the object only if it was not modified since the given version (optimistic concurrency),
+     * and return it
+     *
+     * @param object  the object to update
+     * @param version the version the update is based on
+     * @return the updated object
+     * @throws fr.uga.l3miage.library.service.EntityNotFoundException when the entity do not already exists
+     * @throws fr.uga.l3miage.library.service.StaleVersionException   when the entity was modified since that version
+     */
+    O update(O object, long version) throws EntityNotFoundException, StaleVersionException;
+
 }